@@ -0,0 +1,45 @@
+package DesignPatterns.CreationalPattern.BuilderPattern.PizzaBuilderV2;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the float-based V2 price calculation. getPizzaPrice prints every component, so
+ * System.out is pointed at a null stream while the benchmark runs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PizzaPriceBenchmark {
+    private Pizza pizza;
+    private PizzaPriceCalculator calculator;
+    private PrintStream stdout;
+
+    @Setup
+    public void setUp() {
+        pizza = new Pizza.Builder().addTopping("Tomato").addTopping("Onion").dough("Thin Crust").sauce("Alfredo").build();
+        calculator = new Pizza.PriceBuilder().setDoughPrice(1.99f).setSaucePrice(2.99f).setToppingPrice(2.99f);
+        stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    public float getPizzaPrice() {
+        return calculator.getPizzaPrice(pizza);
+    }
+}
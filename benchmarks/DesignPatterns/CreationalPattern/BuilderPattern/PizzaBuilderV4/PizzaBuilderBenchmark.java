@@ -0,0 +1,42 @@
+package DesignPatterns.CreationalPattern.BuilderPattern.PizzaBuilderV4;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building a V4 pizza with the generated builder, fresh and reused through reset().
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PizzaBuilderBenchmark {
+    private final PizzaBuilder builder = new PizzaBuilder();
+
+    @Benchmark
+    public Pizza build() {
+        return new PizzaBuilder()
+                .dough("Thin Crust")
+                .sauce("Alfredo")
+                .addTopping("Tomato")
+                .addTopping("Onion")
+                .addTopping("Cheese")
+                .build();
+    }
+
+    @Benchmark
+    public Pizza buildReused() {
+        return builder.reset()
+                .dough("Thin Crust")
+                .sauce("Alfredo")
+                .addTopping("Tomato")
+                .addTopping("Onion")
+                .addTopping("Cheese")
+                .build();
+    }
+}
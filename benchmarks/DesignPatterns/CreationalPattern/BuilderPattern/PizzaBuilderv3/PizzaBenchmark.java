@@ -0,0 +1,52 @@
+package DesignPatterns.CreationalPattern.BuilderPattern.PizzaBuilderv3;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building a V3 pizza and of pricing it with the BigDecimal and cents calculators.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PizzaBenchmark {
+    private Pizza pizza;
+    private PizzaPriceCalculator calculator;
+    private CentsPriceCalculator centsCalculator;
+
+    @Setup
+    public void setUp() {
+        pizza = build();
+        calculator = new PizzaPriceCalculator();
+        centsCalculator = new CentsPriceCalculator();
+    }
+
+    @Benchmark
+    public Pizza build() {
+        return new Pizza.Builder()
+                .dough(DoughType.THIN_CRUST)
+                .sauce(SauceType.ALFREDO)
+                .addTopping(ToppingType.TOMATO)
+                .addTopping(ToppingType.ONION)
+                .addTopping(ToppingType.CHEESE)
+                .build();
+    }
+
+    @Benchmark
+    public BigDecimal calculatePrice() {
+        return calculator.calculatePrice(pizza);
+    }
+
+    @Benchmark
+    public long calculatePriceCents() {
+        return centsCalculator.calculatePriceCents(pizza);
+    }
+}
@@ -0,0 +1,39 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-tick cost of AbstractSensor.read(), with the pipeline consumer draining in the background.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SensorReadBenchmark {
+    private Sensor sensor;
+
+    @Setup
+    public void setUp() {
+        sensor = SensorFactory.getSensor("TEMPERATURE", SensorType.TEMPERATURE);
+        SensorPipeline.getInstance().start((sensorType, uuidMostSigBits, uuidLeastSigBits, timestamp, value) -> {
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        SensorPipeline.getInstance().stop();
+    }
+
+    @Benchmark
+    public void read() {
+        sensor.read();
+    }
+}
@@ -0,0 +1,27 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.NotificationFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of NotificationFactory.createNotification per channel.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NotificationFactoryBenchmark {
+    @Param({"EMAIL", "SMS", "PUSH"})
+    private ChannelType channelType;
+
+    @Benchmark
+    public Notification createNotification() {
+        return NotificationFactory.createNotification(channelType);
+    }
+}
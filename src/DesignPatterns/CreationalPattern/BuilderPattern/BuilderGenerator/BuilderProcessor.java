@@ -0,0 +1,302 @@
+package DesignPatterns.CreationalPattern.BuilderPattern.BuilderGenerator;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generates a builder for every class annotated with {@link GenerateBuilder}. The generated code
+ * uses no reflection and needs no runtime support, so there is nothing to load or warm up at startup:
+ * <ul>
+ *     <li>Array properties collect elements in a buffer kept across builds; {@code build()} hands
+ *     the value class an exact-size copy.</li>
+ *     <li>{@code reset()} clears every property but keeps the buffers, so one builder can be reused
+ *     in a construction loop without reallocating.</li>
+ *     <li>Nulls are rejected when a property is set; {@code build()} only checks that each required
+ *     property was set, one straight-line check per property.</li>
+ * </ul>
+ * Run it in a separate compilation from the sources that use it, see the pom.
+ */
+@SupportedAnnotationTypes("DesignPatterns.CreationalPattern.BuilderPattern.BuilderGenerator.GenerateBuilder")
+public class BuilderProcessor extends AbstractProcessor {
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        classes:
+        for (Element element : roundEnv.getElementsAnnotatedWith(GenerateBuilder.class)) {
+            if (element.getKind() != ElementKind.CLASS || ((TypeElement) element).getNestingKind() != NestingKind.TOP_LEVEL) {
+                error(element, "@GenerateBuilder only applies to top-level classes");
+                continue;
+            }
+            TypeElement type = (TypeElement) element;
+            if (!type.getTypeParameters().isEmpty()) {
+                error(type, "@GenerateBuilder does not support generic classes");
+                continue;
+            }
+            ExecutableElement constructor = findConstructor(type);
+            if (constructor == null) {
+                continue;
+            }
+            List<Property> properties = new ArrayList<>();
+            for (VariableElement parameter : constructor.getParameters()) {
+                Property property = Property.of(parameter);
+                if (property == null) {
+                    error(parameter, "Generic array parameters are not supported");
+                    continue classes;
+                }
+                properties.add(property);
+            }
+            try {
+                write(type, properties);
+            } catch (IOException e) {
+                error(type, "Cannot write builder: " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private ExecutableElement findConstructor(TypeElement type) {
+        ExecutableElement found = null;
+        for (Element member : type.getEnclosedElements()) {
+            if (member.getKind() != ElementKind.CONSTRUCTOR || member.getModifiers().contains(Modifier.PRIVATE)) {
+                continue;
+            }
+            if (found != null) {
+                error(type, "@GenerateBuilder needs exactly one non-private constructor");
+                return null;
+            }
+            found = (ExecutableElement) member;
+        }
+        if (found == null) {
+            error(type, "@GenerateBuilder needs a non-private constructor");
+        }
+        return found;
+    }
+
+    private void write(TypeElement type, List<Property> properties) throws IOException {
+        String packageName = ((PackageElement) type.getEnclosingElement()).getQualifiedName().toString();
+        String valueName = type.getSimpleName().toString();
+        String builderName = valueName + "Builder";
+        StringBuilder out = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            out.append("package ").append(packageName).append(";\n\n");
+        }
+        out.append("/**\n")
+                .append(" * Builder for {@link ").append(valueName).append("}, generated by ")
+                .append(BuilderProcessor.class.getSimpleName()).append("; do not edit.\n")
+                .append(" * Not thread safe; call {@link #reset()} to reuse it for the next instance.\n")
+                .append(" */\n")
+                .append("@javax.annotation.processing.Generated(\"").append(BuilderProcessor.class.getName()).append("\")\n")
+                .append("public final class ").append(builderName).append(" {\n");
+        for (Property property : properties) {
+            property.writeFields(out);
+        }
+        for (Property property : properties) {
+            property.writeSetters(out, builderName);
+        }
+
+        out.append("\n    /**\n     * Clears every property, keeping array buffers for the next instance.\n     */\n")
+                .append("    public ").append(builderName).append(" reset() {\n");
+        for (Property property : properties) {
+            property.writeReset(out);
+        }
+        out.append("        return this;\n    }\n");
+
+        out.append("\n    public ").append(valueName).append(" build() {\n");
+        for (Property property : properties) {
+            property.writeCheck(out);
+        }
+        out.append("        return new ").append(valueName).append("(");
+        for (int i = 0; i < properties.size(); i++) {
+            out.append(i == 0 ? "" : ", ").append(properties.get(i).buildArgument());
+        }
+        out.append(");\n    }\n}\n");
+
+        String qualifiedName = packageName.isEmpty() ? builderName : packageName + "." + builderName;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+            writer.write(out.toString());
+        }
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    /**
+     * One constructor parameter and the builder code it turns into.
+     */
+    private static final class Property {
+        private final String name;
+        private final String type;
+        private final String componentType;
+        private final boolean primitive;
+
+        private Property(String name, String type, String componentType, boolean primitive) {
+            this.name = name;
+            this.type = type;
+            this.componentType = componentType;
+            this.primitive = primitive;
+        }
+
+        // Null for arrays of a generic type, which cannot be created without an unchecked cast
+        static Property of(VariableElement parameter) {
+            String name = parameter.getSimpleName().toString();
+            TypeMirror type = parameter.asType();
+            if (type.getKind() != TypeKind.ARRAY) {
+                return new Property(name, type.toString(), null, type.getKind().isPrimitive());
+            }
+            TypeMirror component = ((ArrayType) type).getComponentType();
+            if (component.getKind() == TypeKind.TYPEVAR || component.getKind() == TypeKind.ARRAY
+                    || (component.getKind() == TypeKind.DECLARED && !((DeclaredType) component).getTypeArguments().isEmpty())) {
+                return null;
+            }
+            return new Property(name, type.toString(), component.toString(), component.getKind().isPrimitive());
+        }
+
+        boolean isArray() {
+            return componentType != null;
+        }
+
+        void writeFields(StringBuilder out) {
+            if (isArray()) {
+                out.append("    private static final ").append(type).append(' ').append(emptyConstant())
+                        .append(" = new ").append(componentType).append("[0];\n")
+                        .append("    private ").append(type).append(' ').append(name).append(" = ").append(emptyConstant()).append(";\n")
+                        .append("    private int ").append(countField()).append(";\n");
+            } else {
+                out.append("    private ").append(type).append(' ').append(name).append(";\n");
+            }
+        }
+
+        void writeSetters(StringBuilder out, String builderName) {
+            if (!isArray()) {
+                out.append("\n    public ").append(builderName).append(' ').append(name)
+                        .append('(').append(type).append(' ').append(name).append(") {\n");
+                if (!primitive) {
+                    appendNullCheck(out, name);
+                }
+                out.append("        this.").append(name).append(" = ").append(name).append(";\n")
+                        .append("        return this;\n    }\n");
+                return;
+            }
+            String element = elementName();
+            out.append("\n    public ").append(builderName).append(' ').append(name)
+                    .append('(').append(componentType).append("... ").append(name).append(") {\n");
+            appendNullCheck(out, name);
+            if (!primitive) {
+                out.append("        java.util.Arrays.fill(this.").append(name).append(", 0, ").append(countField()).append(", null);\n");
+            }
+            out.append("        ").append(countField()).append(" = 0;\n")
+                    .append("        if (").append(name).append(".length > this.").append(name).append(".length) {\n")
+                    .append("            this.").append(name).append(" = new ").append(componentType).append('[').append(name).append(".length];\n")
+                    .append("        }\n")
+                    .append("        for (").append(componentType).append(' ').append(element).append(" : ").append(name).append(") {\n")
+                    .append("            ").append(adderName()).append('(').append(element).append(");\n")
+                    .append("        }\n")
+                    .append("        return this;\n    }\n");
+
+            out.append("\n    public ").append(builderName).append(' ').append(adderName())
+                    .append('(').append(componentType).append(' ').append(element).append(") {\n");
+            if (!primitive) {
+                appendNullCheck(out, element);
+            }
+            out.append("        if (").append(countField()).append(" == ").append(name).append(".length) {\n")
+                    .append("            ").append(name).append(" = java.util.Arrays.copyOf(").append(name)
+                    .append(", Math.max(4, ").append(countField()).append(" * 2));\n")
+                    .append("        }\n")
+                    .append("        ").append(name).append('[').append(countField()).append("++] = ").append(element).append(";\n")
+                    .append("        return this;\n    }\n");
+        }
+
+        void writeReset(StringBuilder out) {
+            if (isArray()) {
+                if (!primitive) {
+                    out.append("        java.util.Arrays.fill(").append(name).append(", 0, ").append(countField()).append(", null);\n");
+                }
+                out.append("        ").append(countField()).append(" = 0;\n");
+            } else {
+                out.append("        ").append(name).append(" = ").append(defaultValue()).append(";\n");
+            }
+        }
+
+        void writeCheck(StringBuilder out) {
+            if (!isArray() && !primitive) {
+                out.append("        if (").append(name).append(" == null) {\n")
+                        .append("            throw new IllegalStateException(\"").append(name).append(" must be specified\");\n")
+                        .append("        }\n");
+            }
+        }
+
+        String buildArgument() {
+            if (!isArray()) {
+                return name;
+            }
+            return countField() + " == 0 ? " + emptyConstant() + " : java.util.Arrays.copyOf(" + name + ", " + countField() + ")";
+        }
+
+        private void appendNullCheck(StringBuilder out, String variable) {
+            out.append("        if (").append(variable).append(" == null) {\n")
+                    .append("            throw new IllegalArgumentException(\"").append(variable).append(" cannot be null\");\n")
+                    .append("        }\n");
+        }
+
+        private String defaultValue() {
+            switch (type) {
+                case "boolean":
+                    return "false";
+                case "char":
+                    return "'\\0'";
+                default:
+                    return primitive ? "0" : "null";
+            }
+        }
+
+        private String elementName() {
+            return name.length() > 1 && name.endsWith("s") ? name.substring(0, name.length() - 1) : name + "Element";
+        }
+
+        private String adderName() {
+            String element = elementName();
+            return "add" + Character.toUpperCase(element.charAt(0)) + element.substring(1);
+        }
+
+        private String countField() {
+            return name + "Count";
+        }
+
+        private String emptyConstant() {
+            StringBuilder constant = new StringBuilder("EMPTY_");
+            for (char c : name.toCharArray()) {
+                if (Character.isUpperCase(c)) {
+                    constant.append('_');
+                }
+                constant.append(Character.toUpperCase(c));
+            }
+            return constant.toString();
+        }
+    }
+}
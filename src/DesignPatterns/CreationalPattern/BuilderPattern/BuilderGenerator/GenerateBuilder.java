@@ -0,0 +1,23 @@
+package DesignPatterns.CreationalPattern.BuilderPattern.BuilderGenerator;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an immutable value class for which {@link BuilderProcessor} generates a builder at compile
+ * time. The class must be top level and have exactly one non-private constructor; each constructor
+ * parameter becomes a builder property:
+ * <ul>
+ *     <li>an object parameter gets a setter and must be set before {@code build()}</li>
+ *     <li>a primitive parameter gets a setter and defaults to zero or false</li>
+ *     <li>an array parameter gets a varargs setter and an {@code add} method per element, named
+ *     after the parameter without its trailing "s"; it defaults to an empty array</li>
+ * </ul>
+ * The builder is named after the class with a "Builder" suffix and lives in the same package.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface GenerateBuilder {
+}
@@ -0,0 +1,69 @@
+package DesignPatterns.CreationalPattern.BuilderPattern.PizzaBuilderV4;
+
+import DesignPatterns.CreationalPattern.BuilderPattern.BuilderGenerator.GenerateBuilder;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable pizza. Its builder, {@code PizzaBuilder}, is generated at compile time from the
+ * constructor by {@link DesignPatterns.CreationalPattern.BuilderPattern.BuilderGenerator.BuilderProcessor}.
+ */
+@GenerateBuilder
+public final class Pizza {
+    private final String dough;
+    private final String sauce;
+    private final String[] toppings;
+
+    /**
+     * Takes ownership of the toppings array; the generated builder always passes a fresh one.
+     */
+    Pizza(String dough, String sauce, String[] toppings) {
+        this.dough = dough;
+        this.sauce = sauce;
+        this.toppings = toppings;
+    }
+
+    public String getDough() {
+        return dough;
+    }
+
+    public String getSauce() {
+        return sauce;
+    }
+
+    /**
+     * Gets an unmodifiable view of the toppings, in the order they were added.
+     * @return the list of toppings
+     */
+    public List<String> getToppings() {
+        return Collections.unmodifiableList(Arrays.asList(toppings));
+    }
+
+    public int getToppingCount() {
+        return toppings.length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Pizza)) {
+            return false;
+        }
+        Pizza other = (Pizza) o;
+        return dough.equals(other.dough) && sauce.equals(other.sauce) && Arrays.equals(toppings, other.toppings);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * dough.hashCode() + sauce.hashCode()) + Arrays.hashCode(toppings);
+    }
+
+    @Override
+    public String toString() {
+        return "Pizza{dough=" + dough + ", sauce=" + sauce + ", toppings=" + Arrays.toString(toppings) + "}";
+    }
+}
@@ -0,0 +1,26 @@
+package DesignPatterns.CreationalPattern.BuilderPattern.PizzaBuilderV4;
+
+public class PizzaApp {
+
+    public static void main(String[] args) {
+        // PizzaBuilder is generated from Pizza's constructor at compile time
+        Pizza pizza = new PizzaBuilder()
+                .dough("Thin Crust")
+                .sauce("Alfredo")
+                .addTopping("Tomato")
+                .addTopping("Onion")
+                .build();
+        System.out.println(pizza);
+
+        // One builder reused across a batch; reset() keeps the topping buffer
+        PizzaBuilder builder = new PizzaBuilder();
+        for (int i = 0; i < 3; i++) {
+            Pizza order = builder.reset()
+                    .dough("Hand Tossed")
+                    .sauce("Marinara")
+                    .toppings("Cheese", "Pepperoni")
+                    .build();
+            System.out.println(order);
+        }
+    }
+}
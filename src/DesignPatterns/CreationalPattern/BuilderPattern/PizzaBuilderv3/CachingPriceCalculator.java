@@ -0,0 +1,177 @@
+package DesignPatterns.CreationalPattern.BuilderPattern.PizzaBuilderv3;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongPredicate;
+
+/**
+ * Caches the prices of another calculator per pizza configuration. Pizzas with the same dough,
+ * sauce and topping counts are equal, so each quote is one lookup in a concurrent map, and hits
+ * take no lock. Recency is approximate: each entry remembers the miss count at its last use, and
+ * once the cache outgrows its maximum size the least recently used tenth is evicted in one pass.
+ * The cache is cleared whenever the underlying calculator changes a price.
+ */
+public class CachingPriceCalculator implements PriceCalculator, PriceChangeListener {
+
+    private final PriceCalculator delegate;
+    private final int maximumSize;
+    private final Map<Pizza, Entry> prices = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    // Advanced on misses only, so hits just read it
+    private final AtomicLong clock = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private volatile long generation;
+
+    /**
+     * Creates a cache over the given calculator, cleared on each of its price changes.
+     * @param delegate the calculator to cache
+     * @param maximumSize the maximum number of cached configurations
+     */
+    public CachingPriceCalculator(PizzaPriceCalculator delegate, int maximumSize) {
+        this((PriceCalculator) delegate, maximumSize);
+        delegate.addPriceChangeListener(this);
+    }
+
+    /**
+     * Creates a cache over the given calculator, cleared on each of its price changes.
+     * @param delegate the calculator to cache
+     * @param maximumSize the maximum number of cached configurations
+     */
+    public CachingPriceCalculator(CentsPriceCalculator delegate, int maximumSize) {
+        this((PriceCalculator) delegate, maximumSize);
+        delegate.addPriceChangeListener(this);
+    }
+
+    private CachingPriceCalculator(PriceCalculator delegate, int maximumSize) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Delegate calculator cannot be null");
+        }
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive: " + maximumSize);
+        }
+        this.delegate = delegate;
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Returns the cached price of the pizza's configuration, calculating it on a miss.
+     * @param pizza the pizza to calculate the price for
+     * @return the total price as BigDecimal
+     */
+    @Override
+    public BigDecimal calculatePrice(Pizza pizza) {
+        Entry entry = prices.get(pizza);
+        if (entry != null) {
+            long now = clock.get();
+            if (entry.lastUsed != now) {
+                entry.lastUsed = now;
+            }
+            hits.increment();
+            return entry.price;
+        }
+        long observedGeneration = generation;
+        misses.increment();
+        BigDecimal price = delegate.calculatePrice(pizza);
+        Entry added = new Entry(price, clock.incrementAndGet());
+        prices.put(pizza, added);
+        // Don't keep a price computed against prices that changed in the meantime
+        if (generation != observedGeneration) {
+            prices.remove(pizza, added);
+        }
+        if (prices.size() > maximumSize) {
+            evict();
+        }
+        return price;
+    }
+
+    /**
+     * Clears the cache.
+     */
+    @Override
+    public synchronized void onPriceChange() {
+        generation++;
+        prices.clear();
+    }
+
+    /**
+     * Gets the number of configurations currently cached.
+     * @return the cache size
+     */
+    public int size() {
+        return prices.size();
+    }
+
+    /**
+     * Gets the number of quotes answered from the cache.
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of quotes that had to be calculated.
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    // Evicts down to nine tenths of the maximum size, oldest entries first; one thread at a time
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            int excess = prices.size() - maximumSize * 9 / 10;
+            if (excess <= 0) {
+                return;
+            }
+            long[] stamps = new long[prices.size() + 16];
+            int count = 0;
+            for (Entry entry : prices.values()) {
+                if (count == stamps.length) {
+                    break;
+                }
+                stamps[count++] = entry.lastUsed;
+            }
+            Arrays.sort(stamps, 0, count);
+            int remaining = Math.min(excess, count);
+            long cutoff = stamps[remaining - 1];
+            // Every entry hit between two misses shares a stamp, so remove older entries first and
+            // then only as many at the cutoff as are still needed; stamps only grow meanwhile
+            remaining -= removeOldest(remaining, stamp -> stamp < cutoff);
+            removeOldest(remaining, stamp -> stamp == cutoff);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private int removeOldest(int limit, LongPredicate matches) {
+        int removed = 0;
+        for (Iterator<Entry> entries = prices.values().iterator(); removed < limit && entries.hasNext(); ) {
+            if (matches.test(entries.next().lastUsed)) {
+                entries.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    private static final class Entry {
+        final BigDecimal price;
+        volatile long lastUsed;
+
+        Entry(BigDecimal price, long lastUsed) {
+            this.price = price;
+            this.lastUsed = lastUsed;
+        }
+    }
+}
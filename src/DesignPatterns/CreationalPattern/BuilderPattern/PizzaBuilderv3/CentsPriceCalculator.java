@@ -0,0 +1,274 @@
+package DesignPatterns.CreationalPattern.BuilderPattern.PizzaBuilderv3;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+
+/**
+ * Calculates the price of a pizza from prices stored as whole cents in arrays indexed by enum
+ * ordinal. Pricing a pizza in cents does not allocate; the BigDecimal API converts once at the end.
+ * The arrays are never written after they are published: every change copies them into a new
+ * {@link CentsPrices} snapshot that replaces the old one, so a price sees one consistent set.
+ * <p>
+ * Unlike {@link PizzaPriceCalculator}, which accepts any scale, prices must be whole cents: a
+ * sub-cent price such as 0.125 is rejected rather than rounded, so wherever both calculators
+ * accept a price they agree on every pizza.
+ */
+public class CentsPriceCalculator implements PriceCalculator {
+
+    private static final long NOT_SET = Long.MIN_VALUE;
+    private static final int BATCH_SPLIT_THRESHOLD = 4096;
+
+    private volatile CentsPrices prices;
+    private final List<PriceChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Initializes the price calculator with the default prices of {@link PizzaPriceCalculator}.
+     */
+    public CentsPriceCalculator() {
+        this(new PizzaPriceCalculator().getPrices());
+    }
+
+    /**
+     * Initializes the price calculator from a price table, e.g. a snapshot of a {@link PizzaPriceCalculator}.
+     * @param table the prices to start from; types without a price stay unpriced
+     * @throws IllegalArgumentException if a price is not a whole number of cents
+     */
+    public CentsPriceCalculator(PriceTable table) {
+        if (table == null) {
+            throw new IllegalArgumentException("Price table cannot be null");
+        }
+        this.prices = new CentsPrices(toCents(DoughType.values(), table::getDoughPrice),
+                toCents(SauceType.values(), table::getSaucePrice),
+                toCents(ToppingType.values(), table::getToppingPrice));
+    }
+
+    /**
+     * Calculates the price of the given pizza.
+     * @param pizza the pizza to calculate the price for
+     * @return the total price as BigDecimal with two decimal places
+     */
+    @Override
+    public BigDecimal calculatePrice(Pizza pizza) {
+        return BigDecimal.valueOf(calculatePriceCents(pizza), 2);
+    }
+
+    /**
+     * Calculates the price of the given pizza in cents without allocating.
+     * @param pizza the pizza to calculate the price for
+     * @return the total price in cents
+     */
+    public long calculatePriceCents(Pizza pizza) {
+        return priceCents(pizza.getDough().ordinal(), pizza.getSauce().ordinal(), pizza.getToppingCounts(), prices);
+    }
+
+    /**
+     * Calculates the price of every pizza in the list, in parallel across the common fork-join pool.
+     * @param pizzas the pizzas to calculate the prices for
+     * @return the price of each pizza in cents, in list order
+     */
+    public long[] calculatePricesCents(List<Pizza> pizzas) {
+        PizzaOrderBatch batch = PizzaOrderBatch.of(pizzas);
+        long[] pricesCents = new long[batch.size()];
+        calculatePricesCents(batch, pricesCents);
+        return pricesCents;
+    }
+
+    /**
+     * Calculates the price of every order in the batch, in parallel across the common fork-join pool.
+     * All orders are priced against the prices in effect when the call starts.
+     * @param batch the orders to calculate the prices for
+     * @param pricesCents receives the price of each order in cents, in batch order
+     * @return the total price of the batch in cents
+     */
+    public long calculatePricesCents(PizzaOrderBatch batch, long[] pricesCents) {
+        if (batch == null || pricesCents == null) {
+            throw new IllegalArgumentException("Batch and prices array cannot be null");
+        }
+        if (pricesCents.length < batch.size()) {
+            throw new IllegalArgumentException("Prices array is smaller than the batch: " + pricesCents.length);
+        }
+        return ForkJoinPool.commonPool().invoke(new BatchPricingTask(batch, pricesCents, 0, batch.size(), prices));
+    }
+
+    /**
+     * Sets the price for a specific dough type.
+     * @param doughType the dough type
+     * @param price the price to set
+     * @throws IllegalArgumentException if the price is not a whole number of cents
+     */
+    public void setDoughPrice(DoughType doughType, BigDecimal price) {
+        if (doughType == null || price == null) {
+            throw new IllegalArgumentException("Dough type and price cannot be null");
+        }
+        long cents = toCents(price);
+        synchronized (this) {
+            CentsPrices current = prices;
+            long[] updated = current.doughCents.clone();
+            updated[doughType.ordinal()] = cents;
+            prices = new CentsPrices(updated, current.sauceCents, current.toppingCents);
+        }
+        firePriceChange();
+    }
+
+    /**
+     * Sets the price for a specific sauce type.
+     * @param sauceType the sauce type
+     * @param price the price to set
+     * @throws IllegalArgumentException if the price is not a whole number of cents
+     */
+    public void setSaucePrice(SauceType sauceType, BigDecimal price) {
+        if (sauceType == null || price == null) {
+            throw new IllegalArgumentException("Sauce type and price cannot be null");
+        }
+        long cents = toCents(price);
+        synchronized (this) {
+            CentsPrices current = prices;
+            long[] updated = current.sauceCents.clone();
+            updated[sauceType.ordinal()] = cents;
+            prices = new CentsPrices(current.doughCents, updated, current.toppingCents);
+        }
+        firePriceChange();
+    }
+
+    /**
+     * Sets the price for a specific topping type.
+     * @param toppingType the topping type
+     * @param price the price to set
+     * @throws IllegalArgumentException if the price is not a whole number of cents
+     */
+    public void setToppingPrice(ToppingType toppingType, BigDecimal price) {
+        if (toppingType == null || price == null) {
+            throw new IllegalArgumentException("Topping type and price cannot be null");
+        }
+        long cents = toCents(price);
+        synchronized (this) {
+            CentsPrices current = prices;
+            long[] updated = current.toppingCents.clone();
+            updated[toppingType.ordinal()] = cents;
+            prices = new CentsPrices(current.doughCents, current.sauceCents, updated);
+        }
+        firePriceChange();
+    }
+
+    /**
+     * Registers a listener to be notified after every price change.
+     * @param listener the listener to add
+     */
+    public void addPriceChangeListener(PriceChangeListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        listeners.add(listener);
+    }
+
+    private void firePriceChange() {
+        for (PriceChangeListener listener : listeners) {
+            listener.onPriceChange();
+        }
+    }
+
+    private static <T> long[] toCents(T[] types, Function<T, BigDecimal> price) {
+        long[] cents = new long[types.length];
+        for (int i = 0; i < types.length; i++) {
+            BigDecimal typePrice = price.apply(types[i]);
+            cents[i] = typePrice == null ? NOT_SET : toCents(typePrice);
+        }
+        return cents;
+    }
+
+    private static long toCents(BigDecimal price) {
+        try {
+            return price.movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Price must be a whole number of cents: " + price, e);
+        }
+    }
+
+    private static long priceCents(int dough, int sauce, long toppingCounts, CentsPrices prices) {
+        long[] toppingCents = prices.toppingCents;
+        long doughPrice = prices.doughCents[dough];
+        if (doughPrice == NOT_SET) {
+            throw new IllegalArgumentException("Price not set for dough type: " + DoughType.values()[dough]);
+        }
+        long saucePrice = prices.sauceCents[sauce];
+        if (saucePrice == NOT_SET) {
+            throw new IllegalArgumentException("Price not set for sauce type: " + SauceType.values()[sauce]);
+        }
+        long price = doughPrice + saucePrice;
+        for (int topping = 0; toppingCounts != 0; topping++) {
+            int count = (int) toppingCounts & Pizza.MAX_TOPPING_COUNT;
+            if (count != 0) {
+                if (toppingCents[topping] == NOT_SET) {
+                    throw new IllegalArgumentException("Price not set for topping: " + ToppingType.values()[topping]);
+                }
+                price += count * toppingCents[topping];
+            }
+            toppingCounts >>>= Pizza.TOPPING_COUNT_BITS;
+        }
+        return price;
+    }
+
+    /**
+     * Immutable set of prices in cents, indexed by enum ordinal; the arrays are never written once
+     * the snapshot is constructed.
+     */
+    private static final class CentsPrices {
+        final long[] doughCents;
+        final long[] sauceCents;
+        final long[] toppingCents;
+
+        CentsPrices(long[] doughCents, long[] sauceCents, long[] toppingCents) {
+            this.doughCents = doughCents;
+            this.sauceCents = sauceCents;
+            this.toppingCents = toppingCents;
+        }
+    }
+
+    /**
+     * Prices a range of a batch, splitting it in half until it is small enough to price directly.
+     */
+    private static class BatchPricingTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final PizzaOrderBatch batch;
+        private final long[] pricesCents;
+        private final int from;
+        private final int to;
+        private final CentsPrices prices;
+
+        BatchPricingTask(PizzaOrderBatch batch, long[] pricesCents, int from, int to, CentsPrices prices) {
+            this.batch = batch;
+            this.pricesCents = pricesCents;
+            this.from = from;
+            this.to = to;
+            this.prices = prices;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from <= BATCH_SPLIT_THRESHOLD) {
+                return priceRange();
+            }
+            int middle = (from + to) >>> 1;
+            BatchPricingTask left = new BatchPricingTask(batch, pricesCents, from, middle, prices);
+            BatchPricingTask right = new BatchPricingTask(batch, pricesCents, middle, to, prices);
+            left.fork();
+            long rightTotal = right.compute();
+            return left.join() + rightTotal;
+        }
+
+        private long priceRange() {
+            long total = 0;
+            for (int order = from; order < to; order++) {
+                long price = priceCents(batch.doughOrdinal(order), batch.sauceOrdinal(order), batch.toppingCounts(order), prices);
+                pricesCents[order] = price;
+                total += price;
+            }
+            return total;
+        }
+    }
+}
@@ -1,19 +1,38 @@
 package DesignPatterns.CreationalPattern.BuilderPattern.PizzaBuilderv3;
 
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * An immutable pizza, encoded in a single long: the count of each topping in the low bits,
+ * {@value #TOPPING_COUNT_BITS} bits per topping ordinal, then the dough and sauce ordinals.
+ */
 public class Pizza {
-    private final DoughType dough;
-    private final SauceType sauce;
-    private final List<ToppingType> toppings;
-
-    private Pizza(Builder builder) {
-        this.dough = builder.dough;
-        this.sauce = builder.sauce;
-        this.toppings = Collections.unmodifiableList(new ArrayList<>(builder.toppings));
+    static final int TOPPING_COUNT_BITS = 8;
+    static final int MAX_TOPPING_COUNT = (1 << TOPPING_COUNT_BITS) - 1;
+    private static final int DOUGH_SHIFT = 48;
+    private static final int SAUCE_SHIFT = 56;
+    private static final long TOPPING_COUNTS_MASK = (1L << DOUGH_SHIFT) - 1;
+    static final int MAX_INTERNED = 4096;
+
+    private static final DoughType[] DOUGH_TYPES = DoughType.values();
+    private static final SauceType[] SAUCE_TYPES = SauceType.values();
+    private static final ToppingType[] TOPPING_TYPES = ToppingType.values();
+    private static final ConcurrentMap<Long, Pizza> INTERNED = new ConcurrentHashMap<>();
+
+    static {
+        if (TOPPING_TYPES.length * TOPPING_COUNT_BITS > DOUGH_SHIFT) {
+            throw new IllegalStateException("Too many topping types to encode: " + TOPPING_TYPES.length);
+        }
+    }
+
+    private final long code;
+    private List<ToppingType> toppings;
+
+    private Pizza(long code) {
+        this.code = code;
     }
 
     /**
@@ -21,7 +40,7 @@ public class Pizza {
      * @return the dough type
      */
     public DoughType getDough() {
-        return dough;
+        return DOUGH_TYPES[(int) (code >>> DOUGH_SHIFT) & 0xFF];
     }
 
     /**
@@ -29,24 +48,83 @@ public class Pizza {
      * @return the sauce type
      */
     public SauceType getSauce() {
-        return sauce;
+        return SAUCE_TYPES[(int) (code >>> SAUCE_SHIFT) & 0xFF];
     }
 
     /**
-     * Gets an unmodifiable list of toppings on the pizza.
+     * Gets an unmodifiable list of toppings on the pizza, in topping declaration order.
+     * The list is built on first use.
      * @return the list of toppings
      */
     public List<ToppingType> getToppings() {
+        List<ToppingType> toppings = this.toppings;
+        if (toppings == null) {
+            ToppingType[] expanded = new ToppingType[getToppingTotal()];
+            int index = 0;
+            for (ToppingType topping : TOPPING_TYPES) {
+                for (int count = getToppingCount(topping); count > 0; count--) {
+                    expanded[index++] = topping;
+                }
+            }
+            toppings = List.of(expanded);
+            this.toppings = toppings;
+        }
         return toppings;
     }
 
+    /**
+     * Gets how many times a topping was added to the pizza.
+     * @param topping the topping to count
+     * @return the number of times the topping was added
+     */
+    public int getToppingCount(ToppingType topping) {
+        return (int) (code >>> (topping.ordinal() * TOPPING_COUNT_BITS)) & MAX_TOPPING_COUNT;
+    }
+
+    /**
+     * Gets the total number of toppings on the pizza.
+     * @return the number of toppings
+     */
+    public int getToppingTotal() {
+        int total = 0;
+        for (long counts = getToppingCounts(); counts != 0; counts >>>= TOPPING_COUNT_BITS) {
+            total += (int) counts & MAX_TOPPING_COUNT;
+        }
+        return total;
+    }
+
+    /**
+     * Gets the packed topping counts, {@value #TOPPING_COUNT_BITS} bits per topping ordinal.
+     */
+    long getToppingCounts() {
+        return code & TOPPING_COUNTS_MASK;
+    }
+
+    /**
+     * Gets the encoded pizza; equal pizzas have equal codes.
+     */
+    long getCode() {
+        return code;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Pizza && ((Pizza) o).code == code);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(code);
+    }
+
     /**
      * Builder class for constructing Pizza instances.
      */
     public static class Builder {
         private DoughType dough;
         private SauceType sauce;
-        private List<ToppingType> toppings = new ArrayList<>();
+        private long toppingCounts;
+        private boolean intern;
 
         /**
          * Sets the dough type for the pizza.
@@ -83,7 +161,24 @@ public class Pizza {
             if (topping == null) {
                 throw new IllegalArgumentException("Topping cannot be null");
             }
-            this.toppings.add(topping);
+            int shift = topping.ordinal() * TOPPING_COUNT_BITS;
+            if (((toppingCounts >>> shift) & MAX_TOPPING_COUNT) == MAX_TOPPING_COUNT) {
+                throw new IllegalArgumentException("Cannot add more than " + MAX_TOPPING_COUNT + " of topping: " + topping);
+            }
+            this.toppingCounts += 1L << shift;
+            return this;
+        }
+
+        /**
+         * Makes {@link #build()} return a shared instance for configurations it has built before.
+         * At most {@value Pizza#MAX_INTERNED} configurations are ever shared, and none are evicted:
+         * once that many have been interned, other configurations get a new instance on every build.
+         * Equality does not depend on interning, so compare pizzas with {@code equals}.
+         * @param intern whether to share instances
+         * @return the builder instance
+         */
+        public Builder intern(boolean intern) {
+            this.intern = intern;
             return this;
         }
 
@@ -98,7 +193,23 @@ public class Pizza {
             if (sauce == null) {
                 throw new IllegalStateException("Sauce type must be specified");
             }
-            return new Pizza(this);
+            long code = toppingCounts
+                    | (long) dough.ordinal() << DOUGH_SHIFT
+                    | (long) sauce.ordinal() << SAUCE_SHIFT;
+            if (!intern) {
+                return new Pizza(code);
+            }
+            Pizza pizza = INTERNED.get(code);
+            if (pizza == null) {
+                pizza = new Pizza(code);
+                if (INTERNED.size() < MAX_INTERNED) {
+                    Pizza existing = INTERNED.putIfAbsent(code, pizza);
+                    if (existing != null) {
+                        pizza = existing;
+                    }
+                }
+            }
+            return pizza;
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package DesignPatterns.CreationalPattern.BuilderPattern.PizzaBuilderv3;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Columnar view of a batch of pizza orders: dough and sauce ordinals plus a packed topping count
+ * vector per order, one primitive array per column.
+ */
+public class PizzaOrderBatch {
+    private final byte[] doughs;
+    private final byte[] sauces;
+    private final long[] toppingCounts;
+
+    private PizzaOrderBatch(int size) {
+        this.doughs = new byte[size];
+        this.sauces = new byte[size];
+        this.toppingCounts = new long[size];
+    }
+
+    /**
+     * Creates a batch from the given pizzas, in list order.
+     * @param pizzas the pizzas to include
+     * @return the columnar batch
+     */
+    public static PizzaOrderBatch of(List<Pizza> pizzas) {
+        if (pizzas == null) {
+            throw new IllegalArgumentException("Pizzas cannot be null");
+        }
+        PizzaOrderBatch batch = new PizzaOrderBatch(pizzas.size());
+        for (int i = 0; i < pizzas.size(); i++) {
+            Pizza pizza = pizzas.get(i);
+            batch.doughs[i] = (byte) pizza.getDough().ordinal();
+            batch.sauces[i] = (byte) pizza.getSauce().ordinal();
+            batch.toppingCounts[i] = pizza.getToppingCounts();
+        }
+        return batch;
+    }
+
+    /**
+     * Creates a batch from the given stream of pizzas, in encounter order.
+     * @param pizzas the pizzas to include
+     * @return the columnar batch
+     */
+    public static PizzaOrderBatch of(Stream<Pizza> pizzas) {
+        return of(pizzas.collect(Collectors.toList()));
+    }
+
+    /**
+     * Gets the number of orders in the batch.
+     * @return the batch size
+     */
+    public int size() {
+        return doughs.length;
+    }
+
+    int doughOrdinal(int order) {
+        return doughs[order];
+    }
+
+    int sauceOrdinal(int order) {
+        return sauces[order];
+    }
+
+    long toppingCounts(int order) {
+        return toppingCounts[order];
+    }
+}
@@ -1,39 +1,43 @@
 package DesignPatterns.CreationalPattern.BuilderPattern.PizzaBuilderv3;
 
 import java.math.BigDecimal;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 /**
  * Calculates the price of a pizza based on its components.
+ * Prices live in an immutable {@link PriceTable} that is replaced as a whole on every change, so
+ * quotes read one consistent snapshot without locking while writers update prices.
  */
 public class PizzaPriceCalculator implements PriceCalculator {
 
-    private final Map<DoughType, BigDecimal> doughPrices = new HashMap<>();
-    private final Map<SauceType, BigDecimal> saucePrices = new HashMap<>();
-    private final Map<ToppingType, BigDecimal> toppingPrices = new HashMap<>();
+    private volatile PriceTable prices;
+    private final List<PriceChangeListener> listeners = new CopyOnWriteArrayList<>();
 
     /**
      * Initializes the price calculator with default prices.
      */
     public PizzaPriceCalculator() {
-        // Set default prices for dough types
-        doughPrices.put(DoughType.THIN_CRUST, new BigDecimal("2.00"));
-        doughPrices.put(DoughType.THICK_CRUST, new BigDecimal("2.50"));
-        doughPrices.put(DoughType.GLUTEN_FREE, new BigDecimal("3.00"));
-
-        // Set default prices for sauce types
-        saucePrices.put(SauceType.TOMATO, new BigDecimal("1.00"));
-        saucePrices.put(SauceType.ALFREDO, new BigDecimal("1.50"));
-        saucePrices.put(SauceType.PESTO, new BigDecimal("1.75"));
-
-        // Set default prices for toppings
-        toppingPrices.put(ToppingType.ONION, new BigDecimal("0.50"));
-        toppingPrices.put(ToppingType.TOMATO, new BigDecimal("0.50"));
-        toppingPrices.put(ToppingType.PEPPERONI, new BigDecimal("1.00"));
-        toppingPrices.put(ToppingType.MUSHROOMS, new BigDecimal("0.75"));
-        toppingPrices.put(ToppingType.OLIVES, new BigDecimal("0.65"));
-        toppingPrices.put(ToppingType.CHEESE, new BigDecimal("0.80"));
+        this.prices = PriceTable.empty().toBuilder()
+                // Set default prices for dough types
+                .setDoughPrice(DoughType.THIN_CRUST, new BigDecimal("2.00"))
+                .setDoughPrice(DoughType.THICK_CRUST, new BigDecimal("2.50"))
+                .setDoughPrice(DoughType.GLUTEN_FREE, new BigDecimal("3.00"))
+
+                // Set default prices for sauce types
+                .setSaucePrice(SauceType.TOMATO, new BigDecimal("1.00"))
+                .setSaucePrice(SauceType.ALFREDO, new BigDecimal("1.50"))
+                .setSaucePrice(SauceType.PESTO, new BigDecimal("1.75"))
+
+                // Set default prices for toppings
+                .setToppingPrice(ToppingType.ONION, new BigDecimal("0.50"))
+                .setToppingPrice(ToppingType.TOMATO, new BigDecimal("0.50"))
+                .setToppingPrice(ToppingType.PEPPERONI, new BigDecimal("1.00"))
+                .setToppingPrice(ToppingType.MUSHROOMS, new BigDecimal("0.75"))
+                .setToppingPrice(ToppingType.OLIVES, new BigDecimal("0.65"))
+                .setToppingPrice(ToppingType.CHEESE, new BigDecimal("0.80"))
+                .build(1);
     }
 
     /**
@@ -43,22 +47,36 @@ public class PizzaPriceCalculator implements PriceCalculator {
      */
     @Override
     public BigDecimal calculatePrice(Pizza pizza) {
+        return calculatePrice(pizza, prices);
+    }
+
+    /**
+     * Calculates the price of the given pizza and records which prices were used.
+     * @param pizza the pizza to calculate the price for
+     * @return the total price and the version of the price table it was calculated against
+     */
+    public PriceQuote calculateQuote(Pizza pizza) {
+        PriceTable snapshot = prices;
+        return new PriceQuote(calculatePrice(pizza, snapshot), snapshot.getVersion());
+    }
+
+    private static BigDecimal calculatePrice(Pizza pizza, PriceTable prices) {
         BigDecimal price = BigDecimal.ZERO;
 
-        BigDecimal doughPrice = doughPrices.get(pizza.getDough());
+        BigDecimal doughPrice = prices.getDoughPrice(pizza.getDough());
         if (doughPrice == null) {
             throw new IllegalArgumentException("Price not set for dough type: " + pizza.getDough());
         }
         price = price.add(doughPrice);
 
-        BigDecimal saucePrice = saucePrices.get(pizza.getSauce());
+        BigDecimal saucePrice = prices.getSaucePrice(pizza.getSauce());
         if (saucePrice == null) {
             throw new IllegalArgumentException("Price not set for sauce type: " + pizza.getSauce());
         }
         price = price.add(saucePrice);
 
         for (ToppingType topping : pizza.getToppings()) {
-            BigDecimal toppingPrice = toppingPrices.get(topping);
+            BigDecimal toppingPrice = prices.getToppingPrice(topping);
             if (toppingPrice == null) {
                 throw new IllegalArgumentException("Price not set for topping: " + topping);
             }
@@ -68,6 +86,36 @@ public class PizzaPriceCalculator implements PriceCalculator {
         return price;
     }
 
+    /**
+     * Gets the current price table.
+     * @return the current immutable snapshot of all prices
+     */
+    public PriceTable getPrices() {
+        return prices;
+    }
+
+    /**
+     * Applies several price changes as one update: quotes see either none or all of them, and the
+     * price version increases once.
+     * @param changes the changes to apply to a copy of the current prices
+     * @return the newly published price table
+     */
+    public PriceTable applyMenu(Consumer<PriceTable.Builder> changes) {
+        if (changes == null) {
+            throw new IllegalArgumentException("Changes cannot be null");
+        }
+        PriceTable published;
+        synchronized (this) {
+            PriceTable current = prices;
+            PriceTable.Builder builder = current.toBuilder();
+            changes.accept(builder);
+            published = builder.build(current.getVersion() + 1);
+            prices = published;
+        }
+        firePriceChange();
+        return published;
+    }
+
     /**
      * Sets the price for a specific dough type.
      * @param doughType the dough type
@@ -77,7 +125,7 @@ public class PizzaPriceCalculator implements PriceCalculator {
         if (doughType == null || price == null) {
             throw new IllegalArgumentException("Dough type and price cannot be null");
         }
-        doughPrices.put(doughType, price);
+        applyMenu(menu -> menu.setDoughPrice(doughType, price));
     }
 
     /**
@@ -89,7 +137,7 @@ public class PizzaPriceCalculator implements PriceCalculator {
         if (sauceType == null || price == null) {
             throw new IllegalArgumentException("Sauce type and price cannot be null");
         }
-        saucePrices.put(sauceType, price);
+        applyMenu(menu -> menu.setSaucePrice(sauceType, price));
     }
 
     /**
@@ -101,6 +149,23 @@ public class PizzaPriceCalculator implements PriceCalculator {
         if (toppingType == null || price == null) {
             throw new IllegalArgumentException("Topping type and price cannot be null");
         }
-        toppingPrices.put(toppingType, price);
+        applyMenu(menu -> menu.setToppingPrice(toppingType, price));
+    }
+
+    /**
+     * Registers a listener to be notified after every price change.
+     * @param listener the listener to add
+     */
+    public void addPriceChangeListener(PriceChangeListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        listeners.add(listener);
+    }
+
+    private void firePriceChange() {
+        for (PriceChangeListener listener : listeners) {
+            listener.onPriceChange();
+        }
     }
 }
\ No newline at end of file
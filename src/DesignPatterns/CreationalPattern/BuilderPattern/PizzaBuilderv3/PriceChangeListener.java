@@ -0,0 +1,9 @@
+package DesignPatterns.CreationalPattern.BuilderPattern.PizzaBuilderv3;
+
+/**
+ * Notified after a price calculator changes any of its prices.
+ */
+public interface PriceChangeListener {
+
+    void onPriceChange();
+}
@@ -0,0 +1,37 @@
+package DesignPatterns.CreationalPattern.BuilderPattern.PizzaBuilderv3;
+
+import java.math.BigDecimal;
+
+/**
+ * A calculated pizza price together with the version of the price table it was calculated against.
+ */
+public final class PriceQuote {
+    private final BigDecimal price;
+    private final long priceVersion;
+
+    public PriceQuote(BigDecimal price, long priceVersion) {
+        this.price = price;
+        this.priceVersion = priceVersion;
+    }
+
+    /**
+     * Gets the quoted price.
+     * @return the total price as BigDecimal
+     */
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    /**
+     * Gets the version of the price table used for this quote.
+     * @return the price table version
+     */
+    public long getPriceVersion() {
+        return priceVersion;
+    }
+
+    @Override
+    public String toString() {
+        return price + " (prices v" + priceVersion + ")";
+    }
+}
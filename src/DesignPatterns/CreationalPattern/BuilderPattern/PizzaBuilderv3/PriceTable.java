@@ -0,0 +1,136 @@
+package DesignPatterns.CreationalPattern.BuilderPattern.PizzaBuilderv3;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of every dough, sauce and topping price, tagged with a version that increases
+ * with each published change.
+ */
+public final class PriceTable {
+    private final long version;
+    private final Map<DoughType, BigDecimal> doughPrices;
+    private final Map<SauceType, BigDecimal> saucePrices;
+    private final Map<ToppingType, BigDecimal> toppingPrices;
+
+    private PriceTable(Builder builder, long version) {
+        this.version = version;
+        this.doughPrices = new EnumMap<>(builder.doughPrices);
+        this.saucePrices = new EnumMap<>(builder.saucePrices);
+        this.toppingPrices = new EnumMap<>(builder.toppingPrices);
+    }
+
+    /**
+     * Gets the version of this snapshot.
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the price of a dough type.
+     * @param doughType the dough type
+     * @return the price, or null if not set
+     */
+    public BigDecimal getDoughPrice(DoughType doughType) {
+        return doughPrices.get(doughType);
+    }
+
+    /**
+     * Gets the price of a sauce type.
+     * @param sauceType the sauce type
+     * @return the price, or null if not set
+     */
+    public BigDecimal getSaucePrice(SauceType sauceType) {
+        return saucePrices.get(sauceType);
+    }
+
+    /**
+     * Gets the price of a topping type.
+     * @param toppingType the topping type
+     * @return the price, or null if not set
+     */
+    public BigDecimal getToppingPrice(ToppingType toppingType) {
+        return toppingPrices.get(toppingType);
+    }
+
+    /**
+     * Creates an empty price table with version 0.
+     * @return the empty table
+     */
+    static PriceTable empty() {
+        return new PriceTable(new Builder(), 0);
+    }
+
+    /**
+     * Starts a set of changes on top of this snapshot.
+     * @return a builder holding a copy of these prices
+     */
+    Builder toBuilder() {
+        Builder builder = new Builder();
+        builder.doughPrices.putAll(doughPrices);
+        builder.saucePrices.putAll(saucePrices);
+        builder.toppingPrices.putAll(toppingPrices);
+        return builder;
+    }
+
+    /**
+     * Builder class for changing several prices in one step.
+     */
+    public static class Builder {
+        private final Map<DoughType, BigDecimal> doughPrices = new EnumMap<>(DoughType.class);
+        private final Map<SauceType, BigDecimal> saucePrices = new EnumMap<>(SauceType.class);
+        private final Map<ToppingType, BigDecimal> toppingPrices = new EnumMap<>(ToppingType.class);
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the price for a specific dough type.
+         * @param doughType the dough type
+         * @param price the price to set
+         * @return the builder instance
+         */
+        public Builder setDoughPrice(DoughType doughType, BigDecimal price) {
+            if (doughType == null || price == null) {
+                throw new IllegalArgumentException("Dough type and price cannot be null");
+            }
+            doughPrices.put(doughType, price);
+            return this;
+        }
+
+        /**
+         * Sets the price for a specific sauce type.
+         * @param sauceType the sauce type
+         * @param price the price to set
+         * @return the builder instance
+         */
+        public Builder setSaucePrice(SauceType sauceType, BigDecimal price) {
+            if (sauceType == null || price == null) {
+                throw new IllegalArgumentException("Sauce type and price cannot be null");
+            }
+            saucePrices.put(sauceType, price);
+            return this;
+        }
+
+        /**
+         * Sets the price for a specific topping type.
+         * @param toppingType the topping type
+         * @param price the price to set
+         * @return the builder instance
+         */
+        public Builder setToppingPrice(ToppingType toppingType, BigDecimal price) {
+            if (toppingType == null || price == null) {
+                throw new IllegalArgumentException("Topping type and price cannot be null");
+            }
+            toppingPrices.put(toppingType, price);
+            return this;
+        }
+
+        PriceTable build(long version) {
+            return new PriceTable(this, version);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Chooses each sensor's next read interval from its own signal. Keeps an exponentially weighted
+ * mean and variance per sensor: the interval shrinks when the relative volatility is high, when a
+ * reading jumps away from the mean or when it is near a configured threshold, and grows while the
+ * signal stays flat. Intervals stay within [minInterval, maxInterval].
+ * <p>
+ * Volatility is the standard deviation relative to a per-type {@linkplain Builder#scale scale},
+ * such as the sensor's working range. A type without a scale is measured against the magnitude of
+ * its mean, which makes a signal hovering around zero look volatile.
+ */
+final class AdaptiveSamplingPolicy {
+    private final long minInterval;
+    private final long maxInterval;
+    private final double smoothing;
+    private final double flatVolatility;
+    private final double fastVolatility;
+    private final double jumpDeviations;
+    private final double growthFactor;
+    private final double shrinkFactor;
+    private final Map<SensorType, double[]> thresholds;
+    private final Map<SensorType, Double> thresholdBands;
+    private final Map<SensorType, Double> scales;
+
+    /**
+     * Per-sensor running mean and variance, updated only by the sensor's own ticks.
+     */
+    static final class SignalStats {
+        private double mean;
+        private double variance;
+        private long count;
+    }
+
+    private AdaptiveSamplingPolicy(Builder builder) {
+        this.minInterval = builder.minInterval;
+        this.maxInterval = builder.maxInterval;
+        this.smoothing = builder.smoothing;
+        this.flatVolatility = builder.flatVolatility;
+        this.fastVolatility = builder.fastVolatility;
+        this.jumpDeviations = builder.jumpDeviations;
+        this.growthFactor = builder.growthFactor;
+        this.shrinkFactor = builder.shrinkFactor;
+        this.thresholds = new EnumMap<>(builder.thresholds);
+        this.thresholdBands = new EnumMap<>(builder.thresholdBands);
+        this.scales = new EnumMap<>(builder.scales);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Folds the reading into the sensor's statistics and returns the interval before its next read.
+     */
+    public long nextInterval(SensorType sensorType, SignalStats stats, double value, long interval) {
+        double deviation = value - stats.mean;
+        boolean jumped = stats.count > 1 && deviation * deviation > jumpDeviations * jumpDeviations * stats.variance;
+        if (stats.count == 0) {
+            stats.mean = value;
+        } else {
+            stats.mean += smoothing * deviation;
+            stats.variance = (1 - smoothing) * (stats.variance + smoothing * deviation * deviation);
+        }
+        stats.count++;
+
+        if (isNearThreshold(sensorType, value)) {
+            return minInterval;
+        }
+        Double scale = scales.get(sensorType);
+        double magnitude = scale != null ? scale : Math.abs(stats.mean);
+        double volatility = magnitude == 0 ? 0 : Math.sqrt(stats.variance) / magnitude;
+        double next;
+        if (jumped || volatility > fastVolatility) {
+            next = interval * shrinkFactor;
+        } else if (volatility < flatVolatility) {
+            next = interval * growthFactor;
+        } else {
+            next = interval;
+        }
+        return Math.max(minInterval, Math.min(maxInterval, Math.round(next)));
+    }
+
+    private boolean isNearThreshold(SensorType sensorType, double value) {
+        double[] limits = thresholds.get(sensorType);
+        if (limits == null) {
+            return false;
+        }
+        double band = thresholdBands.get(sensorType);
+        for (double limit : limits) {
+            if (Math.abs(value - limit) <= band) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public long getMinInterval() {
+        return minInterval;
+    }
+
+    public long getMaxInterval() {
+        return maxInterval;
+    }
+
+    public static class Builder {
+        private long minInterval = 100;
+        private long maxInterval = 60000;
+        private double smoothing = 0.2;
+        private double flatVolatility = 0.005;
+        private double fastVolatility = 0.02;
+        private double jumpDeviations = 3;
+        private double growthFactor = 1.25;
+        private double shrinkFactor = 0.5;
+        private final Map<SensorType, double[]> thresholds = new EnumMap<>(SensorType.class);
+        private final Map<SensorType, Double> thresholdBands = new EnumMap<>(SensorType.class);
+        private final Map<SensorType, Double> scales = new EnumMap<>(SensorType.class);
+
+        private Builder() {
+        }
+
+        public Builder intervals(long minInterval, long maxInterval) {
+            if (minInterval <= 0 || maxInterval < minInterval) {
+                throw new IllegalArgumentException("Invalid interval range: " + minInterval + ".." + maxInterval);
+            }
+            this.minInterval = minInterval;
+            this.maxInterval = maxInterval;
+            return this;
+        }
+
+        /**
+         * @param smoothing the weight of each new reading in the running mean and variance, in (0, 1]
+         */
+        public Builder smoothing(double smoothing) {
+            if (smoothing <= 0 || smoothing > 1) {
+                throw new IllegalArgumentException("Smoothing must be in (0, 1]: " + smoothing);
+            }
+            this.smoothing = smoothing;
+            return this;
+        }
+
+        /**
+         * @param flat the relative standard deviation below which the interval grows
+         * @param fast the relative standard deviation above which the interval shrinks
+         */
+        public Builder volatility(double flat, double fast) {
+            if (flat < 0 || fast < flat) {
+                throw new IllegalArgumentException("Invalid volatility bounds: " + flat + ", " + fast);
+            }
+            this.flatVolatility = flat;
+            this.fastVolatility = fast;
+            return this;
+        }
+
+        /**
+         * @param deviations how many standard deviations from the mean count as a jump
+         */
+        public Builder jump(double deviations) {
+            if (deviations <= 0) {
+                throw new IllegalArgumentException("Jump deviations must be positive: " + deviations);
+            }
+            this.jumpDeviations = deviations;
+            return this;
+        }
+
+        public Builder factors(double growth, double shrink) {
+            if (growth < 1 || shrink <= 0 || shrink > 1) {
+                throw new IllegalArgumentException("Growth must be >= 1 and shrink in (0, 1]: " + growth + ", " + shrink);
+            }
+            this.growthFactor = growth;
+            this.shrinkFactor = shrink;
+            return this;
+        }
+
+        /**
+         * Reads a sensor type at the minimum interval while a reading is within band of any limit.
+         */
+        public Builder thresholds(SensorType sensorType, double band, double... limits) {
+            if (sensorType == null || band < 0 || limits.length == 0) {
+                throw new IllegalArgumentException("Sensor type, band and at least one limit are required");
+            }
+            thresholds.put(sensorType, limits.clone());
+            thresholdBands.put(sensorType, band);
+            return this;
+        }
+
+        /**
+         * @param scale the positive magnitude a sensor type's standard deviation is divided by, e.g.
+         *              its working range, in place of the magnitude of its mean
+         */
+        public Builder scale(SensorType sensorType, double scale) {
+            if (sensorType == null || !(scale > 0)) {
+                throw new IllegalArgumentException("Sensor type and a positive scale are required: " + scale);
+            }
+            scales.put(sensorType, scale);
+            return this;
+        }
+
+        public AdaptiveSamplingPolicy build() {
+            return new AdaptiveSamplingPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import java.util.UUID;
+
+/**
+ * Raised when a sensor's readings start matching an {@link AlertRule}.
+ */
+final class AlertEvent {
+    private final AlertRule rule;
+    private final UUID sensorUUID;
+    private final long timestamp;
+    private final double value;
+
+    AlertEvent(AlertRule rule, UUID sensorUUID, long timestamp, double value) {
+        this.rule = rule;
+        this.sensorUUID = sensorUUID;
+        this.timestamp = timestamp;
+        this.value = value;
+    }
+
+    public AlertRule getRule() {
+        return rule;
+    }
+
+    public UUID getSensorUUID() {
+        return sensorUUID;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return "Alert " + rule + " on " + sensorUUID + " at " + timestamp + ": " + value;
+    }
+}
@@ -0,0 +1,8 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+/**
+ * Receives alerts on the thread that processes sensor readings, so it should return quickly.
+ */
+interface AlertListener {
+    void onAlert(AlertEvent event);
+}
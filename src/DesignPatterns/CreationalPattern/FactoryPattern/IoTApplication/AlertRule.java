@@ -0,0 +1,81 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+/**
+ * Condition on single readings of one sensor type: the value crossing a threshold, or the value
+ * changing faster than a rate per second since the sensor's previous reading.
+ */
+final class AlertRule {
+    enum Kind {
+        ABOVE,
+        BELOW,
+        RATE_OF_CHANGE,
+    }
+
+    private final String name;
+    private final SensorType sensorType;
+    private final Kind kind;
+    private final double limit;
+
+    private AlertRule(String name, SensorType sensorType, Kind kind, double limit) {
+        if (name == null || sensorType == null) {
+            throw new IllegalArgumentException("Rule name and sensor type cannot be null");
+        }
+        this.name = name;
+        this.sensorType = sensorType;
+        this.kind = kind;
+        this.limit = limit;
+    }
+
+    public static AlertRule above(String name, SensorType sensorType, double threshold) {
+        return new AlertRule(name, sensorType, Kind.ABOVE, threshold);
+    }
+
+    public static AlertRule below(String name, SensorType sensorType, double threshold) {
+        return new AlertRule(name, sensorType, Kind.BELOW, threshold);
+    }
+
+    /**
+     * Matches when |value - previous value| per second of elapsed time exceeds the limit.
+     */
+    public static AlertRule rateOfChange(String name, SensorType sensorType, double maxChangePerSecond) {
+        if (maxChangePerSecond <= 0) {
+            throw new IllegalArgumentException("Rate of change limit must be positive: " + maxChangePerSecond);
+        }
+        return new AlertRule(name, sensorType, Kind.RATE_OF_CHANGE, maxChangePerSecond);
+    }
+
+    /**
+     * @param changePerSecond the change since the sensor's previous reading, or NaN for its first reading
+     */
+    boolean matches(double value, double changePerSecond) {
+        switch (kind) {
+            case ABOVE:
+                return value > limit;
+            case BELOW:
+                return value < limit;
+            default:
+                return Math.abs(changePerSecond) > limit;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public SensorType getSensorType() {
+        return sensorType;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public double getLimit() {
+        return limit;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + sensorType + " " + kind + " " + limit + ")";
+    }
+}
@@ -0,0 +1,181 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.MessageFormat;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+
+/**
+ * Moves log formatting and I/O off the caller's thread. Callers enqueue the raw template and
+ * arguments on a bounded {@link MpscRingQueue}; a single writer thread formats them and appends
+ * each drained batch to a file channel. If the writer thread fails, it stops accepting records:
+ * later offers are dropped rather than blocked, and {@link #close()} rethrows the failure. A record
+ * that cannot be formatted is written as its raw template instead and counted.
+ */
+class AsyncLogWriter implements AutoCloseable {
+
+    /**
+     * What {@link #offer} does when the queue is full.
+     */
+    public enum OverflowPolicy {
+        DROP,
+        BLOCK
+    }
+
+    private static final int BATCH_SIZE = 512;
+
+    private final MpscRingQueue<PendingRecord> queue;
+    private final OverflowPolicy overflowPolicy;
+    private final FileChannel channel;
+    private final Thread writer;
+    private final StringBuilder text = new StringBuilder(256);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final ByteBuffer output = ByteBuffer.allocateDirect(64 * 1024);
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder formatFailures = new LongAdder();
+    private volatile boolean running = true;
+    private volatile IOException failure;
+
+    public AsyncLogWriter(Path file, int capacity, OverflowPolicy overflowPolicy) throws IOException {
+        this.queue = new MpscRingQueue<>(capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.writer = new Thread(this::run, "sensor-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Enqueues a record without formatting it.
+     * @return false if the record was dropped
+     */
+    public boolean offer(Level level, String template, Object[] args) {
+        if (!running) {
+            dropped.increment();
+            return false;
+        }
+        PendingRecord record = new PendingRecord(System.currentTimeMillis(), level, template, args);
+        while (!queue.offer(record)) {
+            if (overflowPolicy == OverflowPolicy.DROP || !running) {
+                dropped.increment();
+                return false;
+            }
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+        }
+        return true;
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return records written as their raw template because formatting them threw
+     */
+    public long getFormatFailureCount() {
+        return formatFailures.sum();
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                if (writeBatch() == 0) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                }
+            }
+            while (writeBatch() > 0) {
+                // drain what was queued before close()
+            }
+        } catch (IOException e) {
+            failure = e;
+        } finally {
+            // However the writer ends, blocked producers must stop waiting for it
+            running = false;
+        }
+    }
+
+    private int writeBatch() throws IOException {
+        int count = 0;
+        PendingRecord record;
+        while (count < BATCH_SIZE && (record = queue.poll()) != null) {
+            format(record);
+            count++;
+        }
+        if (text.length() > 0) {
+            CharBuffer chars = CharBuffer.wrap(text);
+            CoderResult result;
+            do {
+                result = encoder.encode(chars, output, true);
+                output.flip();
+                while (output.hasRemaining()) {
+                    channel.write(output);
+                }
+                output.clear();
+            } while (result.isOverflow());
+            encoder.reset();
+            text.setLength(0);
+        }
+        return count;
+    }
+
+    private void format(PendingRecord record) {
+        text.append(Instant.ofEpochMilli(record.timestamp)).append(' ').append(record.level.getName()).append(' ');
+        if (record.args == null || record.args.length == 0) {
+            text.append(record.template);
+        } else {
+            int start = text.length();
+            try {
+                text.append(MessageFormat.format(record.template, record.args));
+            } catch (RuntimeException e) {
+                // A bad template or a throwing toString() must not take the writer down
+                text.setLength(start);
+                text.append(record.template).append(" [unformatted: ").append(e).append(']');
+                formatFailures.increment();
+            }
+        }
+        text.append(System.lineSeparator());
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static final class PendingRecord {
+        final long timestamp;
+        final Level level;
+        final String template;
+        final Object[] args;
+
+        PendingRecord(long timestamp, Level level, String template, Object[] args) {
+            this.timestamp = timestamp;
+            this.level = level;
+            this.template = template;
+            this.args = args;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import java.util.Arrays;
+
+/**
+ * Compressed block of up to {@link #MAX_SAMPLES} (timestamp, value) samples in the Gorilla format:
+ * timestamps as delta-of-deltas in variable-width buckets and values as the XOR with the previous
+ * value, storing only the meaningful bits.
+ */
+final class GorillaChunk {
+    static final int MAX_SAMPLES = 120;
+
+    /**
+     * Receives decoded samples.
+     */
+    interface SampleConsumer {
+        void accept(long timestamp, double value);
+    }
+
+    private long[] words = new long[16];
+    private int bitLength;
+    private int count;
+    private long firstTimestamp;
+    private long lastTimestamp;
+    private long lastDelta;
+    private long lastValueBits;
+    private int lastLeading = -1;
+    private int lastTrailing;
+
+    /**
+     * @return false if the chunk is full
+     */
+    public boolean append(long timestamp, double value) {
+        if (count == MAX_SAMPLES) {
+            return false;
+        }
+        long valueBits = Double.doubleToRawLongBits(value);
+        if (count == 0) {
+            firstTimestamp = timestamp;
+            writeBits(timestamp, 64);
+            writeBits(valueBits, 64);
+        } else {
+            long delta = timestamp - lastTimestamp;
+            writeDeltaOfDelta(delta - lastDelta);
+            writeValue(valueBits);
+            lastDelta = delta;
+        }
+        lastTimestamp = timestamp;
+        lastValueBits = valueBits;
+        count++;
+        return true;
+    }
+
+    private void writeDeltaOfDelta(long deltaOfDelta) {
+        if (deltaOfDelta == 0) {
+            writeBits(0b0, 1);
+        } else if (deltaOfDelta >= -64 && deltaOfDelta <= 63) {
+            writeBits(0b10, 2);
+            writeBits(deltaOfDelta, 7);
+        } else if (deltaOfDelta >= -256 && deltaOfDelta <= 255) {
+            writeBits(0b110, 3);
+            writeBits(deltaOfDelta, 9);
+        } else if (deltaOfDelta >= -2048 && deltaOfDelta <= 2047) {
+            writeBits(0b1110, 4);
+            writeBits(deltaOfDelta, 12);
+        } else {
+            writeBits(0b1111, 4);
+            writeBits(deltaOfDelta, 64);
+        }
+    }
+
+    private void writeValue(long valueBits) {
+        long xor = valueBits ^ lastValueBits;
+        if (xor == 0) {
+            writeBits(0b0, 1);
+            return;
+        }
+        int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+        int trailing = Long.numberOfTrailingZeros(xor);
+        if (lastLeading >= 0 && leading >= lastLeading && trailing >= lastTrailing) {
+            // Meaningful bits fit in the previous window
+            writeBits(0b10, 2);
+            writeBits(xor >>> lastTrailing, 64 - lastLeading - lastTrailing);
+        } else {
+            int meaningful = 64 - leading - trailing;
+            writeBits(0b11, 2);
+            writeBits(leading, 5);
+            writeBits(meaningful - 1, 6);
+            writeBits(xor >>> trailing, meaningful);
+            lastLeading = leading;
+            lastTrailing = trailing;
+        }
+    }
+
+    private void writeBits(long value, int bits) {
+        if (bitLength + bits > (long) words.length * 64) {
+            words = Arrays.copyOf(words, words.length * 2);
+        }
+        if (bits < 64) {
+            value &= (1L << bits) - 1;
+        }
+        int word = bitLength >>> 6;
+        int used = bitLength & 63;
+        int free = 64 - used;
+        if (bits <= free) {
+            words[word] |= value << (free - bits);
+        } else {
+            words[word] |= value >>> (bits - free);
+            words[word + 1] |= value << (64 - (bits - free));
+        }
+        bitLength += bits;
+    }
+
+    public void decode(SampleConsumer consumer) {
+        decode(words, count, consumer);
+    }
+
+    /**
+     * Decodes samples written by {@link #append}, e.g. from a chunk copied out of a file.
+     */
+    static void decode(long[] words, int count, SampleConsumer consumer) {
+        if (count == 0) {
+            return;
+        }
+        BitReader reader = new BitReader(words);
+        long timestamp = reader.read(64);
+        long valueBits = reader.read(64);
+        consumer.accept(timestamp, Double.longBitsToDouble(valueBits));
+        long delta = 0;
+        int leading = 0;
+        int trailing = 0;
+        for (int i = 1; i < count; i++) {
+            delta += readDeltaOfDelta(reader);
+            timestamp += delta;
+            if (reader.read(1) == 1) {
+                if (reader.read(1) == 1) {
+                    leading = (int) reader.read(5);
+                    int meaningful = (int) reader.read(6) + 1;
+                    trailing = 64 - leading - meaningful;
+                }
+                valueBits ^= reader.read(64 - leading - trailing) << trailing;
+            }
+            consumer.accept(timestamp, Double.longBitsToDouble(valueBits));
+        }
+    }
+
+    private static long readDeltaOfDelta(BitReader reader) {
+        if (reader.read(1) == 0) {
+            return 0;
+        }
+        if (reader.read(1) == 0) {
+            return reader.readSigned(7);
+        }
+        if (reader.read(1) == 0) {
+            return reader.readSigned(9);
+        }
+        if (reader.read(1) == 0) {
+            return reader.readSigned(12);
+        }
+        return reader.read(64);
+    }
+
+    public boolean isFull() {
+        return count == MAX_SAMPLES;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getBitLength() {
+        return bitLength;
+    }
+
+    public long getFirstTimestamp() {
+        return firstTimestamp;
+    }
+
+    public long getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    /**
+     * @return the encoded words; only the first {@code ceil(bitLength / 64)} are used
+     */
+    long[] getWords() {
+        return words;
+    }
+
+    private static final class BitReader {
+        private final long[] words;
+        private int position;
+
+        BitReader(long[] words) {
+            this.words = words;
+        }
+
+        long read(int bits) {
+            int word = position >>> 6;
+            int used = position & 63;
+            int available = 64 - used;
+            long value;
+            if (bits <= available) {
+                value = words[word] >>> (available - bits);
+            } else {
+                value = (words[word] << (bits - available)) | (words[word + 1] >>> (64 - (bits - available)));
+            }
+            position += bits;
+            return bits == 64 ? value : value & ((1L << bits) - 1);
+        }
+
+        long readSigned(int bits) {
+            return (read(bits) << (64 - bits)) >> (64 - bits);
+        }
+    }
+}
@@ -1,5 +1,3 @@
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.logging.Level;
@@ -7,6 +5,14 @@ import java.util.logging.Logger;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 // Singleton Pattern: Logger
 class SingletonLogger {
@@ -25,121 +31,202 @@ class SingletonLogger {
         return instance;
     }
 
+    public boolean isLoggable(Level level) {
+        return logger.isLoggable(level);
+    }
+
     public void log(String message) {
         logger.info(message);
     }
+
+    // MessageFormat-style template ("{0}"); nothing is formatted unless the level is enabled
+    public void log(Level level, String template, Object... args) {
+        if (logger.isLoggable(level)) {
+            logger.log(level, template, args);
+        }
+    }
 }
 
 // Factory Pattern: Sensor Factory
+// Registry of sensor constructors by name; new types register instead of editing a switch
 class SensorFactory {
+    private static final Map<String, Supplier<Sensor>> constructors = new ConcurrentHashMap<>();
+
+    static {
+        register("Temperature", TemperatureSensor::new);
+        register("Humidity", HumiditySensor::new);
+        register("Pressure", PressureSensor::new);
+    }
+
+    public static void register(String sensorType, Supplier<Sensor> constructor) {
+        constructors.put(sensorType, constructor);
+    }
+
     public static Sensor createSensor(String sensorType) {
-        switch (sensorType) {
-            case "Temperature":
-                return new TemperatureSensor();
-            case "Humidity":
-                return new HumiditySensor();
-            case "Pressure":
-                return new PressureSensor();
-            default:
-                throw new IllegalArgumentException("Unknown sensor type: " + sensorType);
+        Supplier<Sensor> constructor = constructors.get(sensorType);
+        if (constructor == null) {
+            throw new IllegalArgumentException("Unknown sensor type: " + sensorType);
         }
+        return constructor.get();
     }
 }
 
 // Abstract Sensor Class
 abstract class Sensor {
+    private final UUID sensorUUID = UUID.randomUUID();
+
+    public UUID getSensorUUID() {
+        return sensorUUID;
+    }
+
     public abstract String readData();
+
+    // Numeric sample behind readData(), for callers that don't need the formatted String
+    public abstract double readValue();
 }
 
 // Concrete Sensors
 class TemperatureSensor extends Sensor {
     @Override
     public String readData() {
-        return "Temperature: 25°C";
+        return "Temperature: " + (int) readValue() + "°C";
+    }
+
+    @Override
+    public double readValue() {
+        return 25;
     }
 }
 
 class HumiditySensor extends Sensor {
     @Override
     public String readData() {
-        return "Humidity: 60%";
+        return "Humidity: " + (int) readValue() + "%";
+    }
+
+    @Override
+    public double readValue() {
+        return 60;
     }
 }
 
 class PressureSensor extends Sensor {
     @Override
     public String readData() {
-        return "Pressure: 1013 hPa";
+        return "Pressure: " + (int) readValue() + " hPa";
+    }
+
+    @Override
+    public double readValue() {
+        return 1013;
     }
 }
 
 // Observer Pattern: Sensor System
 class SensorSystem {
-    private List<Sensor> sensors;
-    private Map<Sensor, Integer> sensorIntervals;
-    private Map<Sensor, Timer> sensorTimers;
+    // Immutable entry per sensor; updates swap the entry for one key without a global lock
+    private static final class SensorEntry {
+        final Sensor sensor;
+        final int interval;
+        final ScheduledFuture<?> timer;
+
+        SensorEntry(Sensor sensor, int interval, ScheduledFuture<?> timer) {
+            this.sensor = sensor;
+            this.interval = interval;
+            this.timer = timer;
+        }
+    }
+
+    private ConcurrentMap<UUID, SensorEntry> sensors;
+    private ConcurrentMap<String, UUID> sensorsByName;
+    private ScheduledExecutorService scheduler;
     private SingletonLogger logger;
 
     public SensorSystem() {
-        sensors = new ArrayList<>();
-        sensorIntervals = new HashMap<>();
-        sensorTimers = new HashMap<>();
+        // One shared pool drives every sensor instead of a Timer thread per sensor
+        this(Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors()));
+    }
+
+    public SensorSystem(ScheduledExecutorService scheduler) {
+        sensors = new ConcurrentHashMap<>();
+        sensorsByName = new ConcurrentHashMap<>();
+        this.scheduler = scheduler;
         logger = SingletonLogger.getInstance();
     }
 
     public void addSensor(Sensor sensor, int interval) {
-        sensors.add(sensor);
-        sensorIntervals.put(sensor, interval);
-        logger.log("Added " + sensor.getClass().getSimpleName() + " with interval: " + interval + " ms");
+        sensors.compute(sensor.getSensorUUID(), (id, entry) ->
+                new SensorEntry(sensor, interval, entry == null ? null : entry.timer));
+        sensorsByName.putIfAbsent(sensor.getClass().getSimpleName(), sensor.getSensorUUID());
+        logger.log(Level.INFO, "Added {0} with interval: {1,number,#} ms", sensor.getClass().getSimpleName(), interval);
     }
 
     public void notifySensor(Sensor sensor) {
-        String data = sensor.readData();
-        logger.log("Sensor Data: " + data);
+        if (logger.isLoggable(Level.INFO)) {
+            logger.log(Level.INFO, "Sensor Data: {0}", sensor.readData());
+        }
     }
 
     public Map<Sensor, Integer> getSensorIntervals() {
+        Map<Sensor, Integer> sensorIntervals = new HashMap<>();
+        for (SensorEntry entry : sensors.values()) {
+            sensorIntervals.put(entry.sensor, entry.interval);
+        }
         return sensorIntervals;
     }
 
     public void updateSensorInterval(Sensor sensor, int newInterval) {
-        if (sensorIntervals.containsKey(sensor)) {
-            sensorIntervals.put(sensor, newInterval);
-            logger.log("Updated interval for " + sensor.getClass().getSimpleName() + " to: " + newInterval + " ms");
-            if (sensorTimers.containsKey(sensor)) {
-                sensorTimers.get(sensor).cancel();
-                startSensorTimer(sensor, newInterval);
+        SensorEntry updated = sensors.computeIfPresent(sensor.getSensorUUID(), (id, entry) -> {
+            if (entry.timer == null) {
+                return new SensorEntry(sensor, newInterval, null);
             }
+            entry.timer.cancel(false);
+            return new SensorEntry(sensor, newInterval, schedule(sensor, newInterval));
+        });
+        if (updated != null) {
+            logger.log(Level.INFO, "Updated interval for {0} to: {1,number,#} ms", sensor.getClass().getSimpleName(), newInterval);
         } else {
-            logger.log("Sensor not found: " + sensor.getClass().getSimpleName());
+            logger.log(Level.INFO, "Sensor not found: {0}", sensor.getClass().getSimpleName());
         }
     }
 
     public void startSensorTimer(Sensor sensor, int interval) {
-        Timer timer = new Timer();
-        sensorTimers.put(sensor, timer);
-        timer.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                notifySensor(sensor);
+        sensors.compute(sensor.getSensorUUID(), (id, entry) -> {
+            if (entry != null && entry.timer != null) {
+                entry.timer.cancel(false);
             }
-        }, 0, interval);
+            return new SensorEntry(sensor, interval, schedule(sensor, interval));
+        });
+    }
+
+    private ScheduledFuture<?> schedule(Sensor sensor, int interval) {
+        return scheduler.scheduleWithFixedDelay(() -> notifySensor(sensor), 0, interval, TimeUnit.MILLISECONDS);
     }
 
     public void cancelSensorTimer(String sensorName) {
-        for (Sensor sensor : sensors) {
-            if (sensor.getClass().getSimpleName().equals(sensorName)) {
-                if (sensorTimers.containsKey(sensor)) {
-                    sensorTimers.get(sensor).cancel();
-                    sensorTimers.remove(sensor);
-                    logger.log("Cancelled timer for " + sensorName);
-                } else {
-                    logger.log("No active timer found for " + sensorName);
-                }
-                return;
+        UUID sensorUUID = sensorsByName.get(sensorName);
+        if (sensorUUID == null) {
+            logger.log(Level.INFO, "Sensor not found: {0}", sensorName);
+            return;
+        }
+        boolean[] cancelled = new boolean[1];
+        sensors.computeIfPresent(sensorUUID, (id, entry) -> {
+            if (entry.timer == null) {
+                return entry;
             }
+            entry.timer.cancel(false);
+            cancelled[0] = true;
+            return new SensorEntry(entry.sensor, entry.interval, null);
+        });
+        if (cancelled[0]) {
+            logger.log(Level.INFO, "Cancelled timer for {0}", sensorName);
+        } else {
+            logger.log(Level.INFO, "No active timer found for {0}", sensorName);
         }
-        logger.log("Sensor not found: " + sensorName);
+    }
+
+    public void shutdown() {
+        scheduler.shutdown();
     }
 }
 
@@ -1,13 +1,24 @@
 package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 class SensorLogger {
     private static AtomicReference<SensorLogger> instance = new AtomicReference<>();
     private Logger logger;
+    private volatile AsyncLogWriter asyncWriter;
 
     private SensorLogger() {
         logger = Logger.getLogger(SensorLogger.class.getName());
@@ -15,18 +26,51 @@ class SensorLogger {
     }
 
     public static SensorLogger getInstance() {
-        if (instance == null) {
+        if (instance.get() == null) {
             instance.compareAndSet(null,  new SensorLogger());
         }
         return instance.get();
     }
 
+    // Routes all further logging through a background writer appending to the given file
+    public synchronized void enableAsync(Path file, int capacity, AsyncLogWriter.OverflowPolicy overflowPolicy) throws IOException {
+        if (asyncWriter != null) {
+            throw new IllegalStateException("Async logging is already enabled");
+        }
+        asyncWriter = new AsyncLogWriter(file, capacity, overflowPolicy);
+    }
+
+    public synchronized void disableAsync() throws IOException {
+        AsyncLogWriter writer = asyncWriter;
+        if (writer != null) {
+            asyncWriter = null;
+            writer.close();
+        }
+    }
+
+    public boolean isLoggable(Level level) {
+        return logger.isLoggable(level);
+    }
+
     public void log(String message) {
-        logger.info(message);
+        log(Level.INFO, message);
     }
 
     public void log(String message,Level level) {
-        logger.log(level, message);
+        log(level, message);
+    }
+
+    // MessageFormat-style template ("{0}"); nothing is formatted unless the level is enabled
+    public void log(Level level, String template, Object... args) {
+        if (!logger.isLoggable(level)) {
+            return;
+        }
+        AsyncLogWriter writer = asyncWriter;
+        if (writer != null) {
+            writer.offer(level, template, args);
+        } else {
+            logger.log(level, template, args);
+        }
     }
 }
 
@@ -37,13 +81,23 @@ enum SensorType {
 }
 
 interface Sensor {
-    void read();
+    // Returns the sampled value so adaptive scheduling can react to it
+    double read();
+
+    UUID getSensorUUID();
+
+    SensorType getSensorType();
+
+    String getSensorName();
 }
 
 abstract class AbstractSensor implements Sensor {
     protected String sensorName;
     protected SensorType sensorType;
     protected UUID sensorUUID;
+    private volatile SensorPipeline pipeline = SensorPipeline.getInstance();
+    private volatile long lastReadingTime;
+    private volatile double lastReading = Double.NaN;
 
     public AbstractSensor(String sensorName, SensorType sensorType, UUID sensorUUID) {
         this.sensorName = sensorName;
@@ -51,95 +105,253 @@ abstract class AbstractSensor implements Sensor {
         this.sensorUUID = sensorUUID;
     }
 
-    public void read(){
-        SensorLogger sensorLogger = SensorLogger.getInstance();
-        sensorLogger.log("UUID: " + sensorUUID);
-        sensorLogger.log("SensorName: " + sensorName);
+    // Publishes a numeric sample into the per-type ring buffer; no Strings are built per tick
+    public double read(){
+        double value = sample();
+        long timestamp = System.currentTimeMillis();
+        pipeline.publish(sensorType, sensorUUID.getMostSignificantBits(),
+                sensorUUID.getLeastSignificantBits(), timestamp, value);
+        lastReadingTime = timestamp;
+        lastReading = value;
+        return value;
       }
+
+    public abstract double sample();
+
+    // Routes this sensor's readings to another pipeline, e.g. the one of its shard
+    void setPipeline(SensorPipeline pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    SensorPipeline getPipeline() {
+        return pipeline;
+    }
+
+    // Seeds the last reading, e.g. from a checkpoint, until the next read replaces it
+    void restoreLastReading(long timestamp, double value) {
+        this.lastReadingTime = timestamp;
+        this.lastReading = value;
+    }
+
+    public double getLastReading() {
+        return lastReading;
+    }
+
+    public long getLastReadingTime() {
+        return lastReadingTime;
+    }
+
+    public String getSensorName() {
+        return sensorName;
+    }
+
+    public SensorType getSensorType() {
+        return sensorType;
+    }
+
+    public UUID getSensorUUID() {
+        return sensorUUID;
+    }
 }
 
 class HumiditySensor extends AbstractSensor implements Sensor {
     public HumiditySensor(String sensorName) {
-        super(sensorName, SensorType.HUMIDITY, UUID.randomUUID());
+        this(sensorName, UUID.randomUUID());
+    }
+
+    public HumiditySensor(String sensorName, UUID sensorUUID) {
+        super(sensorName, SensorType.HUMIDITY, sensorUUID);
+    }
+
+    @Override
+    public double sample() {
+        return 60 + ThreadLocalRandom.current().nextDouble(-5, 5);
     }
 }
 class TemperatureSensor extends AbstractSensor implements Sensor {
     public TemperatureSensor(String sensorName) {
-        super(sensorName, SensorType.TEMPERATURE, UUID.randomUUID());
+        this(sensorName, UUID.randomUUID());
+    }
+
+    public TemperatureSensor(String sensorName, UUID sensorUUID) {
+        super(sensorName, SensorType.TEMPERATURE, sensorUUID);
+    }
+
+    @Override
+    public double sample() {
+        return 25 + ThreadLocalRandom.current().nextDouble(-2, 2);
     }
 }
 
 class PressureSensor extends AbstractSensor implements Sensor {
     public PressureSensor(String sensorName) {
-        super(sensorName, SensorType.PRESSURE, UUID.randomUUID());
+        this(sensorName, UUID.randomUUID());
+    }
+
+    public PressureSensor(String sensorName, UUID sensorUUID) {
+        super(sensorName, SensorType.PRESSURE, sensorUUID);
+    }
+
+    @Override
+    public double sample() {
+        return 1013 + ThreadLocalRandom.current().nextDouble(-10, 10);
     }
 }
 
+// Registry of sensor constructors per type; new types register instead of editing a switch
 class SensorFactory {
+    private static final Map<SensorType, BiFunction<String, UUID, Sensor>> constructors = new ConcurrentHashMap<>();
+
+    static {
+        register(SensorType.HUMIDITY, HumiditySensor::new);
+        register(SensorType.TEMPERATURE, TemperatureSensor::new);
+        register(SensorType.PRESSURE, PressureSensor::new);
+    }
+
+    public static void register(SensorType sensorType, BiFunction<String, UUID, Sensor> constructor) {
+        constructors.put(sensorType, constructor);
+    }
+
     public static Sensor getSensor(String sensorName,SensorType sensorType) {
-        switch (sensorType) {
-            case HUMIDITY:
-                return new HumiditySensor(sensorName);
-            case TEMPERATURE:
-                return new TemperatureSensor(sensorName);
-            case PRESSURE:
-                return new PressureSensor(sensorName);
-            default:
-                throw new IllegalArgumentException("Invalid sensor type");
+        return getSensor(sensorName, sensorType, UUID.randomUUID());
+    }
+
+    // Recreates a sensor with a known identity, e.g. when restoring from a checkpoint
+    public static Sensor getSensor(String sensorName, SensorType sensorType, UUID sensorUUID) {
+        BiFunction<String, UUID, Sensor> constructor = constructors.get(sensorType);
+        if (constructor == null) {
+            throw new IllegalArgumentException("Invalid sensor type");
         }
+        return constructor.apply(sensorName, sensorUUID);
     }
 }
 
 class SensorSystem {
-    List<Sensor> sensors;
-    Map<Sensor,Integer> sensorIntervals;
-    Map<Sensor,Timer> sensorTimers;
+    private final SensorRegistry registry;
+    private final SensorScheduler scheduler;
+    private final SensorRegistry.Scheduler startReads;
+    // Created on the first startCheckpoints call, guarded by this
+    private ScheduledExecutorService checkpoints;
+
     public SensorSystem() {
-        this.sensors = new ArrayList<>();
-        this.sensorIntervals = new HashMap<>();
-        this.sensorTimers = new HashMap<>();
+        this(SensorScheduler.pooled(Runtime.getRuntime().availableProcessors()));
+    }
+
+    public SensorSystem(SensorScheduler scheduler) {
+        this.registry = new SensorRegistry();
+        this.scheduler = scheduler;
+        this.startReads = (sensor, interval) -> scheduler.schedule(sensor, phase(sensor, interval), interval);
+    }
+
+    // For sensors whose read() blocks on device I/O: each read runs on a virtual thread, is interrupted
+    // after the timeout and at most maxReadsInFlight reads of one sensor type run at once
+    public static SensorSystem withBlockingReads(long readTimeoutMillis, int maxReadsInFlight) {
+        return new SensorSystem(SensorScheduler.virtualThreads(readTimeoutMillis, maxReadsInFlight));
+    }
+
+    // For large fleets on shared intervals: sensors are read in per-slot batches instead of one wakeup each
+    public static SensorSystem withCoalescedTicks(int threads, long slotMillis) {
+        return new SensorSystem(SensorScheduler.coalesced(threads, slotMillis));
+    }
+
+    // Spreads first ticks over the interval by UUID, so sensors started together do not all fire at once
+    static long phase(Sensor sensor, int interval) {
+        UUID sensorUUID = sensor.getSensorUUID();
+        long hash = (sensorUUID.getMostSignificantBits() ^ sensorUUID.getLeastSignificantBits()) * 0x9E3779B97F4A7C15L;
+        return Math.floorMod(hash ^ (hash >>> 32), (long) interval);
     }
 
     public void addSensor(Sensor sensor, int interval) {
-    this.sensors.add(sensor);
-    this.sensorIntervals.put(sensor, interval);
+    this.registry.register(sensor, interval);
     }
 
 
     public void startAllSensors() {
-    for (Sensor sensor : this.sensors) {
-        int interval = this.sensorIntervals.get(sensor);
-        this.runSensor(sensor, interval);
+    for (SensorRegistration registration : this.registry.registrations()) {
+        this.registry.startIfIdle(registration.getSensor().getSensorUUID(), this.startReads);
     }
     }
 
     public void runSensor(Sensor sensor, int interval) {
-        Timer timer = new Timer();
-        TimerTask task = new TimerTask() {
-            public void run() {
-                sensor.read();
-            }
-        };
-        timer.schedule(task,0, interval);
-        this.sensorTimers.put(sensor, timer);
+        this.registry.reschedule(sensor, interval, this.startReads);
     }
 
 
     public void removeSensor(Sensor sensor) {
-        Timer timer = this.sensorTimers.get(sensor);
-        if(timer == null) {
+        if (this.registry.removeRunning(sensor.getSensorUUID()) == null) {
             throw new IllegalArgumentException("No sensor timer for " + sensor);
         }
-        timer.cancel();
-        this.sensors.remove(sensor);
-        this.sensorIntervals.remove(sensor);
-        this.sensorTimers.remove(sensor);
+        this.scheduler.getMetrics().remove(sensor.getSensorUUID());
+        // Lets the pipeline's handlers release the sensor's state
+        if (sensor instanceof AbstractSensor) {
+            ((AbstractSensor) sensor).getPipeline().removeSensor(sensor.getSensorUUID());
+        }
     }
 
+    // Changes the interval in place; the running schedule picks it up from its next tick
     public void updateSensor(Sensor sensor,int interval) {
-        this.removeSensor(sensor);
-        this.addSensor(sensor, interval);
-        this.runSensor(sensor, interval);
+        if (this.registry.updateRunningInterval(sensor.getSensorUUID(), interval) == null) {
+            throw new IllegalArgumentException("No sensor timer for " + sensor);
+        }
+    }
+
+    // Lets every sensor's interval follow its signal, or restores the configured intervals when null
+    public void setAdaptiveSampling(AdaptiveSamplingPolicy policy) {
+        this.scheduler.setSamplingPolicy(policy);
+    }
+
+    public LoadGovernor getLoadGovernor() {
+        return this.scheduler.getLoadGovernor();
+    }
+
+    public SensorMetricsRegistry getMetrics() {
+        return this.scheduler.getMetrics();
+    }
+
+    public SensorRegistry getRegistry() {
+        return registry;
+    }
+
+    // Writes every sensor's identity, interval and last reading to a memory-mapped checkpoint file
+    public int checkpoint(Path file) throws IOException {
+        return SensorCheckpoint.write(file, this.registry.registrations());
+    }
+
+    // Checkpoints run on their own thread; on the timer a large fleet's snapshot would delay ticks
+    public synchronized void startCheckpoints(Path file, long periodMillis) {
+        if (this.checkpoints == null) {
+            this.checkpoints = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "sensor-checkpoint"));
+        }
+        this.checkpoints.scheduleWithFixedDelay(() -> {
+            try {
+                checkpoint(file);
+            } catch (IOException | RuntimeException e) {
+                SensorLogger.getInstance().log(Level.WARNING, "Checkpoint to {0} failed: {1}", file, e);
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Recreates the sensors of a checkpoint with their original UUIDs and restarts those that were running
+    public int restore(Path file) throws IOException {
+        List<SensorCheckpoint.Entry> entries = SensorCheckpoint.read(file);
+        for (SensorCheckpoint.Entry entry : entries) {
+            Sensor sensor = SensorFactory.getSensor(entry.sensorName, entry.sensorType, entry.sensorUUID);
+            if (sensor instanceof AbstractSensor) {
+                ((AbstractSensor) sensor).restoreLastReading(entry.lastReadingTime, entry.lastReading);
+            }
+            this.registry.register(sensor, entry.interval);
+            if (entry.running) {
+                this.registry.startIfIdle(entry.sensorUUID, this.startReads);
+            }
+        }
+        return entries.size();
+    }
+
+    public synchronized void shutdown() {
+        this.scheduler.shutdown();
+        if (this.checkpoints != null) {
+            this.checkpoints.shutdown();
+        }
     }
 
 
@@ -147,15 +359,57 @@ class SensorSystem {
 
 public class IotApplicationV2 {
 
-    public static void main(String[] args) {
-        Sensor HumiditySensor = SensorFactory.getSensor("HUMIDITY", SensorType.HUMIDITY);
-        Sensor TemperatureSensor = SensorFactory.getSensor("TEMPERATURE", SensorType.TEMPERATURE);
-        Sensor PressureSensor = SensorFactory.getSensor("PRESSURE", SensorType.PRESSURE);
-        // initialize sensors
+    public static void main(String[] args) throws IOException {
+        // restore sensors with their previous identities, or initialize them on first start
+        Path checkpoint = Path.of(System.getProperty("java.io.tmpdir"), "iot-application-v2.ckpt");
         SensorSystem sensorSystem = new SensorSystem();
-        sensorSystem.addSensor(HumiditySensor, 3000);
-        sensorSystem.addSensor(TemperatureSensor, 5000);
-        sensorSystem.addSensor(PressureSensor, 8000);
+        if (Files.exists(checkpoint)) {
+            int restored = sensorSystem.restore(checkpoint);
+            SensorLogger.getInstance().log(Level.INFO, "Restored {0,number,#} sensors from {1}", restored, checkpoint);
+        } else {
+            sensorSystem.addSensor(SensorFactory.getSensor("HUMIDITY", SensorType.HUMIDITY), 3000);
+            sensorSystem.addSensor(SensorFactory.getSensor("TEMPERATURE", SensorType.TEMPERATURE), 5000);
+            sensorSystem.addSensor(SensorFactory.getSensor("PRESSURE", SensorType.PRESSURE), 8000);
+        }
+        Sensor HumiditySensor = findSensor(sensorSystem, "HUMIDITY");
+        sensorSystem.startCheckpoints(checkpoint, 10000);
+        // read quiet sensors less often and sensors near the humidity alert more often;
+        // temperature is measured against its range so readings near 0 do not look volatile
+        sensorSystem.setAdaptiveSampling(AdaptiveSamplingPolicy.builder()
+                .intervals(1000, 30000)
+                .thresholds(SensorType.HUMIDITY, 1, 64)
+                .scale(SensorType.TEMPERATURE, 100)
+                .build());
+        // store sensor readings
+        SensorTimeSeriesStore store = new SensorTimeSeriesStore(Files.createTempDirectory("sensor-store"), 16 << 20);
+        // aggregate sensor readings and alert on them
+        SensorWindowAggregator aggregator = SensorWindowAggregator.sliding(30000, 10000);
+        aggregator.addRule(AlertRule.above("High humidity", SensorType.HUMIDITY, 64));
+        aggregator.addRule(AlertRule.rateOfChange("Pressure swing", SensorType.PRESSURE, 2));
+        aggregator.addWindowListener(window -> {
+            if (window.getSensorUUID() == null) {
+                SensorLogger.getInstance().log(Level.INFO, "Window {0}", window);
+            }
+        });
+        aggregator.addAlertListener(alert -> SensorLogger.getInstance().log(Level.WARNING, "{0}", alert));
+        SensorPipeline.getInstance().start(store.andThen(aggregator).andThen(new SensorReadingHandler() {
+            public void onReading(SensorType sensorType, long uuidMostSigBits, long uuidLeastSigBits, long timestamp, double value) {
+            }
+
+            public void onBatchEnd(SensorType sensorType, int count) {
+                SensorLogger.getInstance().log(Level.INFO, "Drained {0,number,#} {1} readings", count, sensorType);
+            }
+        }));
+        // flush the partially filled chunks and force the data files on exit
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            SensorPipeline.getInstance().stop();
+            store.close();
+        }, "sensor-store-close"));
+        // accept readings pushed by external devices into the same pipeline
+        SensorIngestionGateway gateway = new SensorIngestionGateway(new InetSocketAddress(0), SensorPipeline.getInstance());
+        SensorLogger.getInstance().log(Level.INFO, "Ingestion gateway listening on {0}", gateway.getLocalAddress());
+        // expose tick drift, read latency and missed ticks over JMX
+        sensorSystem.getMetrics().registerMBeans("IotApplicationV2");
         // run sensor operations
         sensorSystem.startAllSensors();
         // update sensor operations
@@ -165,7 +419,23 @@ public class IotApplicationV2 {
                 SensorLogger.getInstance().log("Updating Humidity Sensor");
                 sensorSystem.updateSensor(HumiditySensor,6000);
                 SensorLogger.getInstance().log("Updated Humidity sensor");
+                StringBuilder metrics = new StringBuilder();
+                sensorSystem.getMetrics().dump(metrics);
+                SensorLogger.getInstance().log(metrics.toString());
+                long now = System.currentTimeMillis();
+                for (SensorTimeSeriesStore.WindowAggregate window : store.aggregate(SensorType.HUMIDITY, now - 20000, now, 10000)) {
+                    SensorLogger.getInstance().log("Humidity " + window);
+                }
             }
         },20000);
     }
+
+    private static Sensor findSensor(SensorSystem sensorSystem, String sensorName) {
+        for (SensorRegistration registration : sensorSystem.getRegistry().registrations()) {
+            if (registration.getSensor().getSensorName().equals(sensorName)) {
+                return registration.getSensor();
+            }
+        }
+        throw new IllegalArgumentException("No sensor named " + sensorName);
+    }
 }
@@ -0,0 +1,90 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stretches every sensor interval of a scheduler while its ticks run late. Tracks an exponentially
+ * weighted average of how long after their planned time ticks start; above the target lag the
+ * stretch factor grows, and once the lag is well below target it decays back to 1.
+ * <p>
+ * Every tick of every scheduler thread reports its lag here. Only a random one in {@code sampleRate}
+ * reports is folded in, so the shared values are written rarely; the average and the stretch steps
+ * therefore move per sampled tick. Both values are doubles kept as raw bits in atomics and updated
+ * by compare-and-set instead of under a lock.
+ */
+final class LoadGovernor {
+    private static final double SMOOTHING = 0.05;
+    private static final double STEP_UP = 1.05;
+    private static final double STEP_DOWN = 0.99;
+    private static final int DEFAULT_SAMPLE_RATE = 8;
+
+    private final long targetLagNanos;
+    private final double maxStretch;
+    private final int sampleRate;
+    private final AtomicLong averageLagBits = new AtomicLong(Double.doubleToRawLongBits(0));
+    private final AtomicLong stretchBits = new AtomicLong(Double.doubleToRawLongBits(1));
+
+    /**
+     * @param targetLagMillis the average tick lag the scheduler should stay under
+     * @param maxStretch the largest factor intervals are stretched by
+     */
+    LoadGovernor(long targetLagMillis, double maxStretch) {
+        this(targetLagMillis, maxStretch, DEFAULT_SAMPLE_RATE);
+    }
+
+    /**
+     * @param sampleRate one in how many recorded lags is folded into the average; 1 keeps them all
+     */
+    LoadGovernor(long targetLagMillis, double maxStretch, int sampleRate) {
+        if (targetLagMillis <= 0 || maxStretch < 1 || sampleRate < 1) {
+            throw new IllegalArgumentException("Target lag and sample rate must be positive and max stretch at least 1");
+        }
+        this.targetLagNanos = targetLagMillis * 1_000_000;
+        this.maxStretch = maxStretch;
+        this.sampleRate = sampleRate;
+    }
+
+    void recordLag(long lagNanos) {
+        if (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+            return;
+        }
+        double lag = Math.max(0, lagNanos);
+        long current;
+        double average;
+        do {
+            current = averageLagBits.get();
+            double previous = Double.longBitsToDouble(current);
+            average = previous + SMOOTHING * (lag - previous);
+        } while (!averageLagBits.compareAndSet(current, Double.doubleToRawLongBits(average)));
+
+        if (average > targetLagNanos) {
+            updateStretch(STEP_UP);
+        } else if (average < targetLagNanos / 2.0) {
+            updateStretch(STEP_DOWN);
+        }
+    }
+
+    private void updateStretch(double step) {
+        while (true) {
+            long current = stretchBits.get();
+            double stretch = Double.longBitsToDouble(current);
+            double updated = Math.max(1, Math.min(maxStretch, stretch * step));
+            // Skip the write at the bounds, where most ticks land, to keep the line shared
+            if (updated == stretch || stretchBits.compareAndSet(current, Double.doubleToRawLongBits(updated))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the factor every interval is currently multiplied by
+     */
+    public double getStretch() {
+        return Double.longBitsToDouble(stretchBits.get());
+    }
+
+    public double getAverageLagMillis() {
+        return Double.longBitsToDouble(averageLagBits.get()) / 1_000_000;
+    }
+}
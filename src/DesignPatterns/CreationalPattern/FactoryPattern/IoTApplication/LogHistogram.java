@@ -0,0 +1,181 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable quantile sketch with log-spaced buckets: a value v > 0 lands in bucket
+ * ceil(log(v) / log(GAMMA)), so every quantile is within {@link #RELATIVE_ACCURACY} of the true
+ * value. Adding a sample is O(1); two sketches merge by adding bucket counts. Negative values use
+ * a mirrored set of buckets and magnitudes below {@link #MIN_MAGNITUDE} are counted as zero.
+ */
+final class LogHistogram {
+    static final double RELATIVE_ACCURACY = 0.01;
+    static final double MIN_MAGNITUDE = 1e-6;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    private final Buckets positive = new Buckets();
+    private final Buckets negative = new Buckets();
+    private long zeroCount;
+    private long count;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public void add(double value) {
+        if (value >= MIN_MAGNITUDE) {
+            positive.increment(bucket(value), 1);
+        } else if (value <= -MIN_MAGNITUDE) {
+            negative.increment(bucket(-value), 1);
+        } else if (value == value) {
+            zeroCount++;
+        } else {
+            throw new IllegalArgumentException("Cannot add NaN");
+        }
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    public void merge(LogHistogram other) {
+        if (other.count == 0) {
+            return;
+        }
+        positive.merge(other.positive);
+        negative.merge(other.negative);
+        zeroCount += other.zeroCount;
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Empties the sketch, keeping its bucket arrays for reuse.
+     */
+    public void reset() {
+        positive.reset();
+        negative.reset();
+        zeroCount = 0;
+        count = 0;
+        sum = 0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+    }
+
+    public LogHistogram copy() {
+        LogHistogram copy = new LogHistogram();
+        copy.merge(this);
+        return copy;
+    }
+
+    /**
+     * @param quantile between 0 and 1
+     * @return the estimated value at the quantile, or NaN if the sketch is empty
+     */
+    public double getQuantile(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1: " + quantile);
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) (quantile * (count - 1));
+        double value;
+        if (rank < negative.total) {
+            // Negative buckets hold magnitudes, so the smallest values are in the highest buckets
+            value = -representative(negative.bucketAtRank(negative.total - 1 - rank));
+        } else if (rank < negative.total + zeroCount) {
+            value = 0;
+        } else {
+            value = representative(positive.bucketAtRank(rank - negative.total - zeroCount));
+        }
+        return Math.max(min, Math.min(max, value));
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMin() {
+        return count == 0 ? Double.NaN : min;
+    }
+
+    public double getMax() {
+        return count == 0 ? Double.NaN : max;
+    }
+
+    public double getMean() {
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    private static int bucket(double magnitude) {
+        return (int) Math.ceil(Math.log(magnitude) / LOG_GAMMA);
+    }
+
+    private static double representative(int bucket) {
+        return 2 * Math.pow(GAMMA, bucket) / (GAMMA + 1);
+    }
+
+    /**
+     * Dense bucket counts covering [offset, offset + counts.length), grown on demand.
+     */
+    private static final class Buckets {
+        private long[] counts = new long[0];
+        private int offset;
+        private long total;
+
+        void increment(int bucket, long delta) {
+            int index = bucket - offset;
+            if (index < 0 || index >= counts.length) {
+                ensureCovers(bucket);
+                index = bucket - offset;
+            }
+            counts[index] += delta;
+            total += delta;
+        }
+
+        void merge(Buckets other) {
+            for (int i = 0; i < other.counts.length; i++) {
+                if (other.counts[i] != 0) {
+                    increment(other.offset + i, other.counts[i]);
+                }
+            }
+        }
+
+        void reset() {
+            Arrays.fill(counts, 0);
+            total = 0;
+        }
+
+        int bucketAtRank(long rank) {
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen > rank) {
+                    return offset + i;
+                }
+            }
+            return offset + counts.length - 1;
+        }
+
+        private void ensureCovers(int bucket) {
+            if (counts.length == 0) {
+                counts = new long[16];
+                offset = bucket - 8;
+                return;
+            }
+            int low = Math.min(offset, bucket);
+            int high = Math.max(offset + counts.length, bucket + 1);
+            // Grow by at least half again so a drifting signal does not resize on every sample
+            int length = Math.max(high - low, counts.length + (counts.length >> 1));
+            int newOffset = bucket < offset ? high - length : low;
+            long[] grown = new long[length];
+            System.arraycopy(counts, 0, grown, offset - newOffset, counts.length);
+            counts = grown;
+            offset = newOffset;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Binary snapshot of a {@link SensorRegistry} in a memory-mapped file, so a restart can rebuild
+ * every sensor with its original identity instead of going through fresh random UUIDs.
+ * A checkpoint is written to a temporary file, forced and then atomically moved into place,
+ * so a crash mid-write leaves the previous checkpoint intact.
+ * <p>
+ * Layout: int magic, int version, long written-at millis, int record count, then per record:
+ * long uuid msb, long uuid lsb, byte sensor type ordinal, byte running flag, int interval,
+ * long last reading time, double last reading, short name length, name as UTF-8.
+ */
+final class SensorCheckpoint {
+    private static final int MAGIC = 0x53434B50;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4;
+    private static final int RECORD_BYTES = 8 + 8 + 1 + 1 + 4 + 8 + 8 + 2;
+    private static final SensorType[] SENSOR_TYPES = SensorType.values();
+
+    /**
+     * One restored sensor.
+     */
+    static final class Entry {
+        final UUID sensorUUID;
+        final SensorType sensorType;
+        final String sensorName;
+        final boolean running;
+        final int interval;
+        final long lastReadingTime;
+        final double lastReading;
+
+        Entry(UUID sensorUUID, SensorType sensorType, String sensorName, boolean running, int interval,
+              long lastReadingTime, double lastReading) {
+            this.sensorUUID = sensorUUID;
+            this.sensorType = sensorType;
+            this.sensorName = sensorName;
+            this.running = running;
+            this.interval = interval;
+            this.lastReadingTime = lastReadingTime;
+            this.lastReading = lastReading;
+        }
+    }
+
+    private SensorCheckpoint() {
+    }
+
+    /**
+     * Writes a checkpoint of the registrations.
+     * @return the number of sensors written
+     */
+    static int write(Path file, Collection<SensorRegistration> registrations) throws IOException {
+        List<SensorRegistration> snapshot = new ArrayList<>(registrations);
+        byte[][] names = new byte[snapshot.size()][];
+        long size = HEADER_BYTES;
+        for (int i = 0; i < names.length; i++) {
+            names[i] = snapshot.get(i).getSensor().getSensorName().getBytes(StandardCharsets.UTF_8);
+            if (names[i].length > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("Sensor name too long: " + snapshot.get(i).getSensor().getSensorName());
+            }
+            size += RECORD_BYTES + names[i].length;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Checkpoint too large: " + size + " bytes");
+        }
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(System.currentTimeMillis()).putInt(snapshot.size());
+            for (int i = 0; i < names.length; i++) {
+                SensorRegistration registration = snapshot.get(i);
+                Sensor sensor = registration.getSensor();
+                long lastReadingTime = 0;
+                double lastReading = Double.NaN;
+                if (sensor instanceof AbstractSensor) {
+                    lastReadingTime = ((AbstractSensor) sensor).getLastReadingTime();
+                    lastReading = ((AbstractSensor) sensor).getLastReading();
+                }
+                buffer.putLong(sensor.getSensorUUID().getMostSignificantBits())
+                        .putLong(sensor.getSensorUUID().getLeastSignificantBits())
+                        .put((byte) sensor.getSensorType().ordinal())
+                        .put((byte) (registration.isScheduled() ? 1 : 0))
+                        .putInt(registration.getInterval())
+                        .putLong(lastReadingTime)
+                        .putDouble(lastReading)
+                        .putShort((short) names[i].length)
+                        .put(names[i]);
+            }
+            buffer.force();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return snapshot.size();
+    }
+
+    /**
+     * Reads every sensor of a checkpoint written by {@link #write}.
+     * @throws IllegalArgumentException if the file is not a checkpoint or a record is out of range
+     */
+    static List<Entry> read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Not a sensor checkpoint: " + file);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported checkpoint version " + version + ": " + file);
+            }
+            buffer.getLong();
+            int count = buffer.getInt();
+            if (count < 0 || count > buffer.remaining() / RECORD_BYTES) {
+                throw new IllegalArgumentException("Invalid sensor count " + count + " in checkpoint: " + file);
+            }
+            List<Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                if (buffer.remaining() < RECORD_BYTES) {
+                    throw new IllegalArgumentException("Truncated checkpoint at sensor " + i + ": " + file);
+                }
+                UUID sensorUUID = new UUID(buffer.getLong(), buffer.getLong());
+                int ordinal = buffer.get();
+                if (ordinal < 0 || ordinal >= SENSOR_TYPES.length) {
+                    throw new IllegalArgumentException("Invalid sensor type " + ordinal + " at sensor " + i + " in checkpoint: " + file);
+                }
+                SensorType sensorType = SENSOR_TYPES[ordinal];
+                boolean running = buffer.get() == 1;
+                int interval = buffer.getInt();
+                long lastReadingTime = buffer.getLong();
+                double lastReading = buffer.getDouble();
+                int nameLength = buffer.getShort();
+                if (nameLength < 0 || nameLength > buffer.remaining()) {
+                    throw new IllegalArgumentException("Invalid name length " + nameLength + " at sensor " + i + " in checkpoint: " + file);
+                }
+                byte[] name = new byte[nameLength];
+                buffer.get(name);
+                entries.add(new Entry(sensorUUID, sensorType, new String(name, StandardCharsets.UTF_8), running,
+                        interval, lastReadingTime, lastReading));
+            }
+            return entries;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed-layout binary frame for one sensor reading, big-endian:
+ * long uuid msb, long uuid lsb, byte sensor type ordinal, long timestamp millis, double value.
+ * A datagram carries a whole number of frames back to back.
+ */
+final class SensorFrameCodec {
+    static final int FRAME_BYTES = 8 + 8 + 1 + 8 + 8;
+    private static final int UUID_LEAST_SIG_BITS = 8;
+    private static final int SENSOR_TYPE = 16;
+    private static final int TIMESTAMP = 17;
+    private static final int VALUE = 25;
+
+    private SensorFrameCodec() {
+    }
+
+    /**
+     * Writes one frame at the buffer's position and advances it.
+     */
+    static void encode(ByteBuffer buffer, long uuidMostSigBits, long uuidLeastSigBits, SensorType sensorType,
+                       long timestamp, double value) {
+        buffer.putLong(uuidMostSigBits)
+                .putLong(uuidLeastSigBits)
+                .put((byte) sensorType.ordinal())
+                .putLong(timestamp)
+                .putDouble(value);
+    }
+
+    static long uuidMostSigBits(ByteBuffer buffer, int frame) {
+        return buffer.getLong(frame);
+    }
+
+    static long uuidLeastSigBits(ByteBuffer buffer, int frame) {
+        return buffer.getLong(frame + UUID_LEAST_SIG_BITS);
+    }
+
+    static int sensorTypeOrdinal(ByteBuffer buffer, int frame) {
+        return buffer.get(frame + SENSOR_TYPE);
+    }
+
+    static long timestamp(ByteBuffer buffer, int frame) {
+        return buffer.getLong(frame + TIMESTAMP);
+    }
+
+    static double value(ByteBuffer buffer, int frame) {
+        return buffer.getDouble(frame + VALUE);
+    }
+}
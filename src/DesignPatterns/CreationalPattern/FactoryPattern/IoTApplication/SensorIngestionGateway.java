@@ -0,0 +1,162 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+
+/**
+ * UDP gateway for readings pushed by external devices. A single thread drains a non-blocking
+ * {@link DatagramChannel} into one direct buffer and decodes {@link SensorFrameCodec} frames in
+ * place with absolute reads, publishing each reading to the {@link SensorPipeline} exactly as a
+ * polled sensor would. No objects are allocated per datagram or per reading. A receive error is
+ * counted and logged, and the thread keeps receiving until the gateway is closed.
+ */
+class SensorIngestionGateway implements AutoCloseable {
+    private static final int MAX_DATAGRAM_BYTES = 65507;
+    private static final int RECEIVE_BUFFER_BYTES = 8 << 20;
+    private static final SensorType[] SENSOR_TYPES = SensorType.values();
+
+    private final DatagramChannel channel;
+    private final Selector selector;
+    private final SensorPipeline pipeline;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(MAX_DATAGRAM_BYTES);
+    private final Thread receiver;
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder malformed = new LongAdder();
+    private final LongAdder receiveErrors = new LongAdder();
+    private volatile boolean closed;
+
+    /**
+     * Binds the gateway and starts its receiver thread.
+     * @param address the address to listen on; port 0 picks a free port
+     * @param pipeline where decoded readings are published
+     */
+    public SensorIngestionGateway(InetSocketAddress address, SensorPipeline pipeline) throws IOException {
+        this.pipeline = pipeline;
+        this.channel = DatagramChannel.open();
+        this.channel.setOption(StandardSocketOptions.SO_RCVBUF, RECEIVE_BUFFER_BYTES);
+        this.channel.bind(address);
+        this.channel.configureBlocking(false);
+        this.selector = Selector.open();
+        this.channel.register(selector, SelectionKey.OP_READ);
+        this.receiver = new Thread(this::receiveLoop, "sensor-ingestion-gateway");
+        this.receiver.setDaemon(true);
+        this.receiver.start();
+    }
+
+    public InetSocketAddress getLocalAddress() {
+        try {
+            return (InetSocketAddress) channel.getLocalAddress();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return readings published to the pipeline
+     */
+    public long getAcceptedCount() {
+        return accepted.sum();
+    }
+
+    /**
+     * @return readings decoded but dropped because their pipeline buffer was full
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return datagrams that were not a whole number of frames, and frames with an unknown sensor type
+     */
+    public long getMalformedCount() {
+        return malformed.sum();
+    }
+
+    /**
+     * @return receives or selects that failed while the gateway was open
+     */
+    public long getReceiveErrorCount() {
+        return receiveErrors.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        selector.wakeup();
+        try {
+            receiver.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        selector.close();
+        channel.close();
+    }
+
+    private void receiveLoop() {
+        while (!closed) {
+            try {
+                selector.select();
+                selector.selectedKeys().clear();
+                // Drain every queued datagram before selecting again
+                while (!closed && receive() != null) {
+                    decode();
+                }
+            } catch (IOException e) {
+                if (closed || !channel.isOpen()) {
+                    return;
+                }
+                receiveErrors.increment();
+                SensorLogger.getInstance().log(Level.WARNING, "Ingestion gateway receive failed: {0}", e);
+                // Back off so a persistent error does not spin the thread
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+            }
+        }
+    }
+
+    private SocketAddress receive() throws IOException {
+        buffer.clear();
+        return channel.receive(buffer);
+    }
+
+    private void decode() {
+        int length = buffer.position();
+        if (length % SensorFrameCodec.FRAME_BYTES != 0) {
+            malformed.increment();
+            return;
+        }
+        int published = 0;
+        int rejected = 0;
+        for (int frame = 0; frame < length; frame += SensorFrameCodec.FRAME_BYTES) {
+            int ordinal = SensorFrameCodec.sensorTypeOrdinal(buffer, frame);
+            if (ordinal < 0 || ordinal >= SENSOR_TYPES.length) {
+                malformed.increment();
+                continue;
+            }
+            if (pipeline.publish(SENSOR_TYPES[ordinal],
+                    SensorFrameCodec.uuidMostSigBits(buffer, frame),
+                    SensorFrameCodec.uuidLeastSigBits(buffer, frame),
+                    SensorFrameCodec.timestamp(buffer, frame),
+                    SensorFrameCodec.value(buffer, frame))) {
+                published++;
+            } else {
+                rejected++;
+            }
+        }
+        accepted.add(published);
+        if (rejected > 0) {
+            dropped.add(rejected);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load generator for {@link SensorIngestionGateway}. Sends datagrams of packed frames from a fixed
+ * set of simulated sensors at a target rate.
+ * <p>
+ * Usage: {@code SensorLoadGenerator host port readingsPerSecond seconds sensors}. Without
+ * arguments it starts a gateway on loopback, sends to it for 5 seconds at 500k readings per
+ * second and reports what was sent, accepted and drained from the pipeline.
+ */
+public class SensorLoadGenerator {
+    static final int FRAMES_PER_DATAGRAM = 40;
+
+    private final InetSocketAddress target;
+    private final long[] uuidMostSigBits;
+    private final long[] uuidLeastSigBits;
+    private final SensorType[] sensorTypes;
+
+    SensorLoadGenerator(InetSocketAddress target, int sensors) {
+        if (sensors <= 0) {
+            throw new IllegalArgumentException("Sensor count must be positive: " + sensors);
+        }
+        this.target = target;
+        this.uuidMostSigBits = new long[sensors];
+        this.uuidLeastSigBits = new long[sensors];
+        this.sensorTypes = new SensorType[sensors];
+        SensorType[] types = SensorType.values();
+        for (int i = 0; i < sensors; i++) {
+            UUID sensorUUID = UUID.randomUUID();
+            uuidMostSigBits[i] = sensorUUID.getMostSignificantBits();
+            uuidLeastSigBits[i] = sensorUUID.getLeastSignificantBits();
+            sensorTypes[i] = types[i % types.length];
+        }
+    }
+
+    /**
+     * Sends readings at the given rate, pacing whole datagrams.
+     * @return the number of readings sent
+     */
+    long run(long readingsPerSecond, long seconds) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(FRAMES_PER_DATAGRAM * SensorFrameCodec.FRAME_BYTES);
+        long nanosPerDatagram = TimeUnit.SECONDS.toNanos(1) * FRAMES_PER_DATAGRAM / readingsPerSecond;
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        long sent = 0;
+        int sensor = 0;
+        try (DatagramChannel channel = DatagramChannel.open()) {
+            channel.connect(target);
+            for (long next = start; next < end; next += nanosPerDatagram) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                buffer.clear();
+                long now = System.currentTimeMillis();
+                for (int i = 0; i < FRAMES_PER_DATAGRAM; i++) {
+                    SensorFrameCodec.encode(buffer, uuidMostSigBits[sensor], uuidLeastSigBits[sensor], sensorTypes[sensor],
+                            now, 50 + ThreadLocalRandom.current().nextDouble(10));
+                    sensor = sensor + 1 == sensorTypes.length ? 0 : sensor + 1;
+                }
+                buffer.flip();
+                channel.write(buffer);
+                sent += FRAMES_PER_DATAGRAM;
+            }
+        }
+        return sent;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 5) {
+            SensorLoadGenerator generator = new SensorLoadGenerator(
+                    new InetSocketAddress(args[0], Integer.parseInt(args[1])), Integer.parseInt(args[4]));
+            long sent = generator.run(Long.parseLong(args[2]), Long.parseLong(args[3]));
+            System.out.println("Sent " + sent + " readings");
+            return;
+        }
+        if (args.length != 0) {
+            System.err.println("Usage: SensorLoadGenerator host port readingsPerSecond seconds sensors");
+            return;
+        }
+        SensorPipeline pipeline = new SensorPipeline(1 << 18, 8192);
+        LongAdder drained = new LongAdder();
+        pipeline.start(new SensorReadingHandler() {
+            public void onReading(SensorType sensorType, long uuidMostSigBits, long uuidLeastSigBits, long timestamp, double value) {
+            }
+
+            public void onBatchEnd(SensorType sensorType, int count) {
+                drained.add(count);
+            }
+        });
+        try (SensorIngestionGateway gateway = new SensorIngestionGateway(new InetSocketAddress("127.0.0.1", 0), pipeline)) {
+            SensorLoadGenerator generator = new SensorLoadGenerator(gateway.getLocalAddress(), 10000);
+            long start = System.nanoTime();
+            long sent = generator.run(500_000, 5);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            Thread.sleep(500);
+            System.out.printf("Sent %d readings in %.2f s (%.0f/s); accepted %d (%.0f/s), dropped %d, malformed %d, drained %d%n",
+                    sent, seconds, sent / seconds, gateway.getAcceptedCount(), gateway.getAcceptedCount() / seconds,
+                    gateway.getDroppedCount(), gateway.getMalformedCount(), drained.sum());
+        } finally {
+            pipeline.stop();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import DesignPatterns.CreationalPattern.FactoryPattern.Metrics.LatencyHistogram;
+import DesignPatterns.CreationalPattern.FactoryPattern.Metrics.MetricsMBean;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tick instrumentation for one sensor or one sensor type: drift between the planned and actual
+ * start of each tick, read() latency, ticks that started a whole interval or more late (missed)
+ * and reads that started while another read of the same sensor was still running (overlapping).
+ * When reads run off the timer thread it also counts reads that hit the read timeout, reads that
+ * threw, and ticks skipped because the sensor type already had its maximum of reads in flight.
+ */
+final class SensorMetrics {
+    final LatencyHistogram drift = new LatencyHistogram();
+    final LatencyHistogram readLatency = new LatencyHistogram();
+    final LongAdder ticks = new LongAdder();
+    final LongAdder missedTicks = new LongAdder();
+    final LongAdder overlappingReads = new LongAdder();
+    final LongAdder timedOutReads = new LongAdder();
+    final LongAdder failedReads = new LongAdder();
+    final LongAdder throttledTicks = new LongAdder();
+    private final AtomicInteger readsInFlight = new AtomicInteger();
+
+    void recordTick(long driftNanos, long intervalNanos) {
+        ticks.increment();
+        drift.record(driftNanos);
+        if (driftNanos >= intervalNanos) {
+            missedTicks.add(driftNanos / intervalNanos);
+        }
+    }
+
+    /**
+     * @return true if another read of the same sensor was still running
+     */
+    boolean readStarted() {
+        if (readsInFlight.getAndIncrement() > 0) {
+            overlappingReads.increment();
+            return true;
+        }
+        return false;
+    }
+
+    void readFinished(long latencyNanos) {
+        readsInFlight.decrementAndGet();
+        readLatency.record(latencyNanos);
+    }
+
+    // Aggregate metrics of a sensor type take reads already checked for overlap per sensor
+    void recordRead(long latencyNanos, boolean overlapping) {
+        readLatency.record(latencyNanos);
+        if (overlapping) {
+            overlappingReads.increment();
+        }
+    }
+
+    public LatencyHistogram getDrift() {
+        return drift;
+    }
+
+    public LatencyHistogram getReadLatency() {
+        return readLatency;
+    }
+
+    public long getTickCount() {
+        return ticks.sum();
+    }
+
+    public long getMissedTickCount() {
+        return missedTicks.sum();
+    }
+
+    public long getOverlappingReadCount() {
+        return overlappingReads.sum();
+    }
+
+    public long getTimedOutReadCount() {
+        return timedOutReads.sum();
+    }
+
+    public long getFailedReadCount() {
+        return failedReads.sum();
+    }
+
+    public long getThrottledTickCount() {
+        return throttledTicks.sum();
+    }
+
+    MetricsMBean toMBean(String description) {
+        return new MetricsMBean(description)
+                .counter("Ticks", this::getTickCount)
+                .counter("MissedTicks", this::getMissedTickCount)
+                .counter("OverlappingReads", this::getOverlappingReadCount)
+                .counter("TimedOutReads", this::getTimedOutReadCount)
+                .counter("FailedReads", this::getFailedReadCount)
+                .counter("ThrottledTicks", this::getThrottledTickCount)
+                .histogram("Drift", drift)
+                .histogram("ReadLatency", readLatency);
+    }
+
+    @Override
+    public String toString() {
+        return "ticks=" + getTickCount() + " missed=" + getMissedTickCount() + " overlapping=" + getOverlappingReadCount()
+                + " timedOut=" + getTimedOutReadCount() + " failed=" + getFailedReadCount()
+                + " throttled=" + getThrottledTickCount()
+                + " drift[" + drift + "] readLatency[" + readLatency + "]";
+    }
+}
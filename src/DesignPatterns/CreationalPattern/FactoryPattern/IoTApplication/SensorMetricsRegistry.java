@@ -0,0 +1,87 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import DesignPatterns.CreationalPattern.FactoryPattern.Metrics.MetricsMBean;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.management.ObjectName;
+
+/**
+ * {@link SensorMetrics} of a scheduler, per sensor and per {@link SensorType}. Once
+ * {@link #registerMBeans} is called every existing and future sensor gets its own MBean.
+ */
+class SensorMetricsRegistry {
+    private final Map<SensorType, SensorMetrics> byType = new EnumMap<>(SensorType.class);
+    private final ConcurrentHashMap<UUID, SensorMetrics> bySensor = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, ObjectName> sensorMBeans = new ConcurrentHashMap<>();
+    private volatile String mbeanDomain;
+
+    SensorMetricsRegistry() {
+        for (SensorType sensorType : SensorType.values()) {
+            byType.put(sensorType, new SensorMetrics());
+        }
+    }
+
+    public SensorMetrics forType(SensorType sensorType) {
+        return byType.get(sensorType);
+    }
+
+    public SensorMetrics forSensor(Sensor sensor) {
+        return bySensor.computeIfAbsent(sensor.getSensorUUID(), id -> {
+            SensorMetrics metrics = new SensorMetrics();
+            String domain = mbeanDomain;
+            if (domain != null) {
+                sensorMBeans.put(id, metrics.toMBean("Sensor " + id).register(sensorName(domain, id)));
+            }
+            return metrics;
+        });
+    }
+
+    /**
+     * @return the metrics of a sensor, or null if it was never scheduled
+     */
+    public SensorMetrics get(UUID sensorUUID) {
+        return bySensor.get(sensorUUID);
+    }
+
+    public void remove(UUID sensorUUID) {
+        bySensor.remove(sensorUUID);
+        ObjectName name = sensorMBeans.remove(sensorUUID);
+        if (name != null) {
+            MetricsMBean.unregister(name);
+        }
+    }
+
+    /**
+     * Registers one MBean per sensor type and per sensor under the given JMX domain.
+     * @throws IllegalStateException if the domain already holds these MBeans, e.g. from another system
+     */
+    public synchronized void registerMBeans(String domain) {
+        for (Map.Entry<SensorType, SensorMetrics> entry : byType.entrySet()) {
+            entry.getValue().toMBean("Sensor type " + entry.getKey()).register(domain + ":type=SensorType,name=" + entry.getKey());
+        }
+        mbeanDomain = domain;
+        for (Map.Entry<UUID, SensorMetrics> entry : bySensor.entrySet()) {
+            sensorMBeans.computeIfAbsent(entry.getKey(), id -> entry.getValue().toMBean("Sensor " + id)
+                    .register(sensorName(domain, id)));
+        }
+    }
+
+    /**
+     * Appends every metric as "sensor.type.TYPE.attribute value" and "sensor.id.UUID.attribute value" lines.
+     */
+    public void dump(Appendable out) {
+        for (Map.Entry<SensorType, SensorMetrics> entry : byType.entrySet()) {
+            entry.getValue().toMBean("").dump("sensor.type." + entry.getKey(), out);
+        }
+        for (Map.Entry<UUID, SensorMetrics> entry : bySensor.entrySet()) {
+            entry.getValue().toMBean("").dump("sensor.id." + entry.getKey(), out);
+        }
+    }
+
+    private static String sensorName(String domain, UUID sensorUUID) {
+        return domain + ":type=Sensor,name=" + sensorUUID;
+    }
+}
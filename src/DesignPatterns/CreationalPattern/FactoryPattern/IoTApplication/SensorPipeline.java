@@ -0,0 +1,140 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+
+/**
+ * Read path for sensor samples: one {@link SensorReadingBuffer} per {@link SensorType} on the
+ * producer side and a single consumer thread that drains them in batches.
+ */
+class SensorPipeline {
+    static final int DEFAULT_CAPACITY = 1 << 16;
+    static final int DEFAULT_BATCH_SIZE = 1024;
+
+    private static final AtomicReference<SensorPipeline> instance = new AtomicReference<>();
+
+    private final Map<SensorType, SensorReadingBuffer> buffers = new EnumMap<>(SensorType.class);
+    private final SensorReadingBuffer[] buffersByOrdinal;
+    private final int batchSize;
+    private final LongAdder handlerFailures = new LongAdder();
+    private final Queue<UUID> removedSensors = new ConcurrentLinkedQueue<>();
+    private volatile Thread consumer;
+
+    public SensorPipeline(int capacity, int batchSize) {
+        this.batchSize = batchSize;
+        this.buffersByOrdinal = new SensorReadingBuffer[SensorType.values().length];
+        for (SensorType sensorType : SensorType.values()) {
+            SensorReadingBuffer buffer = new SensorReadingBuffer(sensorType, capacity);
+            buffers.put(sensorType, buffer);
+            buffersByOrdinal[sensorType.ordinal()] = buffer;
+        }
+    }
+
+    public static SensorPipeline getInstance() {
+        SensorPipeline pipeline = instance.get();
+        if (pipeline == null) {
+            instance.compareAndSet(null, new SensorPipeline(DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE));
+            pipeline = instance.get();
+        }
+        return pipeline;
+    }
+
+    public boolean publish(SensorType sensorType, long uuidMostSigBits, long uuidLeastSigBits, long timestamp, double value) {
+        return buffersByOrdinal[sensorType.ordinal()].offer(uuidMostSigBits, uuidLeastSigBits, timestamp, value);
+    }
+
+    /**
+     * Has the consumer tell its handler that a sensor was removed, after the readings it drains next.
+     */
+    public void removeSensor(UUID sensorUUID) {
+        removedSensors.add(sensorUUID);
+    }
+
+    /**
+     * Drains one batch from every buffer into the handler on the calling thread, then passes on
+     * every pending sensor removal.
+     * @return the number of readings drained
+     */
+    public int drainTo(SensorReadingHandler handler) {
+        int drained = 0;
+        for (SensorReadingBuffer buffer : buffersByOrdinal) {
+            drained += buffer.drain(handler, batchSize);
+        }
+        UUID removed;
+        while ((removed = removedSensors.poll()) != null) {
+            handler.onSensorRemoved(removed.getMostSignificantBits(), removed.getLeastSignificantBits());
+        }
+        return drained;
+    }
+
+    /**
+     * Starts the consumer thread that drains every buffer into the handler.
+     */
+    public void start(SensorReadingHandler handler) {
+        start(handler, "sensor-pipeline");
+    }
+
+    /**
+     * Starts the consumer thread, with the given name, that drains every buffer into the handler.
+     * A handler exception is counted and logged, and the thread keeps draining.
+     */
+    public synchronized void start(SensorReadingHandler handler, String threadName) {
+        if (consumer != null) {
+            throw new IllegalStateException("Sensor pipeline is already running");
+        }
+        Thread thread = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    if (drainTo(handler) == 0) {
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                    }
+                } catch (RuntimeException e) {
+                    handlerFailures.increment();
+                    SensorLogger.getInstance().log(Level.WARNING, "Sensor reading handler failed: {0}", e);
+                }
+            }
+        }, threadName);
+        thread.setDaemon(true);
+        consumer = thread;
+        thread.start();
+    }
+
+    /**
+     * Stops the consumer thread and waits for it to finish its current batch, after which the
+     * handler is no longer called.
+     */
+    public synchronized void stop() {
+        Thread thread = consumer;
+        if (thread == null) {
+            return;
+        }
+        consumer = null;
+        thread.interrupt();
+        if (thread != Thread.currentThread()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Returns how many times the consumer thread's handler has thrown.
+     */
+    public long getHandlerFailureCount() {
+        return handlerFailures.sum();
+    }
+
+    public SensorReadingBuffer getBuffer(SensorType sensorType) {
+        return buffers.get(sensorType);
+    }
+}
@@ -0,0 +1,107 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Preallocated multi-producer, single-consumer ring of (sensorId, timestamp, value) records backed
+ * by primitive arrays. Producers claim a slot with a CAS on the tail and publish it by writing the
+ * slot's sequence; the consumer drains published slots in order. Neither side allocates.
+ */
+class SensorReadingBuffer {
+    private static final VarHandle SEQUENCES = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final SensorType sensorType;
+    private final int capacity;
+    private final int mask;
+    private final long[] uuidMostSigBits;
+    private final long[] uuidLeastSigBits;
+    private final long[] timestamps;
+    private final double[] values;
+    private final long[] sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private volatile long head;
+
+    public SensorReadingBuffer(SensorType sensorType, int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a positive power of two: " + capacity);
+        }
+        this.sensorType = sensorType;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.uuidMostSigBits = new long[capacity];
+        this.uuidLeastSigBits = new long[capacity];
+        this.timestamps = new long[capacity];
+        this.values = new double[capacity];
+        this.sequences = new long[capacity];
+        for (int i = 0; i < capacity; i++) {
+            sequences[i] = i - capacity;
+        }
+    }
+
+    /**
+     * Appends a reading. Never blocks: when the ring is full the reading is dropped and counted.
+     * @return true if the reading was accepted
+     */
+    public boolean offer(long uuidMostSigBits, long uuidLeastSigBits, long timestamp, double value) {
+        long sequence;
+        do {
+            sequence = tail.get();
+            if (sequence - head >= capacity) {
+                dropped.increment();
+                return false;
+            }
+        } while (!tail.compareAndSet(sequence, sequence + 1));
+
+        int index = (int) sequence & mask;
+        this.uuidMostSigBits[index] = uuidMostSigBits;
+        this.uuidLeastSigBits[index] = uuidLeastSigBits;
+        this.timestamps[index] = timestamp;
+        this.values[index] = value;
+        SEQUENCES.setRelease(sequences, index, sequence);
+        return true;
+    }
+
+    /**
+     * Drains up to maxBatch published readings into the handler. Must only be called from one
+     * consumer thread at a time. A reading whose handler throws is consumed, so it is not
+     * delivered again, and the batch ends there without {@code onBatchEnd}.
+     * @return the number of readings drained
+     */
+    public int drain(SensorReadingHandler handler, int maxBatch) {
+        long position = head;
+        int count = 0;
+        try {
+            while (count < maxBatch) {
+                int index = (int) position & mask;
+                if ((long) SEQUENCES.getAcquire(sequences, index) != position) {
+                    break;
+                }
+                position++;
+                count++;
+                handler.onReading(sensorType, uuidMostSigBits[index], uuidLeastSigBits[index], timestamps[index], values[index]);
+            }
+        } finally {
+            head = position;
+        }
+        if (count > 0) {
+            handler.onBatchEnd(sensorType, count);
+        }
+        return count;
+    }
+
+    public SensorType getSensorType() {
+        return sensorType;
+    }
+
+    public int size() {
+        return (int) (tail.get() - head);
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+}
@@ -0,0 +1,48 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+/**
+ * Consumer callback for readings drained from a {@link SensorReadingBuffer}. Readings are passed
+ * as primitives so draining a batch does not allocate.
+ */
+interface SensorReadingHandler {
+    void onReading(SensorType sensorType, long uuidMostSigBits, long uuidLeastSigBits, long timestamp, double value);
+
+    /**
+     * Called once after each drained batch of a sensor type.
+     */
+    default void onBatchEnd(SensorType sensorType, int count) {
+    }
+
+    /**
+     * Called once a sensor has been removed from its system, so per-sensor state can be released.
+     * Readings of the sensor that were still queued may arrive afterwards.
+     */
+    default void onSensorRemoved(long uuidMostSigBits, long uuidLeastSigBits) {
+    }
+
+    /**
+     * Returns a handler that passes every reading, batch end and removal to this handler, then to the next one.
+     */
+    default SensorReadingHandler andThen(SensorReadingHandler next) {
+        SensorReadingHandler first = this;
+        return new SensorReadingHandler() {
+            @Override
+            public void onReading(SensorType sensorType, long uuidMostSigBits, long uuidLeastSigBits, long timestamp, double value) {
+                first.onReading(sensorType, uuidMostSigBits, uuidLeastSigBits, timestamp, value);
+                next.onReading(sensorType, uuidMostSigBits, uuidLeastSigBits, timestamp, value);
+            }
+
+            @Override
+            public void onBatchEnd(SensorType sensorType, int count) {
+                first.onBatchEnd(sensorType, count);
+                next.onBatchEnd(sensorType, count);
+            }
+
+            @Override
+            public void onSensorRemoved(long uuidMostSigBits, long uuidLeastSigBits) {
+                first.onSensorRemoved(uuidMostSigBits, uuidLeastSigBits);
+                next.onSensorRemoved(uuidMostSigBits, uuidLeastSigBits);
+            }
+        };
+    }
+}
@@ -0,0 +1,158 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Concurrent registry of sensors keyed by UUID. Each entry is an immutable
+ * {@link SensorRegistration}; changes swap entries per key, so concurrent add/remove/reschedule
+ * of different sensors never contend on a global lock.
+ */
+class SensorRegistry {
+
+    /**
+     * Starts the periodic read of a sensor.
+     */
+    interface Scheduler {
+        SensorTask schedule(Sensor sensor, int interval);
+    }
+
+    private final ConcurrentHashMap<UUID, SensorRegistration> registrations = new ConcurrentHashMap<>();
+
+    public SensorRegistration get(UUID sensorUUID) {
+        return registrations.get(sensorUUID);
+    }
+
+    /**
+     * Registers a sensor or updates its interval, leaving any running schedule untouched.
+     */
+    public SensorRegistration register(Sensor sensor, int interval) {
+        return registrations.compute(sensor.getSensorUUID(), (id, current) ->
+                current == null ? new SensorRegistration(sensor, interval, null) : current.withInterval(interval));
+    }
+
+    /**
+     * Atomically cancels the current schedule of a sensor, if any, and starts a new one.
+     * Registers the sensor if it is not known yet.
+     */
+    public SensorRegistration reschedule(Sensor sensor, int interval, Scheduler scheduler) {
+        return registrations.compute(sensor.getSensorUUID(), (id, current) -> {
+            if (current != null) {
+                current.cancel();
+            }
+            return new SensorRegistration(sensor, interval, scheduler.schedule(sensor, interval));
+        });
+    }
+
+    /**
+     * Changes the interval of a running sensor in place, without cancelling its schedule.
+     * @return the updated registration, or null if the sensor is not running
+     */
+    public SensorRegistration updateRunningInterval(UUID sensorUUID, int interval) {
+        SensorRegistration[] updated = new SensorRegistration[1];
+        registrations.computeIfPresent(sensorUUID, (id, current) -> {
+            if (!current.isScheduled()) {
+                return current;
+            }
+            current.getTask().setInterval(interval);
+            updated[0] = current.withInterval(interval);
+            return updated[0];
+        });
+        return updated[0];
+    }
+
+    /**
+     * Starts a registered sensor unless it is already running.
+     */
+    public SensorRegistration startIfIdle(UUID sensorUUID, Scheduler scheduler) {
+        return registrations.computeIfPresent(sensorUUID, (id, current) -> current.isScheduled() ? current
+                : new SensorRegistration(current.getSensor(), current.getInterval(),
+                        scheduler.schedule(current.getSensor(), current.getInterval())));
+    }
+
+    /**
+     * Removes a running sensor and cancels its schedule.
+     * @return the removed registration, or null if the sensor is not running
+     */
+    public SensorRegistration removeRunning(UUID sensorUUID) {
+        while (true) {
+            SensorRegistration current = registrations.get(sensorUUID);
+            if (current == null || !current.isScheduled()) {
+                return null;
+            }
+            if (registrations.remove(sensorUUID, current)) {
+                current.cancel();
+                return current;
+            }
+        }
+    }
+
+    /**
+     * Removes a sensor, running or not, and cancels its schedule.
+     * @return the removed registration, or null if the sensor is not registered
+     */
+    public SensorRegistration remove(UUID sensorUUID) {
+        SensorRegistration removed = registrations.remove(sensorUUID);
+        if (removed != null) {
+            removed.cancel();
+        }
+        return removed;
+    }
+
+    public Collection<SensorRegistration> registrations() {
+        return registrations.values();
+    }
+
+    public int size() {
+        return registrations.size();
+    }
+}
+
+/**
+ * Immutable registry entry: a sensor, its configured read interval and its running task, if any.
+ */
+final class SensorRegistration {
+    private final Sensor sensor;
+    private final int interval;
+    private final SensorTask task;
+
+    SensorRegistration(Sensor sensor, int interval, SensorTask task) {
+        this.sensor = sensor;
+        this.interval = interval;
+        this.task = task;
+    }
+
+    public Sensor getSensor() {
+        return sensor;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    /**
+     * @return the interval the sensor is read at now, which an adaptive policy may have changed
+     */
+    public long getCurrentInterval() {
+        return task == null ? interval : task.getInterval();
+    }
+
+    public boolean isScheduled() {
+        return task != null;
+    }
+
+    SensorTask getTask() {
+        return task;
+    }
+
+    SensorRegistration withInterval(int interval) {
+        return new SensorRegistration(sensor, interval, task);
+    }
+
+    void cancel() {
+        if (task != null) {
+            task.cancel();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Shared scheduling engine for sensor ticks. A small fixed pool of timer threads drives every
+ * registered sensor, so the thread count does not grow with the number of sensors. Each sensor runs
+ * as a {@link SensorTask}, whose interval can be changed in place or adapted by a sampling policy,
+ * and a {@link LoadGovernor} stretches all intervals while ticks run late.
+ * <p>
+ * When reads run on a separate executor, each read can be bounded by a timeout and the number of
+ * reads in flight can be capped per {@link SensorType}. A read belongs to its task: cancelling the
+ * task interrupts the read, and shutting the scheduler down interrupts every read still running.
+ */
+class SensorScheduler {
+    static final long DEFAULT_TARGET_LAG_MILLIS = 50;
+    static final double DEFAULT_MAX_STRETCH = 8;
+
+    private final ScheduledExecutorService timer;
+    private final ExecutorService readExecutor;
+    private final TickCoalescer coalescer;
+    private final LoadGovernor loadGovernor = new LoadGovernor(DEFAULT_TARGET_LAG_MILLIS, DEFAULT_MAX_STRETCH);
+    private final SensorMetricsRegistry metrics = new SensorMetricsRegistry();
+    private final AtomicReferenceArray<Semaphore> readPermits = new AtomicReferenceArray<>(SensorType.values().length);
+    private volatile AdaptiveSamplingPolicy samplingPolicy;
+    private volatile long readTimeoutMillis;
+
+    /**
+     * @param timer        the executor that fires the ticks
+     * @param readExecutor the executor that runs {@link Sensor#read()}, or null to read on the timer thread
+     */
+    public SensorScheduler(ScheduledExecutorService timer, ExecutorService readExecutor) {
+        this(timer, readExecutor, 0);
+    }
+
+    private SensorScheduler(ScheduledExecutorService timer, ExecutorService readExecutor, long slotMillis) {
+        if (timer == null) {
+            throw new IllegalArgumentException("Timer executor cannot be null");
+        }
+        if (timer instanceof ScheduledThreadPoolExecutor) {
+            // Ticks are one-shot tasks; on shutdown drop the pending ones instead of waiting for them
+            ((ScheduledThreadPoolExecutor) timer).setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        }
+        this.timer = timer;
+        this.readExecutor = readExecutor;
+        this.coalescer = slotMillis > 0 ? new TickCoalescer(timer, slotMillis) : null;
+    }
+
+    /**
+     * Reads sensors directly on a fixed pool of timer threads.
+     */
+    public static SensorScheduler pooled(int threads) {
+        return new SensorScheduler(Executors.newScheduledThreadPool(threads, threadFactory("sensor-scheduler")), null);
+    }
+
+    /**
+     * Reads sensors in coalesced batches on a fixed pool of timer threads: sensors whose intervals
+     * round to the same multiple of {@code slotMillis} share one wakeup per slot, see {@link TickCoalescer}.
+     * Initial delays are ignored; the coalescer picks each sensor's phase.
+     */
+    public static SensorScheduler coalesced(int threads, long slotMillis) {
+        if (slotMillis <= 0) {
+            throw new IllegalArgumentException("Slot width must be positive: " + slotMillis);
+        }
+        return new SensorScheduler(Executors.newScheduledThreadPool(threads, threadFactory("sensor-scheduler")),
+                null, slotMillis);
+    }
+
+    /**
+     * Fires ticks from a single timer thread and hands every read to a virtual thread, so a slow
+     * read() never holds up the schedule of other sensors. Falls back to a fixed pool of platform
+     * threads when the JVM has no virtual threads.
+     */
+    public static SensorScheduler virtualThreads() {
+        return new SensorScheduler(Executors.newSingleThreadScheduledExecutor(threadFactory("sensor-scheduler")),
+                newVirtualThreadExecutor(Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Like {@link #virtualThreads()}, with every read bounded by a timeout and at most
+     * {@code maxReadsInFlight} reads running at once per sensor type. Without virtual threads the
+     * fallback pool is sized to the caps, so capped reads never wait for a platform thread.
+     */
+    public static SensorScheduler virtualThreads(long readTimeoutMillis, int maxReadsInFlight) {
+        if (maxReadsInFlight <= 0) {
+            throw new IllegalArgumentException("Max reads in flight must be positive: " + maxReadsInFlight);
+        }
+        SensorScheduler scheduler = new SensorScheduler(
+                Executors.newSingleThreadScheduledExecutor(threadFactory("sensor-scheduler")),
+                newVirtualThreadExecutor(maxReadsInFlight * SensorType.values().length));
+        scheduler.setReadTimeout(readTimeoutMillis);
+        for (SensorType sensorType : SensorType.values()) {
+            scheduler.setMaxReadsInFlight(sensorType, maxReadsInFlight);
+        }
+        return scheduler;
+    }
+
+    public SensorTask schedule(Sensor sensor, long initialDelay, long interval) {
+        SensorTask task = new SensorTask(sensor, this, interval);
+        task.start(initialDelay);
+        return task;
+    }
+
+    /**
+     * Switches every running sensor to adaptive intervals from its next tick on, or back to its
+     * configured interval when the policy is null.
+     */
+    public void setSamplingPolicy(AdaptiveSamplingPolicy samplingPolicy) {
+        this.samplingPolicy = samplingPolicy;
+    }
+
+    public AdaptiveSamplingPolicy getSamplingPolicy() {
+        return samplingPolicy;
+    }
+
+    /**
+     * Interrupts a read that runs longer than the timeout and moves the sensor on to its next tick;
+     * 0 disables the timeout. Only applies when reads run off the timer thread.
+     */
+    public void setReadTimeout(long readTimeoutMillis) {
+        requireReadExecutor();
+        if (readTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Read timeout cannot be negative: " + readTimeoutMillis);
+        }
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+
+    public long getReadTimeout() {
+        return readTimeoutMillis;
+    }
+
+    /**
+     * Caps the reads of one sensor type running at once; a tick that finds no free slot is skipped.
+     * Reads already running keep their slot in the previous limit.
+     */
+    public void setMaxReadsInFlight(SensorType sensorType, int maxReadsInFlight) {
+        requireReadExecutor();
+        if (maxReadsInFlight <= 0) {
+            throw new IllegalArgumentException("Max reads in flight must be positive: " + maxReadsInFlight);
+        }
+        readPermits.set(sensorType.ordinal(), new Semaphore(maxReadsInFlight));
+    }
+
+    public LoadGovernor getLoadGovernor() {
+        return loadGovernor;
+    }
+
+    public SensorMetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    ScheduledExecutorService timer() {
+        return timer;
+    }
+
+    // Null unless ticks are coalesced
+    TickCoalescer coalescer() {
+        return coalescer;
+    }
+
+    boolean readsOffTimer() {
+        return readExecutor != null;
+    }
+
+    // Null when reads of the type are not capped
+    Semaphore readPermits(SensorType sensorType) {
+        return readPermits.get(sensorType.ordinal());
+    }
+
+    void read(Runnable read) {
+        if (readExecutor == null) {
+            read.run();
+        } else {
+            readExecutor.execute(read);
+        }
+    }
+
+    public void shutdown() {
+        timer.shutdown();
+        if (readExecutor != null) {
+            readExecutor.shutdownNow();
+        }
+    }
+
+    private void requireReadExecutor() {
+        if (readExecutor == null) {
+            throw new IllegalStateException("Reads run on the timer thread; use a scheduler with a read executor");
+        }
+    }
+
+    private static ExecutorService newVirtualThreadExecutor(int fallbackThreads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(fallbackThreads, threadFactory("sensor-reader"));
+        }
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> new Thread(runnable, prefix + "-" + count.incrementAndGet());
+    }
+}
@@ -0,0 +1,311 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodic read of one sensor as a chain of one-shot ticks: each tick reads the sensor and then
+ * schedules the next one after the current interval. The interval is a volatile field, so changing
+ * it takes effect from the next tick without cancelling the schedule.
+ * <p>
+ * When the scheduler reads off the timer thread, each read is an {@link InFlightRead} owned by
+ * this task: it holds a permit of its sensor type while it runs, is interrupted when it outlives
+ * the read timeout or when the task is cancelled, and the next tick is scheduled as soon as the read
+ * either finishes or times out.
+ */
+final class SensorTask implements Runnable {
+    private final Sensor sensor;
+    private final SensorScheduler scheduler;
+    private final AdaptiveSamplingPolicy.SignalStats signalStats = new AdaptiveSamplingPolicy.SignalStats();
+    private final SensorMetrics sensorMetrics;
+    private final SensorMetrics typeMetrics;
+    private volatile long interval;
+    // The interval as configured, which the sampling policy adapts from and returns to when cleared
+    private volatile long baseInterval;
+    private volatile boolean cancelled;
+    private volatile ScheduledFuture<?> next;
+    private volatile long plannedNanos;
+    private volatile InFlightRead inFlight;
+    // Guarded by the scheduler's TickCoalescer, when it has one
+    TickCoalescer.Bucket bucket;
+    int slot;
+
+    SensorTask(Sensor sensor, SensorScheduler scheduler, long interval) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Interval must be positive: " + interval);
+        }
+        this.sensor = sensor;
+        this.scheduler = scheduler;
+        this.interval = interval;
+        this.baseInterval = interval;
+        this.sensorMetrics = scheduler.getMetrics().forSensor(sensor);
+        this.typeMetrics = scheduler.getMetrics().forType(sensor.getSensorType());
+    }
+
+    void start(long initialDelay) {
+        TickCoalescer coalescer = scheduler.coalescer();
+        if (coalescer != null) {
+            coalescer.add(this);
+        } else {
+            scheduleNext(initialDelay);
+        }
+    }
+
+    @Override
+    public void run() {
+        if (cancelled) {
+            return;
+        }
+        recordTick(plannedNanos);
+        if (scheduler.readsOffTimer()) {
+            startRead();
+        } else {
+            readAndAdapt();
+            scheduleNext(nextDelay());
+        }
+    }
+
+    /**
+     * One read as part of a coalesced batch; the coalescer, not this task, decides when the next
+     * tick happens. A read that throws is counted and does not stop the rest of the batch.
+     */
+    void tick(long plannedNanos) {
+        recordTick(plannedNanos);
+        readAndAdapt();
+    }
+
+    // A read that throws is counted as failed; the schedule goes on either way
+    private void readAndAdapt() {
+        try {
+            adapt(readSensor());
+        } catch (RuntimeException e) {
+            sensorMetrics.failedReads.increment();
+            typeMetrics.failedReads.increment();
+        }
+    }
+
+    private void recordTick(long plannedNanos) {
+        long drift = System.nanoTime() - plannedNanos;
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(interval);
+        sensorMetrics.recordTick(drift, intervalNanos);
+        typeMetrics.recordTick(drift, intervalNanos);
+        scheduler.getLoadGovernor().recordLag(drift);
+    }
+
+    private void startRead() {
+        Semaphore permits = scheduler.readPermits(sensor.getSensorType());
+        if (permits != null && !permits.tryAcquire()) {
+            sensorMetrics.throttledTicks.increment();
+            typeMetrics.throttledTicks.increment();
+            scheduleNext(nextDelay());
+            return;
+        }
+        InFlightRead read = new InFlightRead(permits);
+        inFlight = read;
+        if (cancelled) {
+            // cancel() may have run before the read was visible to it
+            read.cancel();
+            return;
+        }
+        long timeout = scheduler.getReadTimeout();
+        if (timeout > 0) {
+            read.timeout = scheduler.timer().schedule(read::timeOut, timeout, TimeUnit.MILLISECONDS);
+        }
+        try {
+            scheduler.read(read);
+        } catch (RejectedExecutionException e) {
+            // The read executor is shutting down
+            read.cancel();
+        }
+    }
+
+    private double readSensor() {
+        boolean overlapping = sensorMetrics.readStarted();
+        long start = System.nanoTime();
+        try {
+            return sensor.read();
+        } finally {
+            long latency = System.nanoTime() - start;
+            sensorMetrics.readFinished(latency);
+            typeMetrics.recordRead(latency, overlapping);
+        }
+    }
+
+    private void adapt(double value) {
+        AdaptiveSamplingPolicy policy = scheduler.getSamplingPolicy();
+        if (policy != null) {
+            interval = policy.nextInterval(sensor.getSensorType(), signalStats, value, interval);
+        } else if (interval != baseInterval) {
+            interval = baseInterval;
+        }
+    }
+
+    private long nextDelay() {
+        return Math.round(interval * scheduler.getLoadGovernor().getStretch());
+    }
+
+    private void scheduleNext(long delay) {
+        if (cancelled || scheduler.timer().isShutdown()) {
+            return;
+        }
+        plannedNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+        next = scheduler.timer().schedule(this, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Changes the configured interval in place; the tick already scheduled keeps its time.
+     */
+    public void setInterval(long interval) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Interval must be positive: " + interval);
+        }
+        this.baseInterval = interval;
+        this.interval = interval;
+    }
+
+    /**
+     * @return the interval before the next tick, as last set by hand or by the sampling policy
+     */
+    public long getInterval() {
+        return interval;
+    }
+
+    public Sensor getSensor() {
+        return sensor;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public void cancel() {
+        cancelled = true;
+        TickCoalescer coalescer = scheduler.coalescer();
+        if (coalescer != null) {
+            coalescer.remove(this);
+        }
+        ScheduledFuture<?> scheduled = next;
+        if (scheduled != null) {
+            scheduled.cancel(false);
+        }
+        InFlightRead read = inFlight;
+        if (read != null) {
+            read.cancel();
+        }
+    }
+
+    /**
+     * One read handed to the read executor. Exactly one of finishing and timing out moves the task
+     * on to its next tick; the permit is released only once the read has really stopped, or was
+     * dropped before it started, so the per-type cap also bounds reads stuck past their timeout.
+     */
+    private final class InFlightRead implements Runnable {
+        private final Semaphore permits;
+        private volatile ScheduledFuture<?> timeout;
+        // Guarded by this
+        private Thread thread;
+        private boolean started;
+        private boolean stopped;
+        private boolean settled;
+
+        InFlightRead(Semaphore permits) {
+            this.permits = permits;
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (stopped) {
+                    return;
+                }
+                started = true;
+                thread = Thread.currentThread();
+            }
+            double value = Double.NaN;
+            boolean succeeded = false;
+            try {
+                value = readSensor();
+                succeeded = true;
+            } catch (RuntimeException e) {
+                // A read interrupted by its timeout or by cancel() is not counted as a failure
+                if (!isSettled()) {
+                    sensorMetrics.failedReads.increment();
+                    typeMetrics.failedReads.increment();
+                }
+            } finally {
+                stop();
+            }
+            if (settle()) {
+                ScheduledFuture<?> pending = timeout;
+                if (pending != null) {
+                    pending.cancel(false);
+                }
+                if (succeeded) {
+                    adapt(value);
+                }
+                scheduleNext(nextDelay());
+            }
+        }
+
+        void timeOut() {
+            if (!settle()) {
+                return;
+            }
+            sensorMetrics.timedOutReads.increment();
+            typeMetrics.timedOutReads.increment();
+            interruptOrDrop();
+            scheduleNext(nextDelay());
+        }
+
+        void cancel() {
+            settle();
+            interruptOrDrop();
+        }
+
+        private synchronized boolean settle() {
+            if (settled) {
+                return false;
+            }
+            settled = true;
+            return true;
+        }
+
+        private synchronized boolean isSettled() {
+            return settled;
+        }
+
+        private void interruptOrDrop() {
+            synchronized (this) {
+                if (started) {
+                    if (thread != null) {
+                        thread.interrupt();
+                    }
+                    return;
+                }
+            }
+            stop();
+        }
+
+        private void stop() {
+            synchronized (this) {
+                if (stopped) {
+                    return;
+                }
+                stopped = true;
+                if (thread != null) {
+                    thread = null;
+                    // Clear an interrupt meant for this read before the thread runs anything else
+                    Thread.interrupted();
+                }
+            }
+            if (inFlight == this) {
+                inFlight = null;
+            }
+            if (permits != null) {
+                permits.release();
+            }
+        }
+    }
+}
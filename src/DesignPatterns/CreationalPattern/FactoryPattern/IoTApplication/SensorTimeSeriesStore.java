@@ -0,0 +1,503 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32C;
+
+/**
+ * Local time-series store for sensor readings, fed from the {@link SensorPipeline}. Each sensor
+ * has a series of {@link GorillaChunk}s: the head chunk stays in memory and every full chunk is
+ * appended to memory-mapped data files, from which the index is rebuilt on open.
+ * <p>
+ * Each series indexes its chunks off-heap, 16 bytes per chunk, and queries binary-search it by time.
+ * Only the file being written and the few most recently read files stay mapped; the write file is
+ * forced at most once a second and whenever it fills up.
+ * <p>
+ * Chunk record layout: int magic, int CRC-32C, long uuid msb, long uuid lsb, int sensor type
+ * ordinal, long first timestamp, long last timestamp, int sample count, int word count, then the
+ * words. The checksum covers everything after itself. A zero int follows the last record; on open,
+ * recovery also stops at the first record that fails its field or checksum checks, e.g. one only
+ * partly on disk after a crash, and the store appends from there.
+ */
+class SensorTimeSeriesStore implements SensorReadingHandler, AutoCloseable {
+    private static final int CHUNK_MAGIC = 0x43484E4B;
+    private static final int CHECKSUM = Integer.BYTES;
+    private static final int UUID_MSB = CHECKSUM + Integer.BYTES;
+    private static final int UUID_LSB = UUID_MSB + Long.BYTES;
+    private static final int SENSOR_TYPE = UUID_LSB + Long.BYTES;
+    private static final int FIRST_TIMESTAMP = SENSOR_TYPE + Integer.BYTES;
+    private static final int LAST_TIMESTAMP = FIRST_TIMESTAMP + Long.BYTES;
+    private static final int SAMPLE_COUNT = LAST_TIMESTAMP + Long.BYTES;
+    private static final int WORD_COUNT = SAMPLE_COUNT + Integer.BYTES;
+    private static final int CHUNK_HEADER_BYTES = WORD_COUNT + Integer.BYTES;
+    // Worst case of four words per sample
+    private static final int MAX_WORDS = GorillaChunk.MAX_SAMPLES * 4;
+    private static final SensorType[] SENSOR_TYPES = SensorType.values();
+    private static final int INDEX_ENTRY_BYTES = 2 * Long.BYTES;
+    private static final int MAPPED_READ_FILES = 4;
+    private static final long FORCE_INTERVAL_NANOS = 1_000_000_000L;
+
+    /**
+     * Min, max and average of the samples in one window.
+     */
+    static final class WindowAggregate {
+        final long windowStart;
+        long count;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        double sum;
+
+        WindowAggregate(long windowStart) {
+            this.windowStart = windowStart;
+        }
+
+        void add(double value) {
+            count++;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            sum += value;
+        }
+
+        void merge(WindowAggregate other) {
+            count += other.count;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+            sum += other.sum;
+        }
+
+        public long getWindowStart() {
+            return windowStart;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMin() {
+            return min;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        public double getAverage() {
+            return sum / count;
+        }
+
+        @Override
+        public String toString() {
+            return windowStart + ": count=" + count + " min=" + min + " max=" + max + " avg=" + getAverage();
+        }
+    }
+
+    private final Path directory;
+    private final int fileSize;
+    private final ConcurrentHashMap<UUID, Series> series = new ConcurrentHashMap<>();
+
+    // Guarded by readFiles; least recently read first, unmapped by the GC once evicted
+    private final Map<Integer, MappedByteBuffer> readFiles = new LinkedHashMap<>(16, 0.75f, true);
+    private MappedByteBuffer writeFile;
+    private int writeFileIndex = -1;
+    private int writePosition;
+    private long lastForce = System.nanoTime();
+
+    // Writer-side lookup from the primitive UUID halves, so ingesting a reading allocates nothing
+    private final SensorUUIDIndex<Series> index = new SensorUUIDIndex<>();
+
+    public SensorTimeSeriesStore(Path directory, int fileSize) throws IOException {
+        if (fileSize < CHUNK_HEADER_BYTES + MAX_WORDS * Long.BYTES + Integer.BYTES) {
+            throw new IllegalArgumentException("File size too small for a chunk: " + fileSize);
+        }
+        this.directory = Files.createDirectories(directory);
+        this.fileSize = fileSize;
+        load();
+    }
+
+    @Override
+    public void onReading(SensorType sensorType, long uuidMostSigBits, long uuidLeastSigBits, long timestamp, double value) {
+        append(sensorType, uuidMostSigBits, uuidLeastSigBits, timestamp, value);
+    }
+
+    /**
+     * Appends a sample to the series of a sensor. Must only be called from one writer thread.
+     */
+    public void append(SensorType sensorType, long uuidMostSigBits, long uuidLeastSigBits, long timestamp, double value) {
+        Series target = index.get(uuidMostSigBits, uuidLeastSigBits);
+        if (target == null) {
+            UUID sensorUUID = new UUID(uuidMostSigBits, uuidLeastSigBits);
+            target = series.computeIfAbsent(sensorUUID, id -> new Series(id, sensorType));
+            index.put(uuidMostSigBits, uuidLeastSigBits, target);
+        }
+        synchronized (target) {
+            if (target.head == null) {
+                target.head = new GorillaChunk();
+            }
+            if (!target.head.append(timestamp, value)) {
+                target.addChunk(target.head.getFirstTimestamp(), target.head.getLastTimestamp(), flush(target, target.head));
+                target.head = new GorillaChunk();
+                target.head.append(timestamp, value);
+            }
+        }
+    }
+
+    /**
+     * Writes the sensor's head chunk to the data files and releases it. Its samples stay queryable.
+     */
+    @Override
+    public void onSensorRemoved(long uuidMostSigBits, long uuidLeastSigBits) {
+        Series target = index.remove(uuidMostSigBits, uuidLeastSigBits);
+        if (target != null) {
+            synchronized (target) {
+                flushHead(target);
+                target.head = null;
+            }
+        }
+    }
+
+    /**
+     * Streams every sample of a sensor with from <= timestamp < to, in time order.
+     */
+    public void query(UUID sensorUUID, long from, long to, GorillaChunk.SampleConsumer consumer) {
+        Series target = series.get(sensorUUID);
+        if (target == null) {
+            return;
+        }
+        ByteBuffer chunkIndex;
+        int chunkCount;
+        boolean ordered;
+        long[] headWords;
+        int headCount;
+        synchronized (target) {
+            // Entries below chunkCount are never rewritten, so they can be read outside the lock
+            chunkIndex = target.chunkIndex;
+            chunkCount = target.chunkCount;
+            ordered = target.ordered;
+            headWords = target.head == null ? new long[0] : target.head.getWords().clone();
+            headCount = target.head == null ? 0 : target.head.getCount();
+        }
+        GorillaChunk.SampleConsumer inRange = (timestamp, value) -> {
+            if (timestamp >= from && timestamp < to) {
+                consumer.accept(timestamp, value);
+            }
+        };
+        for (int i = firstChunkEndingAtOrAfter(chunkIndex, chunkCount, from); i < chunkCount; i++) {
+            long location = chunkIndex.getLong(i * INDEX_ENTRY_BYTES + Long.BYTES);
+            MappedByteBuffer file = readFile((int) (location >>> 32));
+            int position = (int) location;
+            long firstTimestamp = file.getLong(position + FIRST_TIMESTAMP);
+            if (firstTimestamp >= to) {
+                if (ordered) {
+                    break;
+                }
+                continue;
+            }
+            if (file.getLong(position + LAST_TIMESTAMP) >= from) {
+                GorillaChunk.decode(read(file, position), file.getInt(position + SAMPLE_COUNT), inRange);
+            }
+        }
+        GorillaChunk.decode(headWords, headCount, inRange);
+    }
+
+    /**
+     * Downsamples a sensor's samples with from <= timestamp < to into windows of the given width.
+     * @return one aggregate per non-empty window, in time order
+     */
+    public List<WindowAggregate> aggregate(UUID sensorUUID, long from, long to, long windowMillis) {
+        WindowAggregate[] windows = newWindows(from, to, windowMillis);
+        query(sensorUUID, from, to, (timestamp, value) -> windows[(int) ((timestamp - from) / windowMillis)].add(value));
+        return nonEmpty(windows);
+    }
+
+    /**
+     * Downsamples the samples of every sensor of a type into windows of the given width.
+     * @return one aggregate per non-empty window, in time order
+     */
+    public List<WindowAggregate> aggregate(SensorType sensorType, long from, long to, long windowMillis) {
+        WindowAggregate[] windows = newWindows(from, to, windowMillis);
+        for (Series candidate : series.values()) {
+            if (candidate.sensorType == sensorType) {
+                query(candidate.sensorUUID, from, to,
+                        (timestamp, value) -> windows[(int) ((timestamp - from) / windowMillis)].add(value));
+            }
+        }
+        return nonEmpty(windows);
+    }
+
+    /**
+     * Combines two aggregate lists over the same range and window width, e.g. from different stores.
+     * @return one aggregate per window that is non-empty in either list, in time order
+     */
+    static List<WindowAggregate> mergeWindows(List<WindowAggregate> first, List<WindowAggregate> second) {
+        List<WindowAggregate> merged = new ArrayList<>(first.size() + second.size());
+        int i = 0;
+        int j = 0;
+        while (i < first.size() || j < second.size()) {
+            long start = Math.min(i < first.size() ? first.get(i).windowStart : Long.MAX_VALUE,
+                    j < second.size() ? second.get(j).windowStart : Long.MAX_VALUE);
+            WindowAggregate window = new WindowAggregate(start);
+            if (i < first.size() && first.get(i).windowStart == start) {
+                window.merge(first.get(i++));
+            }
+            if (j < second.size() && second.get(j).windowStart == start) {
+                window.merge(second.get(j++));
+            }
+            merged.add(window);
+        }
+        return merged;
+    }
+
+    public Collection<UUID> getSensorUUIDs() {
+        return series.keySet();
+    }
+
+    /**
+     * Writes every partially filled head chunk to the data files and forces the write file to disk.
+     * Must be called from the writer thread once it has stopped appending.
+     */
+    @Override
+    public void close() {
+        for (Series target : series.values()) {
+            synchronized (target) {
+                flushHead(target);
+            }
+        }
+        if (writeFile != null) {
+            writeFile.force();
+        }
+    }
+
+    private void flushHead(Series target) {
+        if (target.head != null && target.head.getCount() > 0) {
+            target.addChunk(target.head.getFirstTimestamp(), target.head.getLastTimestamp(), flush(target, target.head));
+            target.head = new GorillaChunk();
+        }
+    }
+
+    // Entries are keyed by the latest last timestamp up to and including each chunk, which never decreases
+    private static int firstChunkEndingAtOrAfter(ByteBuffer chunkIndex, int chunkCount, long from) {
+        int low = 0;
+        int high = chunkCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (chunkIndex.getLong(mid * INDEX_ENTRY_BYTES) < from) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static WindowAggregate[] newWindows(long from, long to, long windowMillis) {
+        if (windowMillis <= 0 || to <= from) {
+            throw new IllegalArgumentException("Invalid window or range");
+        }
+        WindowAggregate[] windows = new WindowAggregate[(int) ((to - from + windowMillis - 1) / windowMillis)];
+        for (int i = 0; i < windows.length; i++) {
+            windows[i] = new WindowAggregate(from + i * windowMillis);
+        }
+        return windows;
+    }
+
+    private static List<WindowAggregate> nonEmpty(WindowAggregate[] windows) {
+        List<WindowAggregate> result = new ArrayList<>();
+        for (WindowAggregate window : windows) {
+            if (window.count > 0) {
+                result.add(window);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the location of the chunk record, the file index in the high half and the position in the low half
+     */
+    private long flush(Series owner, GorillaChunk chunk) {
+        int wordCount = (chunk.getBitLength() + 63) >>> 6;
+        int recordSize = CHUNK_HEADER_BYTES + wordCount * Long.BYTES;
+        // Leave room for the zero end marker after the record
+        if (writeFile == null || writePosition + recordSize + Integer.BYTES > fileSize) {
+            if (writeFile != null) {
+                writeFile.force();
+            }
+            MappedByteBuffer next = map(writeFileIndex + 1);
+            synchronized (readFiles) {
+                writeFile = next;
+                writeFileIndex++;
+            }
+            writePosition = 0;
+            lastForce = System.nanoTime();
+        }
+        MappedByteBuffer file = writeFile;
+        int position = writePosition;
+        file.putLong(position + UUID_MSB, owner.sensorUUID.getMostSignificantBits());
+        file.putLong(position + UUID_LSB, owner.sensorUUID.getLeastSignificantBits());
+        file.putInt(position + SENSOR_TYPE, owner.sensorType.ordinal());
+        file.putLong(position + FIRST_TIMESTAMP, chunk.getFirstTimestamp());
+        file.putLong(position + LAST_TIMESTAMP, chunk.getLastTimestamp());
+        file.putInt(position + SAMPLE_COUNT, chunk.getCount());
+        file.putInt(position + WORD_COUNT, wordCount);
+        long[] words = chunk.getWords();
+        for (int i = 0; i < wordCount; i++) {
+            file.putLong(position + CHUNK_HEADER_BYTES + i * Long.BYTES, words[i]);
+        }
+        // Recovery may have left a stale record after the end of the log
+        file.putInt(position + recordSize, 0);
+        file.putInt(position + CHECKSUM, checksum(file, position, recordSize));
+        file.putInt(position, CHUNK_MAGIC);
+        writePosition += recordSize;
+        long now = System.nanoTime();
+        if (now - lastForce >= FORCE_INTERVAL_NANOS) {
+            file.force();
+            lastForce = now;
+        }
+        return (long) writeFileIndex << 32 | position;
+    }
+
+    private static long[] read(MappedByteBuffer file, int position) {
+        long[] words = new long[file.getInt(position + WORD_COUNT)];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = file.getLong(position + CHUNK_HEADER_BYTES + i * Long.BYTES);
+        }
+        return words;
+    }
+
+    private MappedByteBuffer readFile(int fileIndex) {
+        synchronized (readFiles) {
+            if (fileIndex == writeFileIndex) {
+                return writeFile;
+            }
+            MappedByteBuffer file = readFiles.get(fileIndex);
+            if (file == null) {
+                file = map(fileIndex);
+                readFiles.put(fileIndex, file);
+                if (readFiles.size() > MAPPED_READ_FILES) {
+                    readFiles.remove(readFiles.keySet().iterator().next());
+                }
+            }
+            return file;
+        }
+    }
+
+    private void load() throws IOException {
+        for (int fileIndex = 0; Files.exists(filePath(fileIndex)); fileIndex++) {
+            MappedByteBuffer file = map(fileIndex);
+            int position = 0;
+            int recordSize;
+            while ((recordSize = validRecordSize(file, position)) > 0) {
+                UUID sensorUUID = new UUID(file.getLong(position + UUID_MSB), file.getLong(position + UUID_LSB));
+                SensorType sensorType = SENSOR_TYPES[file.getInt(position + SENSOR_TYPE)];
+                Series owner = series.computeIfAbsent(sensorUUID, id -> new Series(id, sensorType));
+                if (owner.chunkCount == 0) {
+                    index.put(sensorUUID.getMostSignificantBits(), sensorUUID.getLeastSignificantBits(), owner);
+                }
+                owner.addChunk(file.getLong(position + FIRST_TIMESTAMP), file.getLong(position + LAST_TIMESTAMP),
+                        (long) fileIndex << 32 | position);
+                position += recordSize;
+            }
+            // Earlier files are only mapped again when a query reads them
+            writeFile = file;
+            writeFileIndex = fileIndex;
+            writePosition = position;
+            if (file.getInt(position) != 0) {
+                // Nothing after a bad record can be trusted; later files would be reused as the log grows
+                int later = fileIndex + 1;
+                while (Files.deleteIfExists(filePath(later))) {
+                    later++;
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the size of the record at the position, or 0 at the end of the log or a bad record
+     */
+    private int validRecordSize(MappedByteBuffer file, int position) {
+        if (position + CHUNK_HEADER_BYTES + Integer.BYTES > fileSize || file.getInt(position) != CHUNK_MAGIC) {
+            return 0;
+        }
+        int sensorType = file.getInt(position + SENSOR_TYPE);
+        int sampleCount = file.getInt(position + SAMPLE_COUNT);
+        int wordCount = file.getInt(position + WORD_COUNT);
+        if (sensorType < 0 || sensorType >= SENSOR_TYPES.length
+                || sampleCount <= 0 || sampleCount > GorillaChunk.MAX_SAMPLES
+                || wordCount <= 0 || wordCount > MAX_WORDS) {
+            return 0;
+        }
+        int recordSize = CHUNK_HEADER_BYTES + wordCount * Long.BYTES;
+        if (position + recordSize + Integer.BYTES > fileSize
+                || file.getInt(position + CHECKSUM) != checksum(file, position, recordSize)) {
+            return 0;
+        }
+        return recordSize;
+    }
+
+    private static int checksum(MappedByteBuffer file, int position, int recordSize) {
+        CRC32C crc = new CRC32C();
+        crc.update(file.slice(position + UUID_MSB, recordSize - UUID_MSB));
+        return (int) crc.getValue();
+    }
+
+    private MappedByteBuffer map(int fileIndex) {
+        try (FileChannel channel = FileChannel.open(filePath(fileIndex),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path filePath(int fileIndex) {
+        return directory.resolve(String.format("chunks-%06d.dat", fileIndex));
+    }
+
+    private static final class Series {
+        final UUID sensorUUID;
+        final SensorType sensorType;
+        // Null once the sensor is removed, until it appends again
+        GorillaChunk head = new GorillaChunk();
+
+        // Off-heap entries of the running max last timestamp and the chunk location, guarded by this
+        ByteBuffer chunkIndex = ByteBuffer.allocateDirect(4 * INDEX_ENTRY_BYTES);
+        int chunkCount;
+        long maxLastTimestamp = Long.MIN_VALUE;
+        // Whether every chunk starts after the previous one ends, so a query can stop at the first later chunk
+        boolean ordered = true;
+
+        Series(UUID sensorUUID, SensorType sensorType) {
+            this.sensorUUID = sensorUUID;
+            this.sensorType = sensorType;
+        }
+
+        void addChunk(long firstTimestamp, long lastTimestamp, long location) {
+            if (chunkCount * INDEX_ENTRY_BYTES == chunkIndex.capacity()) {
+                // Readers may still hold the old buffer; its entries stay valid
+                ByteBuffer grown = ByteBuffer.allocateDirect(chunkIndex.capacity() * 2);
+                grown.put(chunkIndex.duplicate().clear());
+                chunkIndex = grown;
+            }
+            if (firstTimestamp < maxLastTimestamp) {
+                ordered = false;
+            }
+            maxLastTimestamp = Math.max(maxLastTimestamp, lastTimestamp);
+            chunkIndex.putLong(chunkCount * INDEX_ENTRY_BYTES, maxLastTimestamp);
+            chunkIndex.putLong(chunkCount * INDEX_ENTRY_BYTES + Long.BYTES, location);
+            chunkCount++;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+/**
+ * Open-addressed map keyed by the two halves of a sensor UUID, so the pipeline consumer can find
+ * per-sensor state from a drained reading without allocating a {@link java.util.UUID}. Not thread-safe.
+ */
+final class SensorUUIDIndex<V> {
+    private long[] mostSigBits = new long[1024];
+    private long[] leastSigBits = new long[1024];
+    private Object[] values = new Object[1024];
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public V get(long uuidMostSigBits, long uuidLeastSigBits) {
+        int mask = values.length - 1;
+        for (int slot = hash(uuidMostSigBits, uuidLeastSigBits) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+            if (mostSigBits[slot] == uuidMostSigBits && leastSigBits[slot] == uuidLeastSigBits) {
+                return (V) values[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds a value for a UUID that is not in the index yet.
+     */
+    public void put(long uuidMostSigBits, long uuidLeastSigBits, V value) {
+        if ((size + 1) * 2 > values.length) {
+            resize();
+        }
+        insert(uuidMostSigBits, uuidLeastSigBits, value);
+        size++;
+    }
+
+    /**
+     * Removes the value of a UUID.
+     * @return the removed value, or null if the UUID was not in the index
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long uuidMostSigBits, long uuidLeastSigBits) {
+        int mask = values.length - 1;
+        for (int slot = hash(uuidMostSigBits, uuidLeastSigBits) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+            if (mostSigBits[slot] == uuidMostSigBits && leastSigBits[slot] == uuidLeastSigBits) {
+                V removed = (V) values[slot];
+                closeGap(slot);
+                size--;
+                return removed;
+            }
+        }
+        return null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Shifts later entries of the probe run back into the gap, so lookups never stop early at it
+    private void closeGap(int gap) {
+        int mask = values.length - 1;
+        for (int slot = (gap + 1) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+            int home = hash(mostSigBits[slot], leastSigBits[slot]) & mask;
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                mostSigBits[gap] = mostSigBits[slot];
+                leastSigBits[gap] = leastSigBits[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        values[gap] = null;
+    }
+
+    private void insert(long uuidMostSigBits, long uuidLeastSigBits, Object value) {
+        int mask = values.length - 1;
+        int slot = hash(uuidMostSigBits, uuidLeastSigBits) & mask;
+        while (values[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        mostSigBits[slot] = uuidMostSigBits;
+        leastSigBits[slot] = uuidLeastSigBits;
+        values[slot] = value;
+    }
+
+    private void resize() {
+        long[] oldMostSigBits = mostSigBits;
+        long[] oldLeastSigBits = leastSigBits;
+        Object[] oldValues = values;
+        mostSigBits = new long[oldValues.length * 2];
+        leastSigBits = new long[oldValues.length * 2];
+        values = new Object[oldValues.length * 2];
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                insert(oldMostSigBits[i], oldLeastSigBits[i], oldValues[i]);
+            }
+        }
+    }
+
+    private static int hash(long uuidMostSigBits, long uuidLeastSigBits) {
+        long hash = (uuidMostSigBits ^ uuidLeastSigBits) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
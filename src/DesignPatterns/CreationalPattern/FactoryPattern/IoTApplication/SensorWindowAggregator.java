@@ -0,0 +1,288 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Streaming stage over drained sensor readings. Keeps event-time windows per sensor and per
+ * {@link SensorType} as rings of {@link LogHistogram} panes, one pane per slide, so a reading is
+ * added in O(1) without buffering the raw window; a window is merged from its panes only when it
+ * closes. Every reading is also checked against the {@link AlertRule}s of its type, and an alert is
+ * raised when a sensor starts matching a rule.
+ * <p>
+ * All readings must come from one thread, e.g. the {@link SensorPipeline} consumer; listeners are
+ * called on that thread.
+ */
+class SensorWindowAggregator implements SensorReadingHandler {
+    static final int MAX_RULES = Long.SIZE;
+
+    /**
+     * Receives every closed window that holds at least one reading.
+     */
+    interface WindowListener {
+        void onWindow(WindowResult result);
+    }
+
+    /**
+     * Summary of the readings in one closed window.
+     */
+    static final class WindowResult {
+        private final UUID sensorUUID;
+        private final SensorType sensorType;
+        private final long windowStart;
+        private final long windowEnd;
+        private final LogHistogram histogram;
+
+        WindowResult(UUID sensorUUID, SensorType sensorType, long windowStart, long windowEnd, LogHistogram histogram) {
+            this.sensorUUID = sensorUUID;
+            this.sensorType = sensorType;
+            this.windowStart = windowStart;
+            this.windowEnd = windowEnd;
+            this.histogram = histogram;
+        }
+
+        /**
+         * @return the sensor the window belongs to, or null for a window over a whole sensor type
+         */
+        public UUID getSensorUUID() {
+            return sensorUUID;
+        }
+
+        public SensorType getSensorType() {
+            return sensorType;
+        }
+
+        public long getWindowStart() {
+            return windowStart;
+        }
+
+        public long getWindowEnd() {
+            return windowEnd;
+        }
+
+        public long getCount() {
+            return histogram.getCount();
+        }
+
+        public double getMin() {
+            return histogram.getMin();
+        }
+
+        public double getMax() {
+            return histogram.getMax();
+        }
+
+        public double getMean() {
+            return histogram.getMean();
+        }
+
+        public double getQuantile(double quantile) {
+            return histogram.getQuantile(quantile);
+        }
+
+        @Override
+        public String toString() {
+            return (sensorUUID == null ? sensorType.toString() : sensorType + " " + sensorUUID)
+                    + " [" + windowStart + ", " + windowEnd + "): count=" + getCount()
+                    + String.format(" min=%.2f mean=%.2f p50=%.2f p99=%.2f max=%.2f",
+                    getMin(), getMean(), getQuantile(0.5), getQuantile(0.99), getMax());
+        }
+    }
+
+    private final long windowMillis;
+    private final long slideMillis;
+    private final int panesPerWindow;
+    private final SensorUUIDIndex<SensorState> sensors = new SensorUUIDIndex<>();
+    private final Window[] typeWindows;
+    private final List<WindowListener> windowListeners = new CopyOnWriteArrayList<>();
+    private final List<AlertListener> alertListeners = new CopyOnWriteArrayList<>();
+    private final LongAdder lateReadings = new LongAdder();
+    private volatile AlertRule[] rules = new AlertRule[0];
+
+    /**
+     * @param windowMillis the width of each window
+     * @param slideMillis how far consecutive windows are apart; must divide the window width
+     */
+    public SensorWindowAggregator(long windowMillis, long slideMillis) {
+        if (slideMillis <= 0 || windowMillis < slideMillis || windowMillis % slideMillis != 0) {
+            throw new IllegalArgumentException("Window must be a positive multiple of the slide: "
+                    + windowMillis + "/" + slideMillis);
+        }
+        this.windowMillis = windowMillis;
+        this.slideMillis = slideMillis;
+        this.panesPerWindow = (int) (windowMillis / slideMillis);
+        SensorType[] sensorTypes = SensorType.values();
+        this.typeWindows = new Window[sensorTypes.length];
+        for (SensorType sensorType : sensorTypes) {
+            typeWindows[sensorType.ordinal()] = new Window(null, sensorType);
+        }
+    }
+
+    public static SensorWindowAggregator tumbling(long windowMillis) {
+        return new SensorWindowAggregator(windowMillis, windowMillis);
+    }
+
+    public static SensorWindowAggregator sliding(long windowMillis, long slideMillis) {
+        return new SensorWindowAggregator(windowMillis, slideMillis);
+    }
+
+    public synchronized void addRule(AlertRule rule) {
+        if (rule == null) {
+            throw new IllegalArgumentException("Rule cannot be null");
+        }
+        if (rules.length == MAX_RULES) {
+            throw new IllegalStateException("At most " + MAX_RULES + " rules are supported");
+        }
+        AlertRule[] updated = Arrays.copyOf(rules, rules.length + 1);
+        updated[rules.length] = rule;
+        rules = updated;
+    }
+
+    public void addWindowListener(WindowListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        windowListeners.add(listener);
+    }
+
+    public void addAlertListener(AlertListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        alertListeners.add(listener);
+    }
+
+    @Override
+    public void onReading(SensorType sensorType, long uuidMostSigBits, long uuidLeastSigBits, long timestamp, double value) {
+        SensorState sensor = sensors.get(uuidMostSigBits, uuidLeastSigBits);
+        if (sensor == null) {
+            sensor = new SensorState(new UUID(uuidMostSigBits, uuidLeastSigBits), sensorType);
+            sensors.put(uuidMostSigBits, uuidLeastSigBits, sensor);
+        }
+        sensor.window.add(timestamp, value);
+        typeWindows[sensorType.ordinal()].add(timestamp, value);
+        evaluateRules(sensor, sensorType, timestamp, value);
+    }
+
+    /**
+     * Drops the sensor's window and alert state; its open window is not reported.
+     */
+    @Override
+    public void onSensorRemoved(long uuidMostSigBits, long uuidLeastSigBits) {
+        sensors.remove(uuidMostSigBits, uuidLeastSigBits);
+    }
+
+    /**
+     * @return how often a reading was left out of a sensor or type window because that window had already closed
+     */
+    public long getLateReadingCount() {
+        return lateReadings.sum();
+    }
+
+    private void evaluateRules(SensorState sensor, SensorType sensorType, long timestamp, double value) {
+        double changePerSecond = sensor.lastTimestamp == Long.MIN_VALUE
+                ? Double.NaN
+                : (value - sensor.lastValue) * 1000 / Math.max(1, timestamp - sensor.lastTimestamp);
+        AlertRule[] current = rules;
+        for (int i = 0; i < current.length; i++) {
+            AlertRule rule = current[i];
+            if (rule.getSensorType() != sensorType) {
+                continue;
+            }
+            long bit = 1L << i;
+            if (!rule.matches(value, changePerSecond)) {
+                sensor.matchingRules &= ~bit;
+            } else if ((sensor.matchingRules & bit) == 0) {
+                // Alert on the transition only, not on every reading while the rule keeps matching
+                sensor.matchingRules |= bit;
+                AlertEvent event = new AlertEvent(rule, sensor.sensorUUID, timestamp, value);
+                for (AlertListener listener : alertListeners) {
+                    listener.onAlert(event);
+                }
+            }
+        }
+        sensor.lastTimestamp = timestamp;
+        sensor.lastValue = value;
+    }
+
+    private final class SensorState {
+        final UUID sensorUUID;
+        final Window window;
+        long lastTimestamp = Long.MIN_VALUE;
+        double lastValue;
+        long matchingRules;
+
+        SensorState(UUID sensorUUID, SensorType sensorType) {
+            this.sensorUUID = sensorUUID;
+            this.window = new Window(sensorUUID, sensorType);
+        }
+    }
+
+    /**
+     * Ring of one histogram per slide-sized pane; the window ending with the current pane is the
+     * merge of the last {@code panesPerWindow} panes.
+     */
+    private final class Window {
+        final UUID sensorUUID;
+        final SensorType sensorType;
+        final LogHistogram[] panes = new LogHistogram[panesPerWindow];
+        long currentPane = Long.MIN_VALUE;
+
+        Window(UUID sensorUUID, SensorType sensorType) {
+            this.sensorUUID = sensorUUID;
+            this.sensorType = sensorType;
+            for (int i = 0; i < panes.length; i++) {
+                panes[i] = new LogHistogram();
+            }
+        }
+
+        void add(long timestamp, double value) {
+            long pane = Math.floorDiv(timestamp, slideMillis);
+            if (currentPane == Long.MIN_VALUE) {
+                currentPane = pane;
+            } else if (pane > currentPane) {
+                advance(pane);
+            } else if (pane <= currentPane - panes.length) {
+                lateReadings.increment();
+                return;
+            }
+            panes[slot(pane)].add(value);
+        }
+
+        private void advance(long pane) {
+            // Close every window ending before the new pane; after a full ring all panes are empty
+            long closeUntil = Math.min(pane, currentPane + panes.length);
+            while (currentPane < closeUntil) {
+                close(currentPane);
+                currentPane++;
+                panes[slot(currentPane)].reset();
+            }
+            currentPane = pane;
+        }
+
+        private void close(long lastPane) {
+            if (windowListeners.isEmpty()) {
+                return;
+            }
+            LogHistogram merged = new LogHistogram();
+            for (int i = 0; i < panes.length; i++) {
+                merged.merge(panes[slot(lastPane - i)]);
+            }
+            if (merged.getCount() == 0) {
+                return;
+            }
+            long windowEnd = (lastPane + 1) * slideMillis;
+            WindowResult result = new WindowResult(sensorUUID, sensorType, windowEnd - windowMillis, windowEnd, merged);
+            for (WindowListener listener : windowListeners) {
+                listener.onWindow(result);
+            }
+        }
+
+        private int slot(long pane) {
+            return (int) Math.floorMod(pane, (long) panes.length);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * {@link SensorSystem} partitioned into shards by a consistent hash of the sensor UUID. Each shard
+ * has its own single-threaded {@link SensorScheduler}, its own {@link SensorPipeline} and a reading
+ * handler that only the shard's consumer thread writes to, so shards share no mutable state on
+ * the read path. Adding a shard moves only the sensors that now hash to it.
+ * <p>
+ * Sensors are pinned to their shard's pipeline when they are {@link AbstractSensor}s; other
+ * sensors publish wherever their read() sends them.
+ */
+class ShardedSensorSystem<H extends SensorReadingHandler> {
+    private final IntFunction<H> handlerFactory;
+    // Sensor operations share the read lock; adding a shard takes the write lock while it rebalances
+    private final ReadWriteLock topology = new ReentrantReadWriteLock();
+    private volatile List<Shard<H>> shards = Collections.emptyList();
+    private volatile AdaptiveSamplingPolicy samplingPolicy;
+
+    /**
+     * @param shardCount the initial number of shards, e.g. one per core
+     * @param handlerFactory creates the reading handler of the shard with the given index
+     */
+    public ShardedSensorSystem(int shardCount, IntFunction<H> handlerFactory) {
+        if (shardCount <= 0 || handlerFactory == null) {
+            throw new IllegalArgumentException("Shard count must be positive and handler factory non-null");
+        }
+        this.handlerFactory = handlerFactory;
+        List<Shard<H>> initial = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            initial.add(newShard(i));
+        }
+        this.shards = Collections.unmodifiableList(initial);
+    }
+
+    public void addSensor(Sensor sensor, int interval) {
+        topology.readLock().lock();
+        try {
+            Shard<H> shard = shardFor(sensor.getSensorUUID());
+            shard.attach(sensor);
+            shard.system.addSensor(sensor, interval);
+        } finally {
+            topology.readLock().unlock();
+        }
+    }
+
+    public void startAllSensors() {
+        topology.readLock().lock();
+        try {
+            for (Shard<H> shard : shards) {
+                shard.system.startAllSensors();
+            }
+        } finally {
+            topology.readLock().unlock();
+        }
+    }
+
+    public void runSensor(Sensor sensor, int interval) {
+        topology.readLock().lock();
+        try {
+            Shard<H> shard = shardFor(sensor.getSensorUUID());
+            shard.attach(sensor);
+            shard.system.runSensor(sensor, interval);
+        } finally {
+            topology.readLock().unlock();
+        }
+    }
+
+    public void removeSensor(Sensor sensor) {
+        topology.readLock().lock();
+        try {
+            shardFor(sensor.getSensorUUID()).system.removeSensor(sensor);
+        } finally {
+            topology.readLock().unlock();
+        }
+    }
+
+    public void updateSensor(Sensor sensor, int interval) {
+        topology.readLock().lock();
+        try {
+            shardFor(sensor.getSensorUUID()).system.updateSensor(sensor, interval);
+        } finally {
+            topology.readLock().unlock();
+        }
+    }
+
+    public void setAdaptiveSampling(AdaptiveSamplingPolicy policy) {
+        topology.readLock().lock();
+        try {
+            samplingPolicy = policy;
+            for (Shard<H> shard : shards) {
+                shard.system.setAdaptiveSampling(policy);
+            }
+        } finally {
+            topology.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a shard and moves the sensors that hash to it, keeping their intervals and running state.
+     * Readings already published to a sensor's old shard are still drained by that shard's handler,
+     * which is then told the sensor was removed.
+     * @return the number of sensors moved
+     */
+    public int addShard() {
+        topology.writeLock().lock();
+        try {
+            int index = shards.size();
+            Shard<H> added = newShard(index);
+            int moved = 0;
+            for (Shard<H> shard : shards) {
+                for (SensorRegistration registration : new ArrayList<>(shard.system.getRegistry().registrations())) {
+                    Sensor sensor = registration.getSensor();
+                    if (shardIndex(sensor.getSensorUUID(), index + 1) != index) {
+                        continue;
+                    }
+                    shard.system.getRegistry().remove(sensor.getSensorUUID());
+                    shard.system.getMetrics().remove(sensor.getSensorUUID());
+                    shard.pipeline.removeSensor(sensor.getSensorUUID());
+                    added.attach(sensor);
+                    if (registration.isScheduled()) {
+                        added.system.runSensor(sensor, registration.getInterval());
+                    } else {
+                        added.system.addSensor(sensor, registration.getInterval());
+                    }
+                    moved++;
+                }
+            }
+            List<Shard<H>> grown = new ArrayList<>(shards);
+            grown.add(added);
+            shards = Collections.unmodifiableList(grown);
+            return moved;
+        } finally {
+            topology.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a query against every shard's handler and combines the results. The query runs on the
+     * calling thread, so it must be safe alongside the shard's consumer thread, as the query
+     * methods of {@link SensorTimeSeriesStore} are.
+     */
+    public <R> R aggregate(Function<? super H, R> query, BinaryOperator<R> combine) {
+        R result = null;
+        for (Shard<H> shard : shards) {
+            R shardResult = query.apply(shard.handler);
+            result = result == null ? shardResult : combine.apply(result, shardResult);
+        }
+        return result;
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    public int shardOf(UUID sensorUUID) {
+        return shardIndex(sensorUUID, shards.size());
+    }
+
+    public H getHandler(int shard) {
+        return shards.get(shard).handler;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Shard<H> shard : shards) {
+            size += shard.system.getRegistry().size();
+        }
+        return size;
+    }
+
+    public void shutdown() {
+        for (Shard<H> shard : shards) {
+            shard.system.shutdown();
+            shard.pipeline.stop();
+        }
+    }
+
+    private Shard<H> shardFor(UUID sensorUUID) {
+        List<Shard<H>> current = shards;
+        return current.get(shardIndex(sensorUUID, current.size()));
+    }
+
+    private Shard<H> newShard(int index) {
+        SensorPipeline pipeline = new SensorPipeline(SensorPipeline.DEFAULT_CAPACITY, SensorPipeline.DEFAULT_BATCH_SIZE);
+        H handler = handlerFactory.apply(index);
+        pipeline.start(handler, "sensor-pipeline-" + index);
+        SensorSystem system = new SensorSystem(SensorScheduler.pooled(1));
+        system.setAdaptiveSampling(samplingPolicy);
+        return new Shard<>(system, pipeline, handler);
+    }
+
+    /**
+     * Jump consistent hash (Lamping and Veach): growing from n to n + 1 buckets moves only the
+     * keys that land in the new bucket, about 1 / (n + 1) of them.
+     */
+    static int shardIndex(UUID sensorUUID, int shardCount) {
+        long key = sensorUUID.getMostSignificantBits() ^ sensorUUID.getLeastSignificantBits();
+        long bucket = -1;
+        long next = 0;
+        while (next < shardCount) {
+            bucket = next;
+            key = key * 2862933555777941757L + 1;
+            next = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) bucket;
+    }
+
+    private static final class Shard<H extends SensorReadingHandler> {
+        final SensorSystem system;
+        final SensorPipeline pipeline;
+        final H handler;
+
+        Shard(SensorSystem system, SensorPipeline pipeline, H handler) {
+            this.system = system;
+            this.pipeline = pipeline;
+            this.handler = handler;
+        }
+
+        void attach(Sensor sensor) {
+            if (sensor instanceof AbstractSensor) {
+                ((AbstractSensor) sensor).setPipeline(pipeline);
+            }
+        }
+    }
+}
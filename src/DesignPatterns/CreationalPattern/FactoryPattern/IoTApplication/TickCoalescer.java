@@ -0,0 +1,206 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timing wheel that coalesces sensor ticks. Intervals are rounded up to a multiple of the slot
+ * width and sensors with the same rounded interval share a {@link Bucket}; a bucket splits its
+ * period into slots and each sensor is placed in the least loaded one, so load is spread evenly
+ * over the period. The wheel wakes once per slot width and reads every sensor of the current slot
+ * of each bucket as one batch, ordered by {@link SensorType}. All slots sit on one grid, so
+ * harmonic intervals such as 3000 and 6000 ms fire on shared wakeups.
+ * <p>
+ * Instead of one timer wakeup per sensor tick there is one per slot width plus one batch per
+ * non-empty slot; the {@link LoadGovernor} records the lag but does not stretch coalesced intervals.
+ */
+final class TickCoalescer {
+    private static final SensorTask[] NO_TASKS = new SensorTask[0];
+
+    private final long slotMillis;
+    private final ScheduledExecutorService timer;
+    private final Map<Long, Bucket> buckets = new ConcurrentHashMap<>();
+    private long startNanos;
+    private long tick;
+    private ScheduledFuture<?> wheel;
+
+    TickCoalescer(ScheduledExecutorService timer, long slotMillis) {
+        if (slotMillis <= 0) {
+            throw new IllegalArgumentException("Slot width must be positive: " + slotMillis);
+        }
+        this.timer = timer;
+        this.slotMillis = slotMillis;
+    }
+
+    synchronized void add(SensorTask task) {
+        if (wheel == null) {
+            startNanos = System.nanoTime();
+            wheel = timer.scheduleAtFixedRate(this::advance, 0, slotMillis, TimeUnit.MILLISECONDS);
+        }
+        long interval = bucketInterval(task.getInterval());
+        buckets.computeIfAbsent(interval, Bucket::new).add(task);
+    }
+
+    synchronized void remove(SensorTask task) {
+        Bucket bucket = task.bucket;
+        if (bucket != null && bucket.remove(task) && bucket.size == 0) {
+            buckets.remove(bucket.interval, bucket);
+        }
+    }
+
+    public int getBucketCount() {
+        return buckets.size();
+    }
+
+    public long getSlotMillis() {
+        return slotMillis;
+    }
+
+    private long bucketInterval(long interval) {
+        return Math.max(1, (interval + slotMillis - 1) / slotMillis) * slotMillis;
+    }
+
+    // Takes the lock so batches see slot arrays published by add and remove
+    private synchronized void advance() {
+        long current = tick++;
+        long plannedNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(current * slotMillis);
+        for (Bucket bucket : buckets.values()) {
+            SensorTask[] batch = bucket.slots[(int) (current % bucket.slots.length)];
+            if (batch.length > 0) {
+                timer.execute(() -> runBatch(bucket, batch, plannedNanos));
+            }
+        }
+    }
+
+    private void runBatch(Bucket bucket, SensorTask[] batch, long plannedNanos) {
+        for (SensorTask task : batch) {
+            if (task.isCancelled()) {
+                continue;
+            }
+            task.tick(plannedNanos);
+            if (bucketInterval(task.getInterval()) != bucket.interval) {
+                // Moved by setInterval or the sampling policy; takes effect from its next tick
+                move(task);
+            }
+        }
+    }
+
+    private synchronized void move(SensorTask task) {
+        if (task.isCancelled() || task.bucket == null) {
+            return;
+        }
+        remove(task);
+        add(task);
+    }
+
+    /**
+     * Sensors sharing one rounded interval, as copy-on-write arrays per slot sorted by sensor type;
+     * mutated under the coalescer lock, read by batches without locking. Slots are also kept in a
+     * min-heap by load, so placing a sensor costs O(log slots) instead of a scan of every slot.
+     */
+    final class Bucket {
+        final long interval;
+        final SensorTask[][] slots;
+        int size;
+
+        // Slot indices ordered by load, and the heap position of each slot
+        private final int[] heap;
+        private final int[] heapPosition;
+
+        Bucket(long interval) {
+            this.interval = interval;
+            this.slots = new SensorTask[(int) (interval / slotMillis)][];
+            this.heap = new int[slots.length];
+            this.heapPosition = new int[slots.length];
+            for (int i = 0; i < slots.length; i++) {
+                slots[i] = NO_TASKS;
+                heap[i] = i;
+                heapPosition[i] = i;
+            }
+        }
+
+        void add(SensorTask task) {
+            // Prefer the sensor's own phase so buckets do not all fill slot 0 first
+            int slot = (int) (SensorSystem.phase(task.getSensor(), slots.length));
+            if (slots[slot].length > slots[heap[0]].length) {
+                slot = heap[0];
+            }
+            SensorTask[] members = slots[slot];
+            int ordinal = task.getSensor().getSensorType().ordinal();
+            int at = members.length;
+            while (at > 0 && members[at - 1].getSensor().getSensorType().ordinal() > ordinal) {
+                at--;
+            }
+            SensorTask[] updated = new SensorTask[members.length + 1];
+            System.arraycopy(members, 0, updated, 0, at);
+            updated[at] = task;
+            System.arraycopy(members, at, updated, at + 1, members.length - at);
+            slots[slot] = updated;
+            siftDown(heapPosition[slot]);
+            task.bucket = this;
+            task.slot = slot;
+            size++;
+        }
+
+        boolean remove(SensorTask task) {
+            SensorTask[] members = slots[task.slot];
+            for (int i = 0; i < members.length; i++) {
+                if (members[i] == task) {
+                    SensorTask[] updated = members.length == 1 ? NO_TASKS : new SensorTask[members.length - 1];
+                    System.arraycopy(members, 0, updated, 0, i);
+                    System.arraycopy(members, i + 1, updated, i, members.length - i - 1);
+                    slots[task.slot] = updated;
+                    siftUp(heapPosition[task.slot]);
+                    task.bucket = null;
+                    size--;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void siftUp(int position) {
+            while (position > 0) {
+                int parent = (position - 1) >>> 1;
+                if (load(parent) <= load(position)) {
+                    return;
+                }
+                swap(parent, position);
+                position = parent;
+            }
+        }
+
+        private void siftDown(int position) {
+            while (true) {
+                int smallest = position;
+                int left = 2 * position + 1;
+                if (left < heap.length && load(left) < load(smallest)) {
+                    smallest = left;
+                }
+                if (left + 1 < heap.length && load(left + 1) < load(smallest)) {
+                    smallest = left + 1;
+                }
+                if (smallest == position) {
+                    return;
+                }
+                swap(position, smallest);
+                position = smallest;
+            }
+        }
+
+        private int load(int position) {
+            return slots[heap[position]].length;
+        }
+
+        private void swap(int a, int b) {
+            int slot = heap[a];
+            heap[a] = heap[b];
+            heap[b] = slot;
+            heapPosition[heap[a]] = a;
+            heapPosition[heap[b]] = b;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.Metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent histogram of durations in nanoseconds with HdrHistogram-style log-linear buckets:
+ * values below 32 have a bucket each, and every power of two above is split into 16 buckets, so
+ * a recorded value is reported within 1/16 of its true value. Recording is a couple of bit
+ * operations and a few uncontended atomic updates, cheap enough to leave on in production. Each power of two
+ * gets its counts on first use, so a histogram whose values span a few powers stays small.
+ */
+public final class LatencyHistogram {
+    private static final int LINEAR_BUCKETS = 32;
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_BITS = 5;
+    // Values from 2^MAX_EXPONENT nanoseconds on (about 18 minutes) land in the last bucket
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = LINEAR_BUCKETS + (MAX_EXPONENT - LINEAR_BITS) * SUB_BUCKETS;
+    private static final int CHUNKS = 1 + MAX_EXPONENT - LINEAR_BITS;
+
+    // Chunk 0 holds the linear buckets, chunk i > 0 the sub-buckets of exponent LINEAR_BITS + i - 1
+    private final AtomicReferenceArray<AtomicLongArray> counts = new AtomicReferenceArray<>(CHUNKS);
+    // Striped, so threads recording at once do not contend on one cache line
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records a duration; negative values are recorded as zero.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        int bucket = bucket(value);
+        chunk(bucket).incrementAndGet(offset(bucket));
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += countAt(i);
+        }
+        return count;
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) sum.sum() / count;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the highest value in the bucket holding the percentile, or 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = countAt(i);
+            count += snapshot[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestValue(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + getCount() + " mean=" + Math.round(getMean()) + " p50=" + getValueAtPercentile(50)
+                + " p99=" + getValueAtPercentile(99) + " p99.9=" + getValueAtPercentile(99.9) + " max=" + getMax();
+    }
+
+    private AtomicLongArray chunk(int bucket) {
+        int index = chunkIndex(bucket);
+        AtomicLongArray chunk = counts.get(index);
+        if (chunk == null) {
+            chunk = new AtomicLongArray(index == 0 ? LINEAR_BUCKETS : SUB_BUCKETS);
+            if (!counts.compareAndSet(index, null, chunk)) {
+                chunk = counts.get(index);
+            }
+        }
+        return chunk;
+    }
+
+    private long countAt(int bucket) {
+        AtomicLongArray chunk = counts.get(chunkIndex(bucket));
+        return chunk == null ? 0 : chunk.get(offset(bucket));
+    }
+
+    private static int chunkIndex(int bucket) {
+        return bucket < LINEAR_BUCKETS ? 0 : 1 + (bucket - LINEAR_BUCKETS) / SUB_BUCKETS;
+    }
+
+    private static int offset(int bucket) {
+        return bucket < LINEAR_BUCKETS ? bucket : (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+    }
+
+    static int bucket(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent >= MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_BUCKETS + (exponent - LINEAR_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    static long highestValue(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        int exponent = LINEAR_BITS + (bucket - LINEAR_BUCKETS) / SUB_BUCKETS;
+        int subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (1L << exponent) + (subBucket + 1) * width - 1;
+    }
+}
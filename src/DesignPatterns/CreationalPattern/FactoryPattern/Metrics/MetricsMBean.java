@@ -0,0 +1,152 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.Metrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+
+/**
+ * Read-only MBean whose attributes are read from live counters on demand, so exposing a metric
+ * costs nothing on the recording path. The same attributes back a plain-text {@link #dump}.
+ */
+public final class MetricsMBean implements DynamicMBean {
+    private final String description;
+    private final Map<String, Supplier<?>> attributes = new LinkedHashMap<>();
+    private final Map<String, String> types = new LinkedHashMap<>();
+
+    public MetricsMBean(String description) {
+        this.description = description;
+    }
+
+    public MetricsMBean counter(String name, Supplier<Long> value) {
+        return attribute(name, Long.class, value);
+    }
+
+    public MetricsMBean gauge(String name, Supplier<Double> value) {
+        return attribute(name, Double.class, value);
+    }
+
+    /**
+     * Adds count, mean, p50, p99, p99.9 and max attributes for a histogram.
+     */
+    public MetricsMBean histogram(String prefix, LatencyHistogram histogram) {
+        counter(prefix + "Count", histogram::getCount);
+        gauge(prefix + "MeanNanos", histogram::getMean);
+        counter(prefix + "P50Nanos", () -> histogram.getValueAtPercentile(50));
+        counter(prefix + "P99Nanos", () -> histogram.getValueAtPercentile(99));
+        counter(prefix + "P999Nanos", () -> histogram.getValueAtPercentile(99.9));
+        return counter(prefix + "MaxNanos", histogram::getMax);
+    }
+
+    private MetricsMBean attribute(String name, Class<?> type, Supplier<?> value) {
+        if (name == null || value == null) {
+            throw new IllegalArgumentException("Attribute name and value cannot be null");
+        }
+        attributes.put(name, value);
+        types.put(name, type.getName());
+        return this;
+    }
+
+    /**
+     * Registers this MBean with the platform MBean server.
+     * @throws IllegalStateException if an MBean of the same name is already registered, e.g. by
+     *         another instance of the same component; give each instance its own domain
+     */
+    public ObjectName register(String objectName) {
+        try {
+            ObjectName name = new ObjectName(objectName);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            return name;
+        } catch (InstanceAlreadyExistsException e) {
+            throw new IllegalStateException("MBean already registered: " + objectName, e);
+        } catch (JMException e) {
+            throw new IllegalArgumentException("Cannot register MBean " + objectName, e);
+        }
+    }
+
+    public static void unregister(ObjectName name) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot unregister MBean " + name, e);
+        }
+    }
+
+    /**
+     * Appends one "prefix.attribute value" line per attribute.
+     */
+    public void dump(String prefix, Appendable out) {
+        try {
+            for (Map.Entry<String, Supplier<?>> attribute : attributes.entrySet()) {
+                out.append(prefix).append('.').append(attribute.getKey()).append(' ')
+                        .append(String.valueOf(attribute.getValue().get())).append('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Supplier<?> value = attributes.get(attribute);
+        if (value == null) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        return value.get();
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] names) {
+        AttributeList list = new AttributeList();
+        for (String name : names) {
+            Supplier<?> value = attributes.get(name);
+            if (value != null) {
+                list.add(new Attribute(name, value.get()));
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        throw new ReflectionException(new NoSuchMethodException(actionName), "Metrics have no operations: " + actionName);
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> infos = new ArrayList<>();
+        for (Map.Entry<String, String> type : types.entrySet()) {
+            infos.add(new MBeanAttributeInfo(type.getKey(), type.getValue(), type.getKey(), true, false, false));
+        }
+        return new MBeanInfo(MetricsMBean.class.getName(), description,
+                infos.toArray(new MBeanAttributeInfo[0]), null, null, null);
+    }
+}
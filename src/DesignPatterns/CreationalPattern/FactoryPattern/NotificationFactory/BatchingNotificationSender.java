@@ -0,0 +1,312 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.NotificationFactory;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Groups messages per {@link ChannelType} and hands them to the channel's {@link BulkSender} once a
+ * batch is full or its linger time has passed, whichever comes first. A message that is already
+ * waiting in the open batch is coalesced with it and sent once.
+ * <p>
+ * Each channel has its own thread for its linger timers and sends, so a slow provider only
+ * delays its own channel.
+ */
+public class BatchingNotificationSender implements AutoCloseable {
+    private final Map<ChannelType, ChannelBatcher> batchers = new EnumMap<>(ChannelType.class);
+    private final int batchSize;
+    private final long lingerMillis;
+    private volatile boolean closed;
+
+    private BatchingNotificationSender(Builder builder) {
+        this.batchSize = builder.batchSize;
+        this.lingerMillis = builder.lingerMillis;
+        for (Map.Entry<ChannelType, BulkSender> entry : builder.senders.entrySet()) {
+            batchers.put(entry.getKey(), new ChannelBatcher(entry.getKey(), entry.getValue(),
+                    builder.executorFactory.apply(entry.getKey())));
+        }
+    }
+
+    /**
+     * Adds a message to the open batch of its channel.
+     * @param message the message to send
+     * @return a future completed when the batch holding the message has been sent, or exceptionally
+     *         if the sender is closed
+     */
+    public CompletableFuture<Void> send(NotificationMessage message) {
+        if (message == null) {
+            throw new IllegalArgumentException("Message cannot be null");
+        }
+        ChannelBatcher batcher = batchers.get(message.getChannelType());
+        if (batcher == null) {
+            throw new IllegalArgumentException("No bulk sender for channel: " + message.getChannelType());
+        }
+        return batcher.add(message);
+    }
+
+    /**
+     * Gets the metrics of a channel: sent and failed count messages, the queue depth counts messages
+     * not yet handed to the bulk sender, in flight counts batches being sent, the queue delay is the
+     * wait of a closed batch for the channel's thread and the send latency is per batch.
+     * @param channelType the channel
+     * @return the channel's metrics
+     */
+    public ChannelMetrics getMetrics(ChannelType channelType) {
+        ChannelBatcher batcher = batchers.get(channelType);
+        if (batcher == null) {
+            throw new IllegalArgumentException("No bulk sender for channel: " + channelType);
+        }
+        return batcher.metrics;
+    }
+
+    /**
+     * Registers one MBean per channel with a bulk sender.
+     * @param domain the JMX domain to register under
+     * @throws IllegalStateException if an MBean of the same name is already registered
+     */
+    public void registerMBeans(String domain) {
+        for (ChannelBatcher batcher : batchers.values()) {
+            batcher.metrics.toMBean("Notification batcher " + batcher.channelType)
+                    .register(domain + ":type=NotificationBatcher,name=" + batcher.channelType);
+        }
+    }
+
+    /**
+     * Appends every channel metric as a "notification.batch.CHANNEL.attribute value" line.
+     * @param out where to write the metrics
+     */
+    public void dumpMetrics(Appendable out) {
+        for (ChannelBatcher batcher : batchers.values()) {
+            batcher.metrics.toMBean("").dump("notification.batch." + batcher.channelType, out);
+        }
+    }
+
+    /**
+     * Sends every open batch now.
+     */
+    public void flush() {
+        for (ChannelBatcher batcher : batchers.values()) {
+            batcher.flush();
+        }
+    }
+
+    /**
+     * Sends every open batch and waits for the sends to finish.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        flush();
+        for (ChannelBatcher batcher : batchers.values()) {
+            batcher.executor.shutdown();
+        }
+        try {
+            for (ChannelBatcher batcher : batchers.values()) {
+                batcher.executor.awaitTermination(1, TimeUnit.MINUTES);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ScheduledExecutorService newChannelExecutor(ChannelType channelType) {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-batcher-" + channelType.name().toLowerCase());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private class ChannelBatcher {
+        private final ChannelType channelType;
+        private final BulkSender sender;
+        // Runs this channel's linger timers and sends
+        private final ScheduledExecutorService executor;
+        // Messages added but not yet handed to the sender
+        private final LongAdder waiting = new LongAdder();
+        private final ChannelMetrics metrics = new ChannelMetrics(waiting::sum);
+        private LinkedHashMap<NotificationMessage, CompletableFuture<Void>> pending = new LinkedHashMap<>();
+        private ScheduledFuture<?> lingerTimer;
+
+        ChannelBatcher(ChannelType channelType, BulkSender sender, ScheduledExecutorService executor) {
+            this.channelType = channelType;
+            this.sender = sender;
+            this.executor = executor;
+        }
+
+        CompletableFuture<Void> add(NotificationMessage message) {
+            Map<NotificationMessage, CompletableFuture<Void>> full = null;
+            CompletableFuture<Void> future;
+            synchronized (this) {
+                future = pending.get(message);
+                if (future != null) {
+                    return future;
+                }
+                future = new CompletableFuture<>();
+                if (closed) {
+                    future.completeExceptionally(new IllegalStateException("Sender is closed"));
+                    return future;
+                }
+                pending.put(message, future);
+                waiting.increment();
+                if (pending.size() == 1) {
+                    // The timer flushes only the batch it was started for, never a later one
+                    Map<NotificationMessage, CompletableFuture<Void>> batch = pending;
+                    try {
+                        lingerTimer = executor.schedule(() -> flush(batch), lingerMillis, TimeUnit.MILLISECONDS);
+                    } catch (RejectedExecutionException e) {
+                        pending = new LinkedHashMap<>();
+                        waiting.decrement();
+                        future.completeExceptionally(new IllegalStateException("Sender is closed"));
+                        return future;
+                    }
+                }
+                if (pending.size() >= batchSize) {
+                    full = takePending();
+                }
+            }
+            if (full != null) {
+                submit(full);
+            }
+            return future;
+        }
+
+        void flush() {
+            Map<NotificationMessage, CompletableFuture<Void>> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = takePending();
+            }
+            submit(batch);
+        }
+
+        private void flush(Map<NotificationMessage, CompletableFuture<Void>> expected) {
+            Map<NotificationMessage, CompletableFuture<Void>> batch;
+            synchronized (this) {
+                if (pending != expected) {
+                    return;
+                }
+                batch = takePending();
+            }
+            submit(batch);
+        }
+
+        private Map<NotificationMessage, CompletableFuture<Void>> takePending() {
+            if (lingerTimer != null) {
+                lingerTimer.cancel(false);
+                lingerTimer = null;
+            }
+            Map<NotificationMessage, CompletableFuture<Void>> batch = pending;
+            pending = new LinkedHashMap<>();
+            return batch;
+        }
+
+        private void submit(Map<NotificationMessage, CompletableFuture<Void>> batch) {
+            long queuedAt = System.nanoTime();
+            try {
+                executor.execute(() -> {
+                    List<NotificationMessage> messages = new ArrayList<>(batch.keySet());
+                    waiting.add(-messages.size());
+                    long start = System.nanoTime();
+                    metrics.queueDelay.record(start - queuedAt);
+                    metrics.inFlight.increment();
+                    RuntimeException failure = null;
+                    try {
+                        sender.sendBatch(channelType, messages);
+                    } catch (RuntimeException e) {
+                        failure = e;
+                    }
+                    metrics.inFlight.decrement();
+                    metrics.sendLatency.record(System.nanoTime() - start);
+                    if (failure == null) {
+                        metrics.sent.add(messages.size());
+                        batch.values().forEach(future -> future.complete(null));
+                    } else {
+                        RuntimeException cause = failure;
+                        metrics.failed.add(messages.size());
+                        batch.values().forEach(future -> future.completeExceptionally(cause));
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                waiting.add(-batch.size());
+                IllegalStateException closedException = new IllegalStateException("Sender is closed");
+                batch.values().forEach(future -> future.completeExceptionally(closedException));
+            }
+        }
+    }
+
+    /**
+     * Builder class for configuring batch size, linger time and the bulk sender of each channel.
+     */
+    public static class Builder {
+        private final Map<ChannelType, BulkSender> senders = new EnumMap<>(ChannelType.class);
+        private int batchSize = 500;
+        private long lingerMillis = 20;
+        private Function<ChannelType, ScheduledExecutorService> executorFactory = BatchingNotificationSender::newChannelExecutor;
+
+        /**
+         * Sets the bulk sender for a channel.
+         * @param channelType the channel
+         * @param sender the sender that receives the channel's batches
+         * @return the builder instance
+         */
+        public Builder sender(ChannelType channelType, BulkSender sender) {
+            if (channelType == null || sender == null) {
+                throw new IllegalArgumentException("Channel type and sender cannot be null");
+            }
+            senders.put(channelType, sender);
+            return this;
+        }
+
+        /**
+         * Sets how many distinct messages fill a batch.
+         * @param batchSize the maximum batch size
+         * @return the builder instance
+         */
+        public Builder batchSize(int batchSize) {
+            if (batchSize <= 0) {
+                throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+            }
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Sets how long a batch waits for more messages after its first one.
+         * @param lingerMillis the linger time in milliseconds
+         * @return the builder instance
+         */
+        public Builder linger(long lingerMillis) {
+            if (lingerMillis < 0) {
+                throw new IllegalArgumentException("Linger time cannot be negative: " + lingerMillis);
+            }
+            this.lingerMillis = lingerMillis;
+            return this;
+        }
+
+        // Replaces each channel's timer and send thread, e.g. with one whose timers a test fires by hand
+        Builder executors(Function<ChannelType, ScheduledExecutorService> executorFactory) {
+            this.executorFactory = executorFactory;
+            return this;
+        }
+
+        public BatchingNotificationSender build() {
+            if (senders.isEmpty()) {
+                throw new IllegalStateException("At least one bulk sender must be specified");
+            }
+            return new BatchingNotificationSender(this);
+        }
+    }
+}
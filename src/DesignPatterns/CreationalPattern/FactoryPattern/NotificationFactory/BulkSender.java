@@ -0,0 +1,14 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.NotificationFactory;
+
+import java.util.List;
+
+/**
+ * Provider API that accepts many messages of one channel in a single request.
+ */
+public interface BulkSender {
+
+    /**
+     * Sends a batch of messages. Throwing fails every message in the batch.
+     */
+    void sendBatch(ChannelType channelType, List<NotificationMessage> messages);
+}
@@ -0,0 +1,110 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.NotificationFactory;
+
+import DesignPatterns.CreationalPattern.FactoryPattern.Metrics.LatencyHistogram;
+import DesignPatterns.CreationalPattern.FactoryPattern.Metrics.MetricsMBean;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Counters, gauges and latency histograms for one notification channel.
+ */
+public class ChannelMetrics {
+    final LongAdder sent = new LongAdder();
+    final LongAdder failed = new LongAdder();
+    final LongAdder retried = new LongAdder();
+    final LongAdder rateLimited = new LongAdder();
+    final LongAdder shortCircuited = new LongAdder();
+    final LongAdder circuitOpened = new LongAdder();
+    final LatencyHistogram queueDelay = new LatencyHistogram();
+    final LatencyHistogram sendLatency = new LatencyHistogram();
+    final LongAdder inFlight = new LongAdder();
+    private final LongSupplier queueDepth;
+
+    ChannelMetrics(LongSupplier queueDepth) {
+        this.queueDepth = queueDepth;
+    }
+
+    public long getSentCount() {
+        return sent.sum();
+    }
+
+    /**
+     * @return sends that failed for good, after their last retry
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    public long getRetryCount() {
+        return retried.sum();
+    }
+
+    /**
+     * @return attempts that were delayed to wait for the rate limit
+     */
+    public long getRateLimitedCount() {
+        return rateLimited.sum();
+    }
+
+    /**
+     * @return sends rejected without a call because the circuit was open
+     */
+    public long getShortCircuitedCount() {
+        return shortCircuited.sum();
+    }
+
+    public long getCircuitOpenedCount() {
+        return circuitOpened.sum();
+    }
+
+    /**
+     * @return notifications waiting to be sent right now
+     */
+    public long getQueueDepth() {
+        return queueDepth.getAsLong();
+    }
+
+    /**
+     * @return sends in progress right now
+     */
+    public long getInFlightCount() {
+        return inFlight.sum();
+    }
+
+    /**
+     * @return how long sends waited for a worker after being permitted
+     */
+    public LatencyHistogram getQueueDelay() {
+        return queueDelay;
+    }
+
+    /**
+     * @return how long each call to sendNotification() took, including failed ones
+     */
+    public LatencyHistogram getSendLatency() {
+        return sendLatency;
+    }
+
+    MetricsMBean toMBean(String description) {
+        return new MetricsMBean(description)
+                .counter("Sent", this::getSentCount)
+                .counter("Failed", this::getFailedCount)
+                .counter("Retried", this::getRetryCount)
+                .counter("RateLimited", this::getRateLimitedCount)
+                .counter("ShortCircuited", this::getShortCircuitedCount)
+                .counter("CircuitOpened", this::getCircuitOpenedCount)
+                .counter("QueueDepth", this::getQueueDepth)
+                .counter("InFlight", this::getInFlightCount)
+                .histogram("QueueDelay", queueDelay)
+                .histogram("SendLatency", sendLatency);
+    }
+
+    @Override
+    public String toString() {
+        return "sent=" + getSentCount() + " failed=" + getFailedCount() + " retried=" + getRetryCount()
+                + " rateLimited=" + getRateLimitedCount() + " shortCircuited=" + getShortCircuitedCount()
+                + " circuitOpened=" + getCircuitOpenedCount() + " queueDepth=" + getQueueDepth()
+                + " inFlight=" + getInFlightCount() + " queueDelay[" + queueDelay + "] sendLatency[" + sendLatency + "]";
+    }
+}
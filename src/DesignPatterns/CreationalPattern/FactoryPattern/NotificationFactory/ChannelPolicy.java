@@ -0,0 +1,115 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.NotificationFactory;
+
+/**
+ * Rate limit, retry and circuit-breaker settings for one notification channel. The default policy
+ * sends without limits, never retries and never opens a circuit.
+ */
+public final class ChannelPolicy {
+    private final double permitsPerSecond;
+    private final int burst;
+    private final int maxRetries;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private ChannelPolicy(Builder builder) {
+        this.permitsPerSecond = builder.permitsPerSecond;
+        this.burst = builder.burst;
+        this.maxRetries = builder.maxRetries;
+        this.baseBackoffMillis = builder.baseBackoffMillis;
+        this.maxBackoffMillis = builder.maxBackoffMillis;
+        this.failureThreshold = builder.failureThreshold;
+        this.openMillis = builder.openMillis;
+    }
+
+    public static ChannelPolicy defaults() {
+        return new Builder().build();
+    }
+
+    TokenBucket newRateLimiter() {
+        return permitsPerSecond > 0 ? new TokenBucket(permitsPerSecond, burst) : null;
+    }
+
+    CircuitBreaker newCircuitBreaker() {
+        return failureThreshold > 0 ? new CircuitBreaker(failureThreshold, openMillis) : null;
+    }
+
+    int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * Exponential backoff with full jitter: a random delay up to base * 2^(retry - 1), capped.
+     */
+    long backoffMillis(int retry, double random) {
+        int shift = Math.min(retry - 1, Long.SIZE - 2);
+        // Saturate instead of shifting past the cap, where the shift could overflow
+        long ceiling = baseBackoffMillis > maxBackoffMillis >> shift ? maxBackoffMillis : baseBackoffMillis << shift;
+        return (long) (ceiling * random);
+    }
+
+    /**
+     * Builder class for channel policies.
+     */
+    public static class Builder {
+        private double permitsPerSecond;
+        private int burst = 1;
+        private int maxRetries;
+        private long baseBackoffMillis = 100;
+        private long maxBackoffMillis = 30_000;
+        private int failureThreshold;
+        private long openMillis = 30_000;
+
+        /**
+         * Limits the channel to a steady rate with bursts of up to the given size.
+         * @param permitsPerSecond the sustained sends per second
+         * @param burst the number of sends allowed at once after an idle period
+         * @return the builder instance
+         */
+        public Builder rateLimit(double permitsPerSecond, int burst) {
+            if (permitsPerSecond <= 0 || burst <= 0) {
+                throw new IllegalArgumentException("Rate and burst must be positive");
+            }
+            this.permitsPerSecond = permitsPerSecond;
+            this.burst = burst;
+            return this;
+        }
+
+        /**
+         * Retries failed sends with jittered exponential backoff.
+         * @param maxRetries the number of retries after the first attempt
+         * @param baseBackoffMillis the backoff ceiling of the first retry
+         * @param maxBackoffMillis the largest backoff ceiling
+         * @return the builder instance
+         */
+        public Builder retry(int maxRetries, long baseBackoffMillis, long maxBackoffMillis) {
+            if (maxRetries < 0 || baseBackoffMillis <= 0 || maxBackoffMillis < baseBackoffMillis) {
+                throw new IllegalArgumentException("Invalid retry settings");
+            }
+            this.maxRetries = maxRetries;
+            this.baseBackoffMillis = baseBackoffMillis;
+            this.maxBackoffMillis = maxBackoffMillis;
+            return this;
+        }
+
+        /**
+         * Opens the circuit after consecutive failures, failing sends fast while it is open.
+         * @param failureThreshold the consecutive failures that open the circuit
+         * @param openMillis how long the circuit stays open before a trial send
+         * @return the builder instance
+         */
+        public Builder circuitBreaker(int failureThreshold, long openMillis) {
+            if (failureThreshold <= 0 || openMillis <= 0) {
+                throw new IllegalArgumentException("Failure threshold and open time must be positive");
+            }
+            this.failureThreshold = failureThreshold;
+            this.openMillis = openMillis;
+            return this;
+        }
+
+        public ChannelPolicy build() {
+            return new ChannelPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.NotificationFactory;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Offline stand-in for a real provider: records request and message counts per channel and can
+ * simulate a fixed latency per request.
+ */
+public class FakeBulkProvider implements BulkSender {
+    private final long requestLatencyMillis;
+    private final Map<ChannelType, LongAdder> requests = new EnumMap<>(ChannelType.class);
+    private final Map<ChannelType, LongAdder> messages = new EnumMap<>(ChannelType.class);
+    private final AtomicInteger largestBatch = new AtomicInteger();
+
+    public FakeBulkProvider(long requestLatencyMillis) {
+        this.requestLatencyMillis = requestLatencyMillis;
+        for (ChannelType channelType : ChannelType.values()) {
+            requests.put(channelType, new LongAdder());
+            messages.put(channelType, new LongAdder());
+        }
+    }
+
+    @Override
+    public void sendBatch(ChannelType channelType, List<NotificationMessage> batch) {
+        if (requestLatencyMillis > 0) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(requestLatencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while sending " + channelType + " batch", e);
+            }
+        }
+        requests.get(channelType).increment();
+        messages.get(channelType).add(batch.size());
+        largestBatch.accumulateAndGet(batch.size(), Math::max);
+    }
+
+    public long getRequestCount(ChannelType channelType) {
+        return requests.get(channelType).sum();
+    }
+
+    public long getMessageCount(ChannelType channelType) {
+        return messages.get(channelType).sum();
+    }
+
+    public int getLargestBatch() {
+        return largestBatch.get();
+    }
+}
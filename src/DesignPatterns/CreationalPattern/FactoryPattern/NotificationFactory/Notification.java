@@ -2,4 +2,13 @@ package DesignPatterns.CreationalPattern.FactoryPattern.NotificationFactory;
 
 public interface Notification {
     void sendNotification();
+
+    /**
+     * The channel this notification is sent on. Implementations that predate channels need not
+     * override it: the channel is then looked up from the {@link NotificationFactory} registry.
+     * @throws IllegalStateException if the notification does not override this and is not registered
+     */
+    default ChannelType getChannelType() {
+        return NotificationFactory.channelOf(this);
+    }
 }
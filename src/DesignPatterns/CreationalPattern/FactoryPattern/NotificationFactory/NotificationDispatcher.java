@@ -0,0 +1,298 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.NotificationFactory;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends notifications asynchronously. Each {@link ChannelType} has its own queue and its own pool
+ * of workers, sized to that channel's concurrency limit, so a slow channel never holds up the others.
+ * A {@link ChannelPolicy} per channel adds rate limiting, retries and a circuit breaker; waits for
+ * a token or a retry are timers, so no worker sleeps.
+ */
+public class NotificationDispatcher implements AutoCloseable {
+    private final Map<ChannelType, Channel> channels = new EnumMap<>(ChannelType.class);
+    private final ScheduledExecutorService timer;
+    // Notifications waiting on the timer for a rate-limit token or a retry, failed on close
+    private final Set<CompletableFuture<Void>> delayed = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    private NotificationDispatcher(Builder builder) {
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (ChannelType channelType : ChannelType.values()) {
+            int workers = builder.concurrency.get(channelType);
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), threadFactory(channelType));
+            executor.allowCoreThreadTimeOut(true);
+            channels.put(channelType, new Channel(channelType, executor, builder.policies.get(channelType)));
+        }
+    }
+
+    /**
+     * Queues the notification on its channel.
+     * @param notification the notification to send
+     * @return a future completed once the notification has been sent, or exceptionally if sending
+     *         failed after all retries, the channel's circuit is open or the dispatcher is closed
+     */
+    public CompletableFuture<Void> dispatch(Notification notification) {
+        if (notification == null) {
+            throw new IllegalArgumentException("Notification cannot be null");
+        }
+        return dispatch(notification.getChannelType(), notification);
+    }
+
+    /**
+     * Queues the notification on the given channel, for notifications that do not name their own.
+     * @param channelType the channel to send on
+     * @param notification the notification to send
+     * @return a future completed once the notification has been sent, or exceptionally as for
+     *         {@link #dispatch(Notification)}
+     */
+    public CompletableFuture<Void> dispatch(ChannelType channelType, Notification notification) {
+        if (channelType == null || notification == null) {
+            throw new IllegalArgumentException("Channel type and notification cannot be null");
+        }
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        if (closed) {
+            result.completeExceptionally(new NotificationRejectedException("Dispatcher is closed"));
+            return result;
+        }
+        channels.get(channelType).attempt(notification, result, 0);
+        return result;
+    }
+
+    /**
+     * Gets the number of notifications waiting for a worker on a channel.
+     * @param channelType the channel
+     * @return the queue length
+     */
+    public int getPendingCount(ChannelType channelType) {
+        return (int) channels.get(channelType).metrics.getQueueDepth();
+    }
+
+    /**
+     * Gets the counters of a channel.
+     * @param channelType the channel
+     * @return the channel's metrics
+     */
+    public ChannelMetrics getMetrics(ChannelType channelType) {
+        return channels.get(channelType).metrics;
+    }
+
+    /**
+     * Gets the circuit state of a channel.
+     * @param channelType the channel
+     * @return the circuit state, or null if the channel has no circuit breaker
+     */
+    public CircuitBreaker.State getCircuitState(ChannelType channelType) {
+        CircuitBreaker circuitBreaker = channels.get(channelType).circuitBreaker;
+        return circuitBreaker == null ? null : circuitBreaker.getState();
+    }
+
+    /**
+     * Registers one MBean per channel, with its counters, gauges and latency histograms.
+     * @throws IllegalStateException if an MBean of the same name is already registered
+     * @param domain the JMX domain to register under
+     */
+    public void registerMBeans(String domain) {
+        for (Channel channel : channels.values()) {
+            channel.metrics.toMBean("Notification channel " + channel.channelType)
+                    .register(domain + ":type=NotificationChannel,name=" + channel.channelType);
+        }
+    }
+
+    /**
+     * Appends every channel metric as a "notification.CHANNEL.attribute value" line.
+     * @param out where to write the metrics
+     */
+    public void dumpMetrics(Appendable out) {
+        for (Channel channel : channels.values()) {
+            channel.metrics.toMBean("").dump("notification." + channel.channelType, out);
+        }
+    }
+
+    /**
+     * Stops accepting notifications. Notifications already queued for a worker are still sent;
+     * those waiting for a rate-limit token or a retry fail with {@link NotificationRejectedException}.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        timer.shutdownNow();
+        for (Channel channel : channels.values()) {
+            channel.executor.shutdown();
+        }
+        for (CompletableFuture<Void> result : delayed) {
+            reject(result);
+        }
+    }
+
+    private void schedule(CompletableFuture<Void> result, Runnable task, long delay, TimeUnit unit) {
+        delayed.add(result);
+        try {
+            timer.schedule(() -> {
+                if (delayed.remove(result)) {
+                    task.run();
+                }
+            }, delay, unit);
+        } catch (RejectedExecutionException e) {
+            reject(result);
+        }
+    }
+
+    private void reject(CompletableFuture<Void> result) {
+        delayed.remove(result);
+        result.completeExceptionally(new NotificationRejectedException("Dispatcher is closed"));
+    }
+
+    private static ThreadFactory threadFactory(ChannelType channelType) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "notification-" + channelType.name().toLowerCase() + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private class Channel {
+        final ChannelType channelType;
+        final ThreadPoolExecutor executor;
+        final ChannelPolicy policy;
+        final TokenBucket rateLimiter;
+        final CircuitBreaker circuitBreaker;
+        final ChannelMetrics metrics;
+
+        Channel(ChannelType channelType, ThreadPoolExecutor executor, ChannelPolicy policy) {
+            this.channelType = channelType;
+            this.executor = executor;
+            this.metrics = new ChannelMetrics(() -> executor.getQueue().size());
+            this.policy = policy;
+            this.rateLimiter = policy.newRateLimiter();
+            this.circuitBreaker = policy.newCircuitBreaker();
+        }
+
+        void attempt(Notification notification, CompletableFuture<Void> result, int retry) {
+            if (rateLimiter != null) {
+                long waitNanos = rateLimiter.reserve();
+                if (waitNanos > 0) {
+                    metrics.rateLimited.increment();
+                    schedule(result, () -> attemptPermitted(notification, result, retry), waitNanos, TimeUnit.NANOSECONDS);
+                    return;
+                }
+            }
+            attemptPermitted(notification, result, retry);
+        }
+
+        private void attemptPermitted(Notification notification, CompletableFuture<Void> result, int retry) {
+            if (circuitBreaker != null && !circuitBreaker.allowRequest()) {
+                metrics.shortCircuited.increment();
+                result.completeExceptionally(new NotificationRejectedException("Circuit open for channel " + channelType));
+                return;
+            }
+            long queuedAt = System.nanoTime();
+            try {
+                executor.execute(() -> {
+                    metrics.queueDelay.record(System.nanoTime() - queuedAt);
+                    send(notification, result, retry);
+                });
+            } catch (RejectedExecutionException e) {
+                reject(result);
+            }
+        }
+
+        private void send(Notification notification, CompletableFuture<Void> result, int retry) {
+            long start = System.nanoTime();
+            metrics.inFlight.increment();
+            try {
+                notification.sendNotification();
+            } catch (RuntimeException e) {
+                metrics.inFlight.decrement();
+                metrics.sendLatency.record(System.nanoTime() - start);
+                if (circuitBreaker != null && circuitBreaker.recordFailure()) {
+                    metrics.circuitOpened.increment();
+                }
+                if (retry < policy.getMaxRetries()) {
+                    metrics.retried.increment();
+                    long delay = policy.backoffMillis(retry + 1, ThreadLocalRandom.current().nextDouble());
+                    schedule(result, () -> attempt(notification, result, retry + 1), delay, TimeUnit.MILLISECONDS);
+                } else {
+                    metrics.failed.increment();
+                    result.completeExceptionally(e);
+                }
+                return;
+            }
+            metrics.inFlight.decrement();
+            metrics.sendLatency.record(System.nanoTime() - start);
+            if (circuitBreaker != null) {
+                circuitBreaker.recordSuccess();
+            }
+            metrics.sent.increment();
+            result.complete(null);
+        }
+    }
+
+    /**
+     * Builder class for configuring per-channel concurrency and policies.
+     */
+    public static class Builder {
+        private final Map<ChannelType, Integer> concurrency = new EnumMap<>(ChannelType.class);
+        private final Map<ChannelType, ChannelPolicy> policies = new EnumMap<>(ChannelType.class);
+
+        public Builder() {
+            for (ChannelType channelType : ChannelType.values()) {
+                concurrency.put(channelType, Runtime.getRuntime().availableProcessors());
+                policies.put(channelType, ChannelPolicy.defaults());
+            }
+        }
+
+        /**
+         * Sets how many notifications of a channel may be sent at the same time.
+         * @param channelType the channel
+         * @param limit the maximum number of concurrent sends
+         * @return the builder instance
+         */
+        public Builder concurrency(ChannelType channelType, int limit) {
+            if (channelType == null) {
+                throw new IllegalArgumentException("Channel type cannot be null");
+            }
+            if (limit <= 0) {
+                throw new IllegalArgumentException("Concurrency limit must be positive: " + limit);
+            }
+            concurrency.put(channelType, limit);
+            return this;
+        }
+
+        /**
+         * Sets the rate limit, retry and circuit-breaker policy of a channel.
+         * @param channelType the channel
+         * @param policy the policy to apply
+         * @return the builder instance
+         */
+        public Builder policy(ChannelType channelType, ChannelPolicy policy) {
+            if (channelType == null || policy == null) {
+                throw new IllegalArgumentException("Channel type and policy cannot be null");
+            }
+            policies.put(channelType, policy);
+            return this;
+        }
+
+        public NotificationDispatcher build() {
+            return new NotificationDispatcher(this);
+        }
+    }
+}
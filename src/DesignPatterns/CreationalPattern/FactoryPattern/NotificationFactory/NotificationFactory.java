@@ -1,11 +1,19 @@
 package DesignPatterns.CreationalPattern.FactoryPattern.NotificationFactory;
 
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.ServiceLoader;
 
 class EmailNotification implements Notification {
     @Override
     public void sendNotification() {
         System.out.println("Sending Email Notification");
     }
+
+    @Override
+    public ChannelType getChannelType() {
+        return ChannelType.EMAIL;
+    }
 }
 
 class PushNotification implements Notification {
@@ -13,6 +21,11 @@ class PushNotification implements Notification {
     public void sendNotification() {
         System.out.println("Sending Push Notification");
     }
+
+    @Override
+    public ChannelType getChannelType() {
+        return ChannelType.PUSH;
+    }
 }
 
 class SMSNotification implements Notification {
@@ -20,23 +33,62 @@ class SMSNotification implements Notification {
     public void sendNotification() {
         System.out.println("Sending SMS Notification");
     }
+
+    @Override
+    public ChannelType getChannelType() {
+        return ChannelType.SMS;
+    }
 }
 
+// Notifications are stateless, so each channel maps to one shared instance
 public class NotificationFactory {
+    private static volatile Map<ChannelType, Notification> notifications = new EnumMap<>(ChannelType.class);
+
+    static {
+        register(new EmailNotification());
+        register(new PushNotification());
+        register(new SMSNotification());
+        for (NotificationProvider provider : ServiceLoader.load(NotificationProvider.class)) {
+            register(provider.getNotification());
+        }
+    }
+
     public NotificationFactory() {
     }
 
     public static Notification createNotification(ChannelType channelType) {
-        switch (channelType) {
-            case EMAIL:
-                return new EmailNotification();
-            case PUSH:
-                return new PushNotification();
-            case SMS:
-                return new SMSNotification();
-            default:
-                throw new IllegalArgumentException("Invalid channel type");
+        Notification notification = notifications.get(channelType);
+        if (notification == null) {
+            throw new IllegalArgumentException("Invalid channel type");
         }
+        return notification;
+    }
+
+    // Registers or replaces the notification for its channel
+    public static void register(Notification notification) {
+        if (notification == null) {
+            throw new IllegalArgumentException("Notification cannot be null");
+        }
+        register(notification.getChannelType(), notification);
     }
-}
 
+    // Registers or replaces the notification for a channel, e.g. one that does not name its own channel
+    public static synchronized void register(ChannelType channelType, Notification notification) {
+        if (channelType == null || notification == null) {
+            throw new IllegalArgumentException("Channel type and notification cannot be null");
+        }
+        Map<ChannelType, Notification> updated = new EnumMap<>(notifications);
+        updated.put(channelType, notification);
+        notifications = updated;
+    }
+
+    // The channel a notification is registered for, backing the default Notification.getChannelType
+    static ChannelType channelOf(Notification notification) {
+        for (Map.Entry<ChannelType, Notification> entry : notifications.entrySet()) {
+            if (entry.getValue() == notification) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Notification is not registered for a channel: " + notification);
+    }
+}
@@ -0,0 +1,55 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.NotificationFactory;
+
+import java.util.Objects;
+
+/**
+ * A message to one recipient on one channel. Messages with the same channel, recipient and body are equal.
+ */
+public final class NotificationMessage {
+    private final ChannelType channelType;
+    private final String recipient;
+    private final String body;
+
+    public NotificationMessage(ChannelType channelType, String recipient, String body) {
+        if (channelType == null || recipient == null || body == null) {
+            throw new IllegalArgumentException("Channel type, recipient and body cannot be null");
+        }
+        this.channelType = channelType;
+        this.recipient = recipient;
+        this.body = body;
+    }
+
+    public ChannelType getChannelType() {
+        return channelType;
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof NotificationMessage)) {
+            return false;
+        }
+        NotificationMessage that = (NotificationMessage) o;
+        return channelType == that.channelType && recipient.equals(that.recipient) && body.equals(that.body);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(channelType, recipient, body);
+    }
+
+    @Override
+    public String toString() {
+        return channelType + " to " + recipient + ": " + body;
+    }
+}
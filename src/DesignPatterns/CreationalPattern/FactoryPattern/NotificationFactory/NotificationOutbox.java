@@ -0,0 +1,363 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.NotificationFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.zip.CRC32C;
+
+/**
+ * Durable outbox for notification messages: an append-only log of memory-mapped segment files.
+ * Appends are made durable in groups by a flusher thread before their futures complete, and
+ * messages are acknowledged once sent. On open, every message that was appended but never
+ * acknowledged can be replayed.
+ * <p>
+ * Record layout: int payload length, int CRC-32C, byte ack flag, byte channel ordinal, int recipient
+ * length, recipient and body as UTF-8. The checksum covers everything from the channel ordinal on;
+ * the ack flag is left out because it changes after the record is written. A length of -1 marks the
+ * unused tail of a segment; 0 marks the end of the log, as does the first record that fails its
+ * length, field or checksum checks, e.g. one only partly on disk after a crash. A separate ack file
+ * holds the offset before which every message is acknowledged.
+ */
+public class NotificationOutbox implements AutoCloseable {
+    private static final int END_OF_SEGMENT = -1;
+    private static final int CHECKSUM = Integer.BYTES;
+    private static final int ACK_FLAG = CHECKSUM + Integer.BYTES;
+    private static final int CHANNEL = ACK_FLAG + Byte.BYTES;
+    private static final int RECIPIENT_LENGTH = CHANNEL + Byte.BYTES;
+    private static final int HEADER_BYTES = RECIPIENT_LENGTH + Integer.BYTES;
+    private static final byte ACKNOWLEDGED = 1;
+    private static final ChannelType[] CHANNEL_TYPES = ChannelType.values();
+
+    private final Path directory;
+    private final int segmentSize;
+    private final TreeMap<Long, MappedByteBuffer> segments = new TreeMap<>();
+    private final MappedByteBuffer ackBuffer;
+    private final ConcurrentSkipListMap<Long, NotificationMessage> unacknowledged = new ConcurrentSkipListMap<>();
+    private final Thread flusher;
+    private long writeOffset;
+    private long ackOffset;
+    private List<CompletableFuture<Long>> pendingSync = new ArrayList<>();
+    private List<Long> pendingOffsets = new ArrayList<>();
+    private boolean dirty;
+    private long dirtyFromSegment = Long.MAX_VALUE;
+    private boolean closed;
+    // Set when the flusher fails to force the log; appends fail from then on
+    private RuntimeException failure;
+
+    /**
+     * Opens the outbox in the given directory, creating it if needed, and loads every
+     * unacknowledged message for {@link #replay}.
+     * @param directory the directory holding the segment files
+     * @param segmentSize the size of each segment file in bytes
+     */
+    public NotificationOutbox(Path directory, int segmentSize) throws IOException {
+        if (segmentSize < 1024) {
+            throw new IllegalArgumentException("Segment size must be at least 1024 bytes: " + segmentSize);
+        }
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        try (FileChannel channel = FileChannel.open(directory.resolve("outbox.ack"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            this.ackBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+        }
+        this.ackOffset = ackBuffer.getLong(0);
+        recover();
+        deleteSegmentFilesBefore(ackOffset / segmentSize);
+        this.flusher = new Thread(this::flushLoop, "notification-outbox-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Appends a message to the log.
+     * @param message the message to store
+     * @return a future completed with the message's offset once it is durable on disk
+     * @throws IllegalStateException if the outbox is closed or an earlier flush failed
+     */
+    public CompletableFuture<Long> append(NotificationMessage message) {
+        byte[] recipient = message.getRecipient().getBytes(StandardCharsets.UTF_8);
+        byte[] body = message.getBody().getBytes(StandardCharsets.UTF_8);
+        int recordSize = HEADER_BYTES + recipient.length + body.length;
+        int payload = recordSize - Integer.BYTES;
+        // Leave room for the end-of-log marker after the record
+        if (recordSize + Integer.BYTES > segmentSize) {
+            throw new IllegalArgumentException("Message does not fit in a segment: " + recordSize + " bytes");
+        }
+        CompletableFuture<Long> durable = new CompletableFuture<>();
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Outbox is closed");
+            }
+            if (failure != null) {
+                throw new IllegalStateException("Outbox cannot write to disk", failure);
+            }
+            int position = (int) (writeOffset % segmentSize);
+            if (position + recordSize + Integer.BYTES > segmentSize) {
+                segment(writeOffset).putInt(position, END_OF_SEGMENT);
+                writeOffset += segmentSize - position;
+                position = 0;
+            }
+            MappedByteBuffer segment = segment(writeOffset);
+            long offset = writeOffset;
+            segment.put(position + HEADER_BYTES, recipient);
+            segment.put(position + HEADER_BYTES + recipient.length, body);
+            segment.put(position + CHANNEL, (byte) message.getChannelType().ordinal());
+            segment.putInt(position + RECIPIENT_LENGTH, recipient.length);
+            segment.putInt(position + CHECKSUM, checksum(segment, position, payload));
+            segment.putInt(position, payload);
+            writeOffset += recordSize;
+            unacknowledged.put(offset, message);
+            pendingSync.add(durable);
+            pendingOffsets.add(offset);
+            markDirty(offset);
+        }
+        return durable;
+    }
+
+    /**
+     * Marks a message as sent, so it is not replayed. Messages may be acknowledged in any order.
+     * @param offset the offset returned by {@link #append}
+     */
+    public void acknowledge(long offset) {
+        if (unacknowledged.remove(offset) == null) {
+            return;
+        }
+        synchronized (this) {
+            MappedByteBuffer segment = segments.get(offset / segmentSize);
+            if (segment != null) {
+                segment.put((int) (offset % segmentSize) + ACK_FLAG, ACKNOWLEDGED);
+                markDirty(offset);
+            }
+            Long oldest = unacknowledged.isEmpty() ? null : unacknowledged.firstKey();
+            long acked = oldest == null ? writeOffset : oldest;
+            if (acked > ackOffset) {
+                ackOffset = acked;
+                ackBuffer.putLong(0, acked);
+                // Segments before the new offset are deleted by the flusher once the offset is on disk
+                dirty = true;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Stores the message durably, sends it once it is on disk and acknowledges it once sent.
+     * @param message the message to deliver
+     * @param sender sends the message, e.g. {@link BatchingNotificationSender#send}
+     * @return a future completed once the message is sent and acknowledged
+     */
+    public CompletableFuture<Void> deliver(NotificationMessage message,
+                                           Function<NotificationMessage, CompletableFuture<Void>> sender) {
+        return append(message).thenCompose(offset -> sender.apply(message).thenRun(() -> acknowledge(offset)));
+    }
+
+    /**
+     * Sends every message that was stored but not acknowledged, in append order.
+     * @param sender sends a message
+     * @return a future completed once every replayed message is sent and acknowledged
+     */
+    public CompletableFuture<Void> replay(Function<NotificationMessage, CompletableFuture<Void>> sender) {
+        List<CompletableFuture<Void>> sends = new ArrayList<>();
+        for (Map.Entry<Long, NotificationMessage> entry : unacknowledged.entrySet()) {
+            long offset = entry.getKey();
+            sends.add(sender.apply(entry.getValue()).thenRun(() -> acknowledge(offset)));
+        }
+        return CompletableFuture.allOf(sends.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Gets the number of messages not acknowledged yet.
+     * @return the number of unacknowledged messages
+     */
+    public int getUnacknowledgedCount() {
+        return unacknowledged.size();
+    }
+
+    /**
+     * Flushes pending appends and stops the flusher thread.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            List<CompletableFuture<Long>> synced;
+            List<Long> offsets;
+            List<MappedByteBuffer> toForce;
+            long forcedAckOffset;
+            synchronized (this) {
+                while (!dirty && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (!dirty) {
+                    return;
+                }
+                synced = pendingSync;
+                offsets = pendingOffsets;
+                pendingSync = new ArrayList<>();
+                pendingOffsets = new ArrayList<>();
+                toForce = new ArrayList<>(segments.tailMap(dirtyFromSegment).values());
+                dirtyFromSegment = Long.MAX_VALUE;
+                dirty = false;
+                forcedAckOffset = ackOffset;
+            }
+            try {
+                // One fsync covers every append made since the previous one
+                for (MappedByteBuffer segment : toForce) {
+                    segment.force();
+                }
+                ackBuffer.force();
+                synchronized (this) {
+                    deleteSegmentsBefore(forcedAckOffset / segmentSize);
+                }
+            } catch (RuntimeException e) {
+                fail(synced, e);
+                return;
+            }
+            for (int i = 0; i < synced.size(); i++) {
+                synced.get(i).complete(offsets.get(i));
+            }
+        }
+    }
+
+    // Fails every append not yet durable; later appends fail fast instead of waiting for a flusher
+    private void fail(List<CompletableFuture<Long>> synced, RuntimeException e) {
+        List<CompletableFuture<Long>> pending;
+        synchronized (this) {
+            failure = e;
+            pending = pendingSync;
+            pendingSync = new ArrayList<>();
+            pendingOffsets = new ArrayList<>();
+        }
+        for (CompletableFuture<Long> durable : synced) {
+            durable.completeExceptionally(e);
+        }
+        for (CompletableFuture<Long> durable : pending) {
+            durable.completeExceptionally(e);
+        }
+    }
+
+    private void recover() throws IOException {
+        long offset = ackOffset;
+        while (true) {
+            long segmentIndex = offset / segmentSize;
+            if (!Files.exists(segmentPath(segmentIndex))) {
+                break;
+            }
+            MappedByteBuffer segment = segment(offset);
+            int position = (int) (offset % segmentSize);
+            int payload = position + Integer.BYTES <= segmentSize ? segment.getInt(position) : END_OF_SEGMENT;
+            if (payload == END_OF_SEGMENT) {
+                offset = (segmentIndex + 1) * segmentSize;
+                continue;
+            }
+            if (!isValidRecord(segment, position, payload)) {
+                // Zero-filled or partly written: either way the log ends here
+                break;
+            }
+            if (segment.get(position + ACK_FLAG) != ACKNOWLEDGED) {
+                ChannelType channelType = CHANNEL_TYPES[segment.get(position + CHANNEL)];
+                int recipientLength = segment.getInt(position + RECIPIENT_LENGTH);
+                byte[] recipient = new byte[recipientLength];
+                byte[] body = new byte[Integer.BYTES + payload - HEADER_BYTES - recipientLength];
+                segment.get(position + HEADER_BYTES, recipient);
+                segment.get(position + HEADER_BYTES + recipientLength, body);
+                unacknowledged.put(offset, new NotificationMessage(channelType,
+                        new String(recipient, StandardCharsets.UTF_8), new String(body, StandardCharsets.UTF_8)));
+            }
+            offset += Integer.BYTES + payload;
+        }
+        writeOffset = offset;
+    }
+
+    private boolean isValidRecord(MappedByteBuffer segment, int position, int payload) {
+        if (payload < HEADER_BYTES - Integer.BYTES || payload > segmentSize - position - Integer.BYTES) {
+            return false;
+        }
+        int channel = segment.get(position + CHANNEL);
+        int recipientLength = segment.getInt(position + RECIPIENT_LENGTH);
+        return channel >= 0 && channel < CHANNEL_TYPES.length
+                && recipientLength >= 0 && recipientLength <= Integer.BYTES + payload - HEADER_BYTES
+                && segment.getInt(position + CHECKSUM) == checksum(segment, position, payload);
+    }
+
+    private static int checksum(MappedByteBuffer segment, int position, int payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(segment.slice(position + CHANNEL, Integer.BYTES + payload - CHANNEL));
+        return (int) crc.getValue();
+    }
+
+    private void markDirty(long offset) {
+        dirty = true;
+        dirtyFromSegment = Math.min(dirtyFromSegment, offset / segmentSize);
+        notifyAll();
+    }
+
+    private MappedByteBuffer segment(long offset) {
+        long segmentIndex = offset / segmentSize;
+        MappedByteBuffer segment = segments.get(segmentIndex);
+        if (segment == null) {
+            try (FileChannel channel = FileChannel.open(segmentPath(segmentIndex),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            segments.put(segmentIndex, segment);
+        }
+        return segment;
+    }
+
+    private void deleteSegmentsBefore(long firstLiveSegment) {
+        while (!segments.isEmpty() && segments.firstKey() < firstLiveSegment) {
+            long segmentIndex = segments.pollFirstEntry().getKey();
+            try {
+                Files.deleteIfExists(segmentPath(segmentIndex));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void deleteSegmentFilesBefore(long segmentIndex) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "outbox-*.log")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (Long.parseLong(name.substring("outbox-".length(), name.length() - ".log".length())) < segmentIndex) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private Path segmentPath(long segmentIndex) {
+        return directory.resolve(String.format("outbox-%020d.log", segmentIndex));
+    }
+}
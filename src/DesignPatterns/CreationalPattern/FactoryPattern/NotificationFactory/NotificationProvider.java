@@ -0,0 +1,13 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.NotificationFactory;
+
+/**
+ * Service provider for additional notification channels. Implementations listed in
+ * META-INF/services are registered with {@link NotificationFactory} when it is first used.
+ */
+public interface NotificationProvider {
+
+    /**
+     * @return a stateless notification, shared by every caller of its channel
+     */
+    Notification getNotification();
+}
@@ -0,0 +1,13 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.NotificationFactory;
+
+/**
+ * Thrown when a notification is not attempted because its channel's circuit is open or the
+ * dispatcher was closed.
+ */
+public class NotificationRejectedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public NotificationRejectedException(String message) {
+        super(message);
+    }
+}
@@ -1,5 +1,7 @@
 package DesignPatterns.CreationalPattern.FactoryPattern.NotificationFactory;
 
+import java.util.concurrent.CompletableFuture;
+
 
 public class NotificationService {
     public static void main(String[] args) {
@@ -10,5 +12,16 @@ public class NotificationService {
         emailNotification.sendNotification();
         pushNotification.sendNotification();
         smsNotification.sendNotification();
+
+        try (NotificationDispatcher dispatcher = new NotificationDispatcher.Builder()
+                .concurrency(ChannelType.SMS, 2)
+                .build()) {
+            CompletableFuture.allOf(
+                    dispatcher.dispatch(emailNotification),
+                    dispatcher.dispatch(pushNotification),
+                    dispatcher.dispatch(smsNotification)
+            ).join();
+            dispatcher.dumpMetrics(System.out);
+        }
     }
 }
\ No newline at end of file
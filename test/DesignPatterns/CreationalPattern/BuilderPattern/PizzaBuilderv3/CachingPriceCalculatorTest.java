@@ -0,0 +1,82 @@
+package DesignPatterns.CreationalPattern.BuilderPattern.PizzaBuilderv3;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachingPriceCalculatorTest {
+
+    @Test
+    void answersRepeatedQuotesFromTheCache() {
+        PizzaPriceCalculator calculator = new PizzaPriceCalculator();
+        CachingPriceCalculator cache = new CachingPriceCalculator(calculator, 100);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(calculator.calculatePrice(pizza(3)), cache.calculatePrice(pizza(3)));
+        }
+        assertEquals(1, cache.getMissCount());
+        assertEquals(9, cache.getHitCount());
+    }
+
+    @Test
+    void evictsOnlyTheExcessAfterWarmHits() {
+        CachingPriceCalculator cache = new CachingPriceCalculator(new PizzaPriceCalculator(), 100);
+        for (int i = 0; i < 100; i++) {
+            cache.calculatePrice(pizza(i));
+        }
+        // Hits between two misses all share one recency stamp
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 100; i++) {
+                cache.calculatePrice(pizza(i));
+            }
+        }
+        assertEquals(100, cache.size());
+
+        cache.calculatePrice(pizza(100));
+
+        assertEquals(90, cache.size());
+        assertEquals(101, cache.getMissCount());
+    }
+
+    @Test
+    void keepsRecentlyUsedEntries() {
+        CachingPriceCalculator cache = new CachingPriceCalculator(new PizzaPriceCalculator(), 100);
+        for (int i = 0; i < 100; i++) {
+            cache.calculatePrice(pizza(i));
+        }
+        cache.calculatePrice(pizza(0));
+
+        cache.calculatePrice(pizza(100));
+
+        long misses = cache.getMissCount();
+        cache.calculatePrice(pizza(0));
+        cache.calculatePrice(pizza(100));
+        assertEquals(misses, cache.getMissCount());
+    }
+
+    @Test
+    void forgetsPricesWhenTheyChange() {
+        PizzaPriceCalculator calculator = new PizzaPriceCalculator();
+        CachingPriceCalculator cache = new CachingPriceCalculator(calculator, 100);
+        BigDecimal before = cache.calculatePrice(pizza(1));
+
+        calculator.setToppingPrice(ToppingType.CHEESE, new BigDecimal("1.25"));
+
+        assertEquals(0, cache.size());
+        BigDecimal after = cache.calculatePrice(pizza(1));
+        assertTrue(after.compareTo(before) > 0);
+        assertEquals(calculator.calculatePrice(pizza(1)), after);
+    }
+
+    // A distinct configuration per count of cheese
+    private static Pizza pizza(int cheese) {
+        Pizza.Builder builder = new Pizza.Builder().dough(DoughType.THIN_CRUST).sauce(SauceType.TOMATO);
+        for (int i = 0; i < cheese; i++) {
+            builder.addTopping(ToppingType.CHEESE);
+        }
+        return builder.build();
+    }
+}
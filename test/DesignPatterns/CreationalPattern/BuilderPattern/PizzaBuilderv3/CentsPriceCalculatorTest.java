@@ -0,0 +1,110 @@
+package DesignPatterns.CreationalPattern.BuilderPattern.PizzaBuilderv3;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CentsPriceCalculatorTest {
+
+    @Test
+    void pricesEveryPizzaLikeThePizzaPriceCalculator() {
+        PizzaPriceCalculator reference = new PizzaPriceCalculator();
+        CentsPriceCalculator cents = new CentsPriceCalculator();
+        for (DoughType dough : DoughType.values()) {
+            for (SauceType sauce : SauceType.values()) {
+                // Every subset of toppings, each subset doubled up to exercise the counts
+                for (int toppings = 0; toppings < 1 << ToppingType.values().length; toppings++) {
+                    Pizza pizza = pizza(dough, sauce, toppings);
+                    assertEquals(0, reference.calculatePrice(pizza).compareTo(cents.calculatePrice(pizza)), pizza.toString());
+                }
+            }
+        }
+    }
+
+    @Test
+    void startsFromAPriceTable() {
+        PizzaPriceCalculator reference = new PizzaPriceCalculator();
+        reference.applyMenu(menu -> menu
+                .setDoughPrice(DoughType.THIN_CRUST, new BigDecimal("4.10"))
+                .setToppingPrice(ToppingType.CHEESE, new BigDecimal("1.05")));
+        CentsPriceCalculator cents = new CentsPriceCalculator(reference.getPrices());
+
+        Pizza pizza = pizza(DoughType.THIN_CRUST, SauceType.PESTO, -1);
+        assertEquals(0, reference.calculatePrice(pizza).compareTo(cents.calculatePrice(pizza)));
+        assertEquals(410 + 175 + 2 * (50 + 50 + 100 + 75 + 65 + 105), cents.calculatePriceCents(pizza));
+    }
+
+    @Test
+    void rejectsSubCentPrices() {
+        CentsPriceCalculator cents = new CentsPriceCalculator();
+        assertThrows(IllegalArgumentException.class, () -> cents.setToppingPrice(ToppingType.OLIVES, new BigDecimal("0.125")));
+
+        PizzaPriceCalculator reference = new PizzaPriceCalculator();
+        reference.setToppingPrice(ToppingType.OLIVES, new BigDecimal("0.125"));
+        assertThrows(IllegalArgumentException.class, () -> new CentsPriceCalculator(reference.getPrices()));
+    }
+
+    @Test
+    void notifiesListenersOfEachChange() {
+        CentsPriceCalculator cents = new CentsPriceCalculator();
+        AtomicInteger changes = new AtomicInteger();
+        cents.addPriceChangeListener(changes::incrementAndGet);
+        Pizza pizza = pizza(DoughType.GLUTEN_FREE, SauceType.ALFREDO, 0);
+
+        cents.setDoughPrice(DoughType.GLUTEN_FREE, new BigDecimal("3.5"));
+        cents.setSaucePrice(SauceType.ALFREDO, new BigDecimal("2"));
+
+        assertEquals(2, changes.get());
+        assertEquals(new BigDecimal("5.50"), cents.calculatePrice(pizza));
+    }
+
+    @Test
+    void pricesABatchLikeEachPizzaOnItsOwn() {
+        CentsPriceCalculator cents = new CentsPriceCalculator();
+        Random random = new Random(42);
+        List<Pizza> pizzas = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            pizzas.add(pizza(DoughType.values()[random.nextInt(DoughType.values().length)],
+                    SauceType.values()[random.nextInt(SauceType.values().length)],
+                    random.nextInt(1 << ToppingType.values().length)));
+        }
+
+        long[] prices = new long[pizzas.size()];
+        long total = cents.calculatePricesCents(PizzaOrderBatch.of(pizzas), prices);
+
+        long expectedTotal = 0;
+        for (int i = 0; i < pizzas.size(); i++) {
+            long expected = cents.calculatePriceCents(pizzas.get(i));
+            assertEquals(expected, prices[i], "order " + i);
+            expectedTotal += expected;
+        }
+        assertEquals(expectedTotal, total);
+        assertArrayEquals(prices, cents.calculatePricesCents(pizzas));
+    }
+
+    @Test
+    void rejectsAPricesArraySmallerThanTheBatch() {
+        PizzaOrderBatch batch = PizzaOrderBatch.of(List.of(pizza(DoughType.THIN_CRUST, SauceType.TOMATO, 1),
+                pizza(DoughType.THIN_CRUST, SauceType.TOMATO, 2)));
+        assertThrows(IllegalArgumentException.class, () -> new CentsPriceCalculator().calculatePricesCents(batch, new long[1]));
+    }
+
+    // The set bits of toppings pick the toppings, each added twice
+    private static Pizza pizza(DoughType dough, SauceType sauce, int toppings) {
+        Pizza.Builder builder = new Pizza.Builder().dough(dough).sauce(sauce);
+        for (ToppingType topping : ToppingType.values()) {
+            if ((toppings & 1 << topping.ordinal()) != 0) {
+                builder.addTopping(topping).addTopping(topping);
+            }
+        }
+        return builder.build();
+    }
+}
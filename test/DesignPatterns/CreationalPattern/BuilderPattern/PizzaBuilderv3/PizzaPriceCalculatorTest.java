@@ -0,0 +1,90 @@
+package DesignPatterns.CreationalPattern.BuilderPattern.PizzaBuilderv3;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PizzaPriceCalculatorTest {
+
+    @Test
+    void publishesOneVersionPerMenuChange() {
+        PizzaPriceCalculator calculator = new PizzaPriceCalculator();
+        PriceTable before = calculator.getPrices();
+
+        PriceTable after = calculator.applyMenu(menu -> menu
+                .setDoughPrice(DoughType.THIN_CRUST, new BigDecimal("2.20"))
+                .setSaucePrice(SauceType.TOMATO, new BigDecimal("1.10")));
+
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        assertSame(after, calculator.getPrices());
+        // Earlier snapshots never change
+        assertEquals(new BigDecimal("2.00"), before.getDoughPrice(DoughType.THIN_CRUST));
+        assertEquals(new BigDecimal("2.20"), after.getDoughPrice(DoughType.THIN_CRUST));
+        assertEquals(before.getToppingPrice(ToppingType.CHEESE), after.getToppingPrice(ToppingType.CHEESE));
+
+        calculator.setToppingPrice(ToppingType.CHEESE, new BigDecimal("0.90"));
+        assertEquals(after.getVersion() + 1, calculator.getPrices().getVersion());
+    }
+
+    @Test
+    void quotesRecordTheVersionTheyWerePricedAgainst() {
+        PizzaPriceCalculator calculator = new PizzaPriceCalculator();
+        Pizza pizza = new Pizza.Builder().dough(DoughType.THICK_CRUST).sauce(SauceType.PESTO)
+                .addTopping(ToppingType.OLIVES).build();
+
+        PriceQuote first = calculator.calculateQuote(pizza);
+        calculator.setDoughPrice(DoughType.THICK_CRUST, new BigDecimal("3.00"));
+        PriceQuote second = calculator.calculateQuote(pizza);
+
+        assertEquals(new BigDecimal("4.90"), first.getPrice());
+        assertEquals(new BigDecimal("5.40"), second.getPrice());
+        assertEquals(first.getPriceVersion() + 1, second.getPriceVersion());
+    }
+
+    @Test
+    void publishesNothingWhenAMenuChangeFails() {
+        PizzaPriceCalculator calculator = new PizzaPriceCalculator();
+        PriceTable before = calculator.getPrices();
+
+        assertThrows(IllegalArgumentException.class, () -> calculator.applyMenu(menu -> menu
+                .setDoughPrice(DoughType.THIN_CRUST, new BigDecimal("9.99"))
+                .setSaucePrice(SauceType.TOMATO, null)));
+
+        assertSame(before, calculator.getPrices());
+    }
+
+    @Test
+    void quotesSeeAllOrNoneOfAMenuChange() throws InterruptedException {
+        PizzaPriceCalculator calculator = new PizzaPriceCalculator();
+        Pizza pizza = new Pizza.Builder().dough(DoughType.THIN_CRUST).sauce(SauceType.TOMATO).build();
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<PriceQuote> torn = new AtomicReference<>();
+        Thread quoter = new Thread(() -> {
+            while (running.get()) {
+                PriceQuote quote = calculator.calculateQuote(pizza);
+                // Every menu moves one unit from the dough to the sauce, keeping the total at 3.00
+                if (quote.getPrice().compareTo(new BigDecimal("3.00")) != 0) {
+                    torn.compareAndSet(null, quote);
+                }
+            }
+        });
+        quoter.start();
+        for (int i = 0; i < 10_000; i++) {
+            BigDecimal dough = BigDecimal.valueOf(i % 200, 2);
+            calculator.applyMenu(menu -> menu
+                    .setDoughPrice(DoughType.THIN_CRUST, dough)
+                    .setSaucePrice(SauceType.TOMATO, new BigDecimal("3.00").subtract(dough)));
+        }
+        running.set(false);
+        quoter.join();
+
+        assertNull(torn.get());
+    }
+}
@@ -0,0 +1,73 @@
+package DesignPatterns.CreationalPattern.BuilderPattern.PizzaBuilderv3;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PizzaTest {
+
+    @Test
+    void countsToppingsWithoutKeepingThemInOrder() {
+        Pizza pizza = new Pizza.Builder()
+                .dough(DoughType.THIN_CRUST)
+                .sauce(SauceType.TOMATO)
+                .addTopping(ToppingType.CHEESE)
+                .addTopping(ToppingType.OLIVES)
+                .addTopping(ToppingType.CHEESE)
+                .build();
+        assertEquals(2, pizza.getToppingCount(ToppingType.CHEESE));
+        assertEquals(3, pizza.getToppingTotal());
+        assertEquals(pizza, new Pizza.Builder()
+                .dough(DoughType.THIN_CRUST)
+                .sauce(SauceType.TOMATO)
+                .addTopping(ToppingType.OLIVES)
+                .addTopping(ToppingType.CHEESE)
+                .addTopping(ToppingType.CHEESE)
+                .build());
+    }
+
+    @Test
+    void rejectsMoreThanTheMaximumOfATopping() {
+        Pizza.Builder builder = new Pizza.Builder();
+        for (int i = 0; i < Pizza.MAX_TOPPING_COUNT; i++) {
+            builder.addTopping(ToppingType.ONION);
+        }
+        assertThrows(IllegalArgumentException.class, () -> builder.addTopping(ToppingType.ONION));
+    }
+
+    @Test
+    void sharesInternedInstancesUpToTheCap() {
+        Pizza first = interned(0);
+        assertSame(first, interned(0));
+
+        // Fill the cache whatever other tests interned before
+        int shared = 0;
+        for (int i = 1; i <= Pizza.MAX_INTERNED; i++) {
+            if (interned(i) == interned(i)) {
+                shared++;
+            }
+        }
+        assertTrue(shared < Pizza.MAX_INTERNED);
+
+        Pizza late = interned(Pizza.MAX_INTERNED + 1);
+        assertEquals(late, interned(Pizza.MAX_INTERNED + 1));
+        assertNotSame(late, interned(Pizza.MAX_INTERNED + 1));
+        assertSame(first, interned(0));
+    }
+
+    // A distinct configuration per i, from the onion and olive counts
+    private static Pizza interned(int i) {
+        Pizza.Builder builder = new Pizza.Builder().dough(DoughType.THICK_CRUST).sauce(SauceType.PESTO).intern(true);
+        for (int n = 0; n < i % 200; n++) {
+            builder.addTopping(ToppingType.ONION);
+        }
+        for (int n = 0; n < i / 200; n++) {
+            builder.addTopping(ToppingType.OLIVES);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,70 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AdaptiveSamplingPolicyTest {
+
+    @Test
+    void growsTheIntervalOfAFlatSignal() {
+        AdaptiveSamplingPolicy policy = AdaptiveSamplingPolicy.builder().intervals(100, 10_000).build();
+        AdaptiveSamplingPolicy.SignalStats stats = new AdaptiveSamplingPolicy.SignalStats();
+        long interval = 1000;
+        for (int i = 0; i < 50; i++) {
+            interval = policy.nextInterval(SensorType.PRESSURE, stats, 1013, interval);
+        }
+        assertEquals(10_000, interval);
+    }
+
+    @Test
+    void readsAtTheMinimumIntervalNearAThreshold() {
+        AdaptiveSamplingPolicy policy = AdaptiveSamplingPolicy.builder()
+                .intervals(100, 10_000)
+                .thresholds(SensorType.HUMIDITY, 1, 64)
+                .build();
+        AdaptiveSamplingPolicy.SignalStats stats = new AdaptiveSamplingPolicy.SignalStats();
+        assertEquals(100, policy.nextInterval(SensorType.HUMIDITY, stats, 63.5, 5000));
+    }
+
+    @Test
+    void shrinksTheIntervalOnAJump() {
+        AdaptiveSamplingPolicy policy = AdaptiveSamplingPolicy.builder().intervals(100, 10_000).build();
+        AdaptiveSamplingPolicy.SignalStats stats = new AdaptiveSamplingPolicy.SignalStats();
+        for (int i = 0; i < 20; i++) {
+            policy.nextInterval(SensorType.PRESSURE, stats, 1013 + (i % 2) * 0.1, 1000);
+        }
+        assertEquals(500, policy.nextInterval(SensorType.PRESSURE, stats, 1050, 1000));
+    }
+
+    @Test
+    void measuresASignalNearZeroAgainstItsScale() {
+        // Small noise around 0 degrees: huge relative to the mean, tiny relative to the range
+        double[] readings = {0.05, -0.05};
+        AdaptiveSamplingPolicy byMean = AdaptiveSamplingPolicy.builder().intervals(100, 10_000).build();
+        AdaptiveSamplingPolicy byScale = AdaptiveSamplingPolicy.builder()
+                .intervals(100, 10_000)
+                .scale(SensorType.TEMPERATURE, 100)
+                .build();
+
+        assertEquals(100, run(byMean, readings));
+        assertEquals(10_000, run(byScale, readings));
+    }
+
+    @Test
+    void rejectsANonPositiveScale() {
+        AdaptiveSamplingPolicy.Builder builder = AdaptiveSamplingPolicy.builder();
+        assertThrows(IllegalArgumentException.class, () -> builder.scale(SensorType.TEMPERATURE, 0));
+        assertThrows(IllegalArgumentException.class, () -> builder.scale(SensorType.TEMPERATURE, Double.NaN));
+    }
+
+    private static long run(AdaptiveSamplingPolicy policy, double[] readings) {
+        AdaptiveSamplingPolicy.SignalStats stats = new AdaptiveSamplingPolicy.SignalStats();
+        long interval = 1000;
+        for (int i = 0; i < 50; i++) {
+            interval = policy.nextInterval(SensorType.TEMPERATURE, stats, readings[i % readings.length], interval);
+        }
+        return interval;
+    }
+}
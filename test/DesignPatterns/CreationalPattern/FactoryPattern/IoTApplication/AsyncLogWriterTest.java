@@ -0,0 +1,57 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.logging.Level;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncLogWriterTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writesEveryRecordInOrder() throws Exception {
+        Path file = directory.resolve("sensor.log");
+        try (AsyncLogWriter writer = new AsyncLogWriter(file, 64, AsyncLogWriter.OverflowPolicy.BLOCK)) {
+            for (int i = 0; i < 1000; i++) {
+                assertTrue(writer.offer(Level.INFO, "Reading {0}", new Object[]{i}));
+            }
+        }
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(1000, lines.size());
+        assertTrue(lines.get(0).endsWith("INFO Reading 0"));
+        assertTrue(lines.get(999).endsWith("INFO Reading 999"));
+    }
+
+    @Test
+    void keepsWritingAfterARecordFailsToFormat() throws Exception {
+        Path file = directory.resolve("sensor.log");
+        AsyncLogWriter writer = new AsyncLogWriter(file, 64, AsyncLogWriter.OverflowPolicy.BLOCK);
+        writer.offer(Level.WARNING, "Unbalanced {0", new Object[]{1});
+        writer.offer(Level.INFO, "Throwing {0}", new Object[]{new Object() {
+            @Override
+            public String toString() {
+                throw new IllegalStateException("no text");
+            }
+        }});
+        writer.offer(Level.INFO, "Still {0}", new Object[]{"running"});
+        writer.close();
+
+        assertEquals(2, writer.getFormatFailureCount());
+        assertEquals(0, writer.getDroppedCount());
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).contains("WARNING Unbalanced {0 [unformatted: "));
+        assertTrue(lines.get(1).contains("Throwing {0} [unformatted: "));
+        assertTrue(lines.get(2).endsWith("INFO Still running"));
+        assertFalse(lines.get(2).contains("unformatted"));
+    }
+}
@@ -0,0 +1,68 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GorillaChunkTest {
+
+    @Test
+    void decodesEverySampleItEncoded() {
+        Random random = new Random(42);
+        long[] timestamps = new long[GorillaChunk.MAX_SAMPLES];
+        double[] values = new double[GorillaChunk.MAX_SAMPLES];
+        long timestamp = 1_700_000_000_000L;
+        for (int i = 0; i < timestamps.length; i++) {
+            // Mostly regular ticks with jitter, a few gaps and a step backwards
+            timestamp += i % 17 == 0 ? -250 : i % 11 == 0 ? 60_000 : 1000 + random.nextInt(5);
+            timestamps[i] = timestamp;
+            values[i] = i % 5 == 0 ? values[Math.max(0, i - 1)] : random.nextGaussian() * 1e6;
+        }
+        values[7] = Double.NaN;
+        values[8] = Double.NEGATIVE_INFINITY;
+        values[9] = -0.0;
+
+        GorillaChunk chunk = new GorillaChunk();
+        for (int i = 0; i < timestamps.length; i++) {
+            assertTrue(chunk.append(timestamps[i], values[i]));
+        }
+        assertTrue(chunk.isFull());
+        assertFalse(chunk.append(timestamp + 1000, 1));
+
+        List<long[]> decoded = new ArrayList<>();
+        GorillaChunk.decode(chunk.getWords().clone(), chunk.getCount(),
+                (t, v) -> decoded.add(new long[]{t, Double.doubleToRawLongBits(v)}));
+        assertEquals(timestamps.length, decoded.size());
+        for (int i = 0; i < timestamps.length; i++) {
+            assertEquals(timestamps[i], decoded.get(i)[0], "timestamp " + i);
+            assertEquals(Double.doubleToRawLongBits(values[i]), decoded.get(i)[1], "value " + i);
+        }
+        assertEquals(timestamps[0], chunk.getFirstTimestamp());
+        assertEquals(timestamps[timestamps.length - 1], chunk.getLastTimestamp());
+    }
+
+    @Test
+    void compressesRegularSamples() {
+        GorillaChunk chunk = new GorillaChunk();
+        for (int i = 0; i < GorillaChunk.MAX_SAMPLES; i++) {
+            chunk.append(1000L * i, 21.5);
+        }
+        // 128 bits for the first sample, the first delta, then one bit each for delta-of-delta and value
+        assertTrue(chunk.getBitLength() <= 128 + 32 + 2 * (GorillaChunk.MAX_SAMPLES - 1), "bits " + chunk.getBitLength());
+    }
+
+    @Test
+    void decodesNothingFromAnEmptyChunk() {
+        GorillaChunk chunk = new GorillaChunk();
+        chunk.decode((t, v) -> {
+            throw new AssertionError("Unexpected sample");
+        });
+        assertEquals(0, chunk.getCount());
+    }
+}
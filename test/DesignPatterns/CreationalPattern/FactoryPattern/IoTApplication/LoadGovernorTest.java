@@ -0,0 +1,52 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadGovernorTest {
+    private static final long MILLIS = 1_000_000;
+
+    @Test
+    void stretchesWhileTicksRunLateAndRecovers() {
+        LoadGovernor governor = new LoadGovernor(10, 4, 1);
+        for (int i = 0; i < 1000; i++) {
+            governor.recordLag(50 * MILLIS);
+        }
+        assertEquals(4, governor.getStretch());
+        assertEquals(50, governor.getAverageLagMillis(), 0.01);
+
+        for (int i = 0; i < 1000; i++) {
+            governor.recordLag(0);
+        }
+        assertEquals(1, governor.getStretch());
+    }
+
+    @Test
+    void leavesIntervalsAloneBetweenHalfAndFullTarget() {
+        LoadGovernor governor = new LoadGovernor(10, 4, 1);
+        for (int i = 0; i < 1000; i++) {
+            governor.recordLag(7 * MILLIS);
+        }
+        assertEquals(1, governor.getStretch());
+    }
+
+    @Test
+    void sampledLagsStillReachTheTarget() {
+        LoadGovernor governor = new LoadGovernor(10, 4, 8);
+        for (int i = 0; i < 8 * 1000; i++) {
+            governor.recordLag(50 * MILLIS);
+        }
+        assertEquals(4, governor.getStretch());
+        assertTrue(governor.getAverageLagMillis() > 10);
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new LoadGovernor(0, 4));
+        assertThrows(IllegalArgumentException.class, () -> new LoadGovernor(10, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> new LoadGovernor(10, 4, 0));
+    }
+}
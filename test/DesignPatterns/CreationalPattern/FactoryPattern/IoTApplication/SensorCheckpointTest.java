@@ -0,0 +1,105 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SensorCheckpointTest {
+    // Header, then the first record's uuid before its sensor type, and the fields up to its name length
+    private static final int SENSOR_TYPE = 4 + 4 + 8 + 4 + 16;
+    private static final int NAME_LENGTH = SENSOR_TYPE + 1 + 1 + 4 + 8 + 8;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void restoresEverySensorItWrote() throws IOException {
+        Sensor humidity = SensorFactory.getSensor("Humidité", SensorType.HUMIDITY);
+        Sensor pressure = SensorFactory.getSensor("PRESSURE", SensorType.PRESSURE);
+        ((AbstractSensor) humidity).restoreLastReading(1_700_000_000_000L, 42.5);
+        Path file = directory.resolve("sensors.ckpt");
+
+        assertEquals(2, SensorCheckpoint.write(file, List.of(
+                new SensorRegistration(humidity, 3000, null),
+                new SensorRegistration(pressure, 8000, null))));
+
+        List<SensorCheckpoint.Entry> entries = SensorCheckpoint.read(file);
+        assertEquals(2, entries.size());
+        SensorCheckpoint.Entry restored = entries.get(0);
+        assertEquals(humidity.getSensorUUID(), restored.sensorUUID);
+        assertEquals(SensorType.HUMIDITY, restored.sensorType);
+        assertEquals("Humidité", restored.sensorName);
+        assertFalse(restored.running);
+        assertEquals(3000, restored.interval);
+        assertEquals(1_700_000_000_000L, restored.lastReadingTime);
+        assertEquals(42.5, restored.lastReading);
+        assertEquals(pressure.getSensorUUID(), entries.get(1).sensorUUID);
+        assertTrue(Double.isNaN(entries.get(1).lastReading));
+    }
+
+    @Test
+    void keepsThePreviousCheckpointWhenAWriteIsInterrupted() throws IOException {
+        Sensor humidity = SensorFactory.getSensor("HUMIDITY", SensorType.HUMIDITY);
+        Path file = directory.resolve("sensors.ckpt");
+        SensorCheckpoint.write(file, List.of(new SensorRegistration(humidity, 3000, null)));
+        // A crash mid-write leaves a partial temporary file next to the checkpoint
+        Files.write(directory.resolve("sensors.ckpt.tmp"), new byte[]{0x53, 0x43});
+
+        assertEquals(humidity.getSensorUUID(), SensorCheckpoint.read(file).get(0).sensorUUID);
+        assertEquals(1, SensorCheckpoint.write(file, List.of(new SensorRegistration(humidity, 6000, null))));
+        assertEquals(6000, SensorCheckpoint.read(file).get(0).interval);
+    }
+
+    @Test
+    void rejectsOtherFiles() throws IOException {
+        Path file = Files.write(directory.resolve("other.bin"), new byte[64]);
+        assertThrows(IllegalArgumentException.class, () -> SensorCheckpoint.read(file));
+    }
+
+    @Test
+    void rejectsAnImpossibleSensorType() throws IOException {
+        Path file = writeOneSensor();
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[SENSOR_TYPE] = 99;
+        Files.write(file, bytes);
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> SensorCheckpoint.read(file));
+        assertTrue(error.getMessage().contains("sensor type 99"), error.getMessage());
+    }
+
+    @Test
+    void rejectsANegativeNameLength() throws IOException {
+        Path file = writeOneSensor();
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[NAME_LENGTH] = (byte) 0xFF;
+        Files.write(file, bytes);
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> SensorCheckpoint.read(file));
+        assertTrue(error.getMessage().contains("name length"), error.getMessage());
+    }
+
+    @Test
+    void rejectsATruncatedCheckpoint() throws IOException {
+        Path file = writeOneSensor();
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 4));
+
+        assertThrows(IllegalArgumentException.class, () -> SensorCheckpoint.read(file));
+    }
+
+    private Path writeOneSensor() throws IOException {
+        Path file = directory.resolve("sensors.ckpt");
+        SensorCheckpoint.write(file, List.of(new SensorRegistration(SensorFactory.getSensor("HUMIDITY", SensorType.HUMIDITY), 3000, null)));
+        return file;
+    }
+}
@@ -0,0 +1,40 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SensorFactoryTest {
+
+    @Test
+    void createsEachRegisteredType() {
+        assertInstanceOf(HumiditySensor.class, SensorFactory.getSensor("h", SensorType.HUMIDITY));
+        assertInstanceOf(TemperatureSensor.class, SensorFactory.getSensor("t", SensorType.TEMPERATURE));
+        assertInstanceOf(PressureSensor.class, SensorFactory.getSensor("p", SensorType.PRESSURE));
+    }
+
+    @Test
+    void keepsTheGivenIdentity() {
+        UUID sensorUUID = UUID.randomUUID();
+        Sensor sensor = SensorFactory.getSensor("restored", SensorType.PRESSURE, sensorUUID);
+        assertEquals(sensorUUID, sensor.getSensorUUID());
+        assertEquals("restored", sensor.getSensorName());
+        assertEquals(SensorType.PRESSURE, sensor.getSensorType());
+    }
+
+    @Test
+    void usesTheLatestRegisteredConstructor() {
+        Sensor custom = new HumiditySensor("custom");
+        try {
+            SensorFactory.register(SensorType.HUMIDITY, (name, uuid) -> custom);
+            assertSame(custom, SensorFactory.getSensor("any", SensorType.HUMIDITY));
+        } finally {
+            SensorFactory.register(SensorType.HUMIDITY, HumiditySensor::new);
+        }
+        assertInstanceOf(HumiditySensor.class, SensorFactory.getSensor("h", SensorType.HUMIDITY));
+    }
+}
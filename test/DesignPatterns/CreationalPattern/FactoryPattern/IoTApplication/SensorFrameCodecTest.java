@@ -0,0 +1,33 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SensorFrameCodecTest {
+
+    @Test
+    void decodesFramesWrittenBackToBack() {
+        SensorType[] types = SensorType.values();
+        UUID[] sensors = new UUID[10];
+        ByteBuffer datagram = ByteBuffer.allocate(sensors.length * SensorFrameCodec.FRAME_BYTES);
+        for (int i = 0; i < sensors.length; i++) {
+            sensors[i] = UUID.randomUUID();
+            SensorFrameCodec.encode(datagram, sensors[i].getMostSignificantBits(), sensors[i].getLeastSignificantBits(),
+                    types[i % types.length], 1_700_000_000_000L + i, i == 3 ? Double.NaN : i * -1.5);
+        }
+        assertEquals(datagram.capacity(), datagram.position());
+
+        for (int i = 0; i < sensors.length; i++) {
+            int frame = i * SensorFrameCodec.FRAME_BYTES;
+            assertEquals(sensors[i], new UUID(SensorFrameCodec.uuidMostSigBits(datagram, frame),
+                    SensorFrameCodec.uuidLeastSigBits(datagram, frame)));
+            assertEquals(types[i % types.length].ordinal(), SensorFrameCodec.sensorTypeOrdinal(datagram, frame));
+            assertEquals(1_700_000_000_000L + i, SensorFrameCodec.timestamp(datagram, frame));
+            assertEquals(i == 3 ? Double.NaN : i * -1.5, SensorFrameCodec.value(datagram, frame));
+        }
+    }
+}
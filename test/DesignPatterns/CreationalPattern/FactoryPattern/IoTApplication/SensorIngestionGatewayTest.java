@@ -0,0 +1,66 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SensorIngestionGatewayTest {
+
+    @Test
+    void publishesEveryFrameAndCountsMalformedOnes() throws Exception {
+        SensorPipeline pipeline = new SensorPipeline(1 << 10, 256);
+        UUID sensor = UUID.randomUUID();
+        try (SensorIngestionGateway gateway = new SensorIngestionGateway(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), pipeline);
+             DatagramChannel device = DatagramChannel.open()) {
+            ByteBuffer frames = ByteBuffer.allocate(3 * SensorFrameCodec.FRAME_BYTES);
+            for (int i = 0; i < 3; i++) {
+                SensorFrameCodec.encode(frames, sensor.getMostSignificantBits(), sensor.getLeastSignificantBits(),
+                        SensorType.PRESSURE, 1000 + i, i);
+            }
+            device.send(frames.flip(), gateway.getLocalAddress());
+            // Not a whole number of frames
+            device.send(ByteBuffer.allocate(SensorFrameCodec.FRAME_BYTES + 1), gateway.getLocalAddress());
+
+            awaitCounts(gateway, 3, 1);
+            List<Long> timestamps = new ArrayList<>();
+            pipeline.drainTo((sensorType, msb, lsb, timestamp, value) -> {
+                assertEquals(SensorType.PRESSURE, sensorType);
+                assertEquals(sensor, new UUID(msb, lsb));
+                timestamps.add(timestamp);
+            });
+            assertEquals(List.of(1000L, 1001L, 1002L), timestamps);
+            assertEquals(0, gateway.getReceiveErrorCount());
+        }
+    }
+
+    private static void awaitCounts(SensorIngestionGateway gateway, long accepted, long malformed) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while ((gateway.getAcceptedCount() < accepted || gateway.getMalformedCount() < malformed)
+                && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(accepted, gateway.getAcceptedCount());
+        assertEquals(malformed, gateway.getMalformedCount());
+    }
+
+    @Test
+    void stopsItsReceiverOnClose() throws IOException {
+        SensorIngestionGateway gateway = new SensorIngestionGateway(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), new SensorPipeline(1 << 4, 16));
+        gateway.close();
+        assertTrue(Thread.getAllStackTraces().keySet().stream()
+                .noneMatch(thread -> thread.getName().equals("sensor-ingestion-gateway") && thread.isAlive()));
+        assertEquals(0, gateway.getReceiveErrorCount());
+    }
+}
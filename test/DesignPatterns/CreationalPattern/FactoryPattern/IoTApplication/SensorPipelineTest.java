@@ -0,0 +1,61 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SensorPipelineTest {
+
+    @Test
+    void keepsDrainingAfterTheHandlerThrows() throws InterruptedException {
+        SensorPipeline pipeline = new SensorPipeline(1 << 6, 16);
+        CountDownLatch delivered = new CountDownLatch(1);
+        pipeline.start((sensorType, msb, lsb, timestamp, value) -> {
+            if (lsb == 0) {
+                throw new IllegalStateException("disk full");
+            }
+            delivered.countDown();
+        }, "sensor-pipeline-test");
+        try {
+            pipeline.publish(SensorType.TEMPERATURE, 0, 0, 1, 20.0);
+            pipeline.publish(SensorType.TEMPERATURE, 0, 1, 2, 21.0);
+
+            assertTrue(delivered.await(5, TimeUnit.SECONDS));
+            assertEquals(1, pipeline.getHandlerFailureCount());
+        } finally {
+            pipeline.stop();
+        }
+    }
+
+    @Test
+    void passesRemovalsOnAfterTheReadingsDrainedBeforeThem() {
+        SensorPipeline pipeline = new SensorPipeline(1 << 6, 16);
+        UUID sensor = UUID.randomUUID();
+        List<String> events = new ArrayList<>();
+        SensorReadingHandler handler = new SensorReadingHandler() {
+            @Override
+            public void onReading(SensorType sensorType, long msb, long lsb, long timestamp, double value) {
+                events.add("reading " + timestamp);
+            }
+
+            @Override
+            public void onSensorRemoved(long msb, long lsb) {
+                events.add("removed " + new UUID(msb, lsb));
+            }
+        };
+        pipeline.publish(SensorType.HUMIDITY, sensor.getMostSignificantBits(), sensor.getLeastSignificantBits(), 1, 1.0);
+        pipeline.removeSensor(sensor);
+
+        pipeline.drainTo(handler);
+        pipeline.drainTo(handler);
+
+        assertEquals(List.of("reading 1", "removed " + sensor), events);
+    }
+}
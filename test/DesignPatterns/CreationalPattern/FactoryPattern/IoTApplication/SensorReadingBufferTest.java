@@ -0,0 +1,87 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SensorReadingBufferTest {
+
+    @Test
+    void deliversEveryReadingFromConcurrentProducersInPublishOrder() throws InterruptedException {
+        SensorReadingBuffer buffer = new SensorReadingBuffer(SensorType.TEMPERATURE, 1 << 10);
+        int producers = 4;
+        int perProducer = 20_000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(producer, i, i, i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        long[] lastSeen = {-1, -1, -1, -1};
+        Set<Long> seen = new HashSet<>();
+        SensorReadingHandler handler = (sensorType, msb, lsb, timestamp, value) -> {
+            assertTrue(lsb > lastSeen[(int) msb], "reading out of order for producer " + msb);
+            lastSeen[(int) msb] = lsb;
+            seen.add(msb * perProducer + lsb);
+        };
+        while (seen.size() < producers * perProducer) {
+            buffer.drain(handler, 256);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void dropsAndCountsReadingsWhenFull() {
+        SensorReadingBuffer buffer = new SensorReadingBuffer(SensorType.HUMIDITY, 4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(0, i, i, i));
+        }
+        assertFalse(buffer.offer(0, 4, 4, 4));
+        assertEquals(1, buffer.getDroppedCount());
+
+        assertEquals(4, buffer.drain((sensorType, msb, lsb, timestamp, value) -> { }, 16));
+        assertTrue(buffer.offer(0, 5, 5, 5));
+    }
+
+    @Test
+    void skipsAReadingWhoseHandlerThrows() {
+        SensorReadingBuffer buffer = new SensorReadingBuffer(SensorType.HUMIDITY, 8);
+        for (int i = 0; i < 3; i++) {
+            buffer.offer(0, i, i, i);
+        }
+        SensorReadingHandler failing = (sensorType, msb, lsb, timestamp, value) -> {
+            if (lsb == 1) {
+                throw new IllegalStateException("bad reading");
+            }
+        };
+        assertThrows(IllegalStateException.class, () -> buffer.drain(failing, 16));
+
+        List<Long> rest = new ArrayList<>();
+        buffer.drain((sensorType, msb, lsb, timestamp, value) -> rest.add(lsb), 16);
+        assertEquals(List.of(2L), rest);
+    }
+
+    @Test
+    void rejectsACapacityThatIsNotAPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new SensorReadingBuffer(SensorType.HUMIDITY, 3));
+    }
+}
@@ -0,0 +1,120 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SensorSchedulerTest {
+
+    @Test
+    void drivesManySensorsFromAFixedPool() throws InterruptedException {
+        SensorScheduler scheduler = SensorScheduler.pooled(2);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        CountDownLatch ticks = new CountDownLatch(200 * 3);
+        try {
+            for (int i = 0; i < 200; i++) {
+                scheduler.schedule(new CountingSensor(() -> {
+                    threads.add(Thread.currentThread().getName());
+                    ticks.countDown();
+                }), 0, 5);
+            }
+            assertTrue(ticks.await(10, TimeUnit.SECONDS));
+        } finally {
+            scheduler.shutdown();
+        }
+        assertTrue(threads.size() <= 2, "ticked on " + threads);
+    }
+
+    @Test
+    void stopsTickingACancelledTask() throws InterruptedException {
+        SensorScheduler scheduler = SensorScheduler.pooled(1);
+        AtomicInteger reads = new AtomicInteger();
+        try {
+            SensorTask task = scheduler.schedule(new CountingSensor(reads::incrementAndGet), 0, 5);
+            awaitReads(reads, 3);
+            task.cancel();
+            assertTrue(task.isCancelled());
+            Thread.sleep(20);
+            int afterCancel = reads.get();
+            Thread.sleep(50);
+            assertEquals(afterCancel, reads.get());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void keepsThePendingTickWhenTheIntervalChanges() throws InterruptedException {
+        SensorScheduler scheduler = SensorScheduler.pooled(1);
+        AtomicInteger reads = new AtomicInteger();
+        try {
+            SensorTask task = scheduler.schedule(new CountingSensor(reads::incrementAndGet), 0, 60_000);
+            awaitReads(reads, 1);
+            task.setInterval(5);
+            assertEquals(5, task.getInterval());
+            // The tick already scheduled a minute out is not moved
+            Thread.sleep(50);
+            assertEquals(1, reads.get());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void rejectsReadLimitsWithoutAReadExecutor() {
+        SensorScheduler scheduler = SensorScheduler.pooled(1);
+        try {
+            assertThrows(IllegalStateException.class, () -> scheduler.setReadTimeout(100));
+            assertThrows(IllegalStateException.class, () -> scheduler.setMaxReadsInFlight(SensorType.HUMIDITY, 1));
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    private static void awaitReads(AtomicInteger reads, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (reads.get() < count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(reads.get() >= count);
+    }
+
+    private static final class CountingSensor implements Sensor {
+        private final UUID sensorUUID = UUID.randomUUID();
+        private final Runnable onRead;
+
+        CountingSensor(Runnable onRead) {
+            this.onRead = onRead;
+        }
+
+        @Override
+        public double read() {
+            onRead.run();
+            return 0;
+        }
+
+        @Override
+        public UUID getSensorUUID() {
+            return sensorUUID;
+        }
+
+        @Override
+        public SensorType getSensorType() {
+            return SensorType.TEMPERATURE;
+        }
+
+        @Override
+        public String getSensorName() {
+            return "counting";
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SensorTimeSeriesStoreTest {
+    // Room for one full chunk and the end marker, so every few chunks start a new file
+    private static final int FILE_SIZE = 52 + GorillaChunk.MAX_SAMPLES * 32 + 64;
+    // Record header: magic, checksum, uuid, sensor type, first and last timestamp, sample and word count
+    private static final int HEADER_BYTES = 4 + 4 + 16 + 4 + 8 + 8 + 4 + 4;
+    private static final int SENSOR_TYPE = 24;
+    private static final int WORD_COUNT = 48;
+
+    private final UUID humidity = UUID.randomUUID();
+    private final UUID pressure = UUID.randomUUID();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void queriesSamplesAcrossChunksAndFiles() throws IOException {
+        try (SensorTimeSeriesStore store = new SensorTimeSeriesStore(directory, FILE_SIZE)) {
+            fill(store, 10_000);
+
+            assertEquals(10_000, count(store, humidity, 0, Long.MAX_VALUE));
+            assertEquals(100, count(store, humidity, 50_000, 51_000));
+            assertEquals(List.of(99_990L), timestamps(store, humidity, 99_990, 100_000));
+            assertEquals(10_000, count(store, pressure, 0, Long.MAX_VALUE));
+            assertEquals(0, count(store, UUID.randomUUID(), 0, Long.MAX_VALUE));
+        }
+    }
+
+    @Test
+    void reopensWithEveryClosedSample() throws IOException {
+        try (SensorTimeSeriesStore store = new SensorTimeSeriesStore(directory, FILE_SIZE)) {
+            fill(store, 1000);
+        }
+        try (SensorTimeSeriesStore store = new SensorTimeSeriesStore(directory, FILE_SIZE)) {
+            assertEquals(1000, count(store, humidity, 0, Long.MAX_VALUE));
+            assertEquals(1000, count(store, pressure, 0, Long.MAX_VALUE));
+            store.append(SensorType.HUMIDITY, humidity.getMostSignificantBits(), humidity.getLeastSignificantBits(), 10_000, 1);
+        }
+        try (SensorTimeSeriesStore store = new SensorTimeSeriesStore(directory, FILE_SIZE)) {
+            assertEquals(1001, count(store, humidity, 0, Long.MAX_VALUE));
+        }
+    }
+
+    @Test
+    void recoversFlushedChunksWhenNotClosed() throws IOException {
+        // Simulates a crash: the store is dropped without close(), losing only the in-memory head chunks
+        SensorTimeSeriesStore crashed = new SensorTimeSeriesStore(directory, FILE_SIZE);
+        fill(crashed, 1000);
+
+        int flushed = 1000 / GorillaChunk.MAX_SAMPLES * GorillaChunk.MAX_SAMPLES;
+        try (SensorTimeSeriesStore store = new SensorTimeSeriesStore(directory, FILE_SIZE)) {
+            assertEquals(flushed, count(store, humidity, 0, Long.MAX_VALUE));
+            // Appends continue after the recovered chunks without overwriting them
+            fill(store, 1000);
+            assertEquals(flushed + 1000, count(store, humidity, 0, Long.MAX_VALUE));
+        }
+    }
+
+    @Test
+    void stopsRecoveryAtAChunkThatFailsItsChecksum() throws IOException {
+        fillAndClose(1000);
+        // Flip a byte of the second record's words, as a chunk only partly on disk after a crash would look
+        int second = recordSize(0);
+        writeByte(second + HEADER_BYTES, (byte) ~readBytes(second + HEADER_BYTES, 1).get(0));
+
+        assertRecoversOnlyTheFirstChunk();
+    }
+
+    @Test
+    void stopsRecoveryAtAnImpossibleSensorType() throws IOException {
+        fillAndClose(1000);
+        ByteBuffer ordinal = ByteBuffer.allocate(Integer.BYTES).putInt(0, 99);
+        write(recordSize(0) + SENSOR_TYPE, ordinal);
+
+        assertRecoversOnlyTheFirstChunk();
+    }
+
+    @Test
+    void flushesARemovedSensorAndKeepsItQueryable() throws IOException {
+        try (SensorTimeSeriesStore store = new SensorTimeSeriesStore(directory, FILE_SIZE)) {
+            fill(store, 10);
+            store.onSensorRemoved(humidity.getMostSignificantBits(), humidity.getLeastSignificantBits());
+            assertEquals(10, count(store, humidity, 0, Long.MAX_VALUE));
+
+            // A sensor added back carries on with the same series
+            store.append(SensorType.HUMIDITY, humidity.getMostSignificantBits(), humidity.getLeastSignificantBits(), 1000, 1);
+            assertEquals(11, count(store, humidity, 0, Long.MAX_VALUE));
+        }
+        // The head chunk was written on removal, not only on close
+        SensorTimeSeriesStore crashed = new SensorTimeSeriesStore(directory, FILE_SIZE);
+        crashed.onSensorRemoved(pressure.getMostSignificantBits(), pressure.getLeastSignificantBits());
+        try (SensorTimeSeriesStore store = new SensorTimeSeriesStore(directory, FILE_SIZE)) {
+            assertEquals(11, count(store, humidity, 0, Long.MAX_VALUE));
+        }
+    }
+
+    @Test
+    void aggregatesWindows() throws IOException {
+        try (SensorTimeSeriesStore store = new SensorTimeSeriesStore(directory, FILE_SIZE)) {
+            fill(store, 1000);
+
+            List<SensorTimeSeriesStore.WindowAggregate> windows = store.aggregate(humidity, 0, 10_000, 5000);
+            assertEquals(2, windows.size());
+            assertEquals(500, windows.get(0).getCount());
+            assertEquals(0, windows.get(0).getMin());
+            assertEquals(499, windows.get(0).getMax());
+            assertEquals(749.5, windows.get(1).getAverage());
+            assertThrows(IllegalArgumentException.class, () -> store.aggregate(humidity, 10, 10, 5000));
+        }
+    }
+
+    // The first chunk flushed holds humidity's first MAX_SAMPLES samples
+    private void assertRecoversOnlyTheFirstChunk() throws IOException {
+        try (SensorTimeSeriesStore store = new SensorTimeSeriesStore(directory, FILE_SIZE)) {
+            assertEquals(GorillaChunk.MAX_SAMPLES, count(store, humidity, 0, Long.MAX_VALUE));
+            assertEquals(0, count(store, pressure, 0, Long.MAX_VALUE));
+            assertFalse(Files.exists(directory.resolve("chunks-000001.dat")));
+            // The next chunk overwrites the bad record
+            fill(store, 1000);
+        }
+        try (SensorTimeSeriesStore store = new SensorTimeSeriesStore(directory, FILE_SIZE)) {
+            assertEquals(GorillaChunk.MAX_SAMPLES + 1000, count(store, humidity, 0, Long.MAX_VALUE));
+            assertEquals(1000, count(store, pressure, 0, Long.MAX_VALUE));
+        }
+    }
+
+    private void fillAndClose(int samples) throws IOException {
+        try (SensorTimeSeriesStore store = new SensorTimeSeriesStore(directory, FILE_SIZE)) {
+            fill(store, samples);
+        }
+    }
+
+    private int recordSize(int position) throws IOException {
+        return HEADER_BYTES + readBytes(position + WORD_COUNT, Integer.BYTES).getInt(0) * Long.BYTES;
+    }
+
+    private ByteBuffer readBytes(int position, int length) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory.resolve("chunks-000000.dat"), StandardOpenOption.READ)) {
+            ByteBuffer bytes = ByteBuffer.allocate(length);
+            channel.read(bytes, position);
+            return bytes;
+        }
+    }
+
+    private void writeByte(int position, byte value) throws IOException {
+        write(position, ByteBuffer.wrap(new byte[] {value}));
+    }
+
+    private void write(int position, ByteBuffer bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory.resolve("chunks-000000.dat"), StandardOpenOption.WRITE)) {
+            channel.write(bytes, position);
+        }
+    }
+
+    // Humidity ticks every 10 ms with value i; pressure arrives out of order
+    private void fill(SensorTimeSeriesStore store, int samples) {
+        for (int i = 0; i < samples; i++) {
+            store.append(SensorType.HUMIDITY, humidity.getMostSignificantBits(), humidity.getLeastSignificantBits(), i * 10L, i);
+            store.append(SensorType.PRESSURE, pressure.getMostSignificantBits(), pressure.getLeastSignificantBits(),
+                    i % 2 == 0 ? i : 2L * samples - i, i);
+        }
+    }
+
+    private static int count(SensorTimeSeriesStore store, UUID sensorUUID, long from, long to) {
+        return timestamps(store, sensorUUID, from, to).size();
+    }
+
+    private static List<Long> timestamps(SensorTimeSeriesStore store, UUID sensorUUID, long from, long to) {
+        List<Long> timestamps = new ArrayList<>();
+        store.query(sensorUUID, from, to, (timestamp, value) -> timestamps.add(timestamp));
+        return timestamps;
+    }
+}
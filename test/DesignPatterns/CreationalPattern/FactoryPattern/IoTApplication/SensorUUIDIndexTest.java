@@ -0,0 +1,76 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SensorUUIDIndexTest {
+
+    @Test
+    void findsEveryValueAcrossResizes() {
+        SensorUUIDIndex<UUID> index = new SensorUUIDIndex<>();
+        List<UUID> sensors = sensors(10_000);
+        for (UUID sensor : sensors) {
+            index.put(sensor.getMostSignificantBits(), sensor.getLeastSignificantBits(), sensor);
+        }
+
+        assertEquals(10_000, index.size());
+        for (UUID sensor : sensors) {
+            assertEquals(sensor, index.get(sensor.getMostSignificantBits(), sensor.getLeastSignificantBits()));
+        }
+        assertNull(index.get(1, 2));
+    }
+
+    @Test
+    void keepsOtherValuesFindableAfterRemovals() {
+        SensorUUIDIndex<UUID> index = new SensorUUIDIndex<>();
+        List<UUID> sensors = sensors(5000);
+        for (UUID sensor : sensors) {
+            index.put(sensor.getMostSignificantBits(), sensor.getLeastSignificantBits(), sensor);
+        }
+
+        for (int i = 0; i < sensors.size(); i += 2) {
+            UUID sensor = sensors.get(i);
+            assertEquals(sensor, index.remove(sensor.getMostSignificantBits(), sensor.getLeastSignificantBits()));
+        }
+
+        assertEquals(2500, index.size());
+        for (int i = 0; i < sensors.size(); i++) {
+            UUID sensor = sensors.get(i);
+            UUID found = index.get(sensor.getMostSignificantBits(), sensor.getLeastSignificantBits());
+            assertEquals(i % 2 == 0 ? null : sensor, found);
+        }
+        assertNull(index.remove(1, 2));
+    }
+
+    @Test
+    void removesFromARunOfCollidingKeys() {
+        SensorUUIDIndex<String> index = new SensorUUIDIndex<>();
+        // Keys with equal msb ^ lsb share a home slot
+        for (long i = 0; i < 8; i++) {
+            index.put(i, i, "sensor-" + i);
+        }
+        index.remove(3, 3);
+        index.remove(0, 0);
+
+        for (long i = 0; i < 8; i++) {
+            assertEquals(i == 0 || i == 3 ? null : "sensor-" + i, index.get(i, i));
+        }
+        index.put(3, 3, "again");
+        assertEquals("again", index.get(3, 3));
+        assertEquals(7, index.size());
+    }
+
+    private static List<UUID> sensors(int count) {
+        List<UUID> sensors = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            sensors.add(UUID.randomUUID());
+        }
+        return sensors;
+    }
+}
@@ -0,0 +1,118 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SensorWindowAggregatorTest {
+    private final UUID sensor = UUID.randomUUID();
+
+    @Test
+    void summarisesATumblingWindowOnceItCloses() {
+        SensorWindowAggregator aggregator = SensorWindowAggregator.tumbling(1000);
+        List<SensorWindowAggregator.WindowResult> windows = new ArrayList<>();
+        aggregator.addWindowListener(windows::add);
+
+        read(aggregator, 100, 40);
+        read(aggregator, 500, 60);
+        read(aggregator, 999, 50);
+        assertEquals(0, windows.size());
+
+        read(aggregator, 1000, 70);
+        // One window for the sensor and one for its type
+        assertEquals(2, windows.size());
+        SensorWindowAggregator.WindowResult window = windows.get(0);
+        assertEquals(sensor, window.getSensorUUID());
+        assertEquals(0, window.getWindowStart());
+        assertEquals(1000, window.getWindowEnd());
+        assertEquals(3, window.getCount());
+        assertEquals(40, window.getMin(), 0.5);
+        assertEquals(60, window.getMax(), 0.6);
+        assertEquals(50, window.getMean(), 0.5);
+        assertNull(windows.get(1).getSensorUUID());
+        assertEquals(3, windows.get(1).getCount());
+    }
+
+    @Test
+    void overlapsSlidingWindows() {
+        SensorWindowAggregator aggregator = SensorWindowAggregator.sliding(30, 10);
+        List<Long> counts = new ArrayList<>();
+        aggregator.addWindowListener(window -> {
+            if (window.getSensorUUID() != null) {
+                counts.add(window.getCount());
+            }
+        });
+
+        read(aggregator, 5, 1);
+        read(aggregator, 15, 1);
+        read(aggregator, 25, 1);
+        read(aggregator, 45, 1);
+
+        // Windows ending at 10, 20, 30 and 40
+        assertEquals(List.of(1L, 2L, 3L, 2L), counts);
+    }
+
+    @Test
+    void countsReadingsForWindowsThatAlreadyClosed() {
+        SensorWindowAggregator aggregator = SensorWindowAggregator.tumbling(1000);
+        read(aggregator, 2500, 1);
+        read(aggregator, 500, 1);
+        // Late for both the sensor window and the type window
+        assertEquals(2, aggregator.getLateReadingCount());
+    }
+
+    @Test
+    void alertsOnlyWhenASensorStartsMatchingARule() {
+        SensorWindowAggregator aggregator = SensorWindowAggregator.tumbling(60_000);
+        aggregator.addRule(AlertRule.below("dry", SensorType.HUMIDITY, 20));
+        aggregator.addRule(AlertRule.rateOfChange("swing", SensorType.HUMIDITY, 5));
+        aggregator.addRule(AlertRule.above("hot", SensorType.TEMPERATURE, 0));
+        List<String> alerts = new ArrayList<>();
+        aggregator.addAlertListener(event -> alerts.add(event.getRule().getName() + "@" + event.getTimestamp()));
+
+        read(aggregator, 0, 30);
+        read(aggregator, 1000, 32);
+        read(aggregator, 2000, 15);
+        read(aggregator, 3000, 14);
+        read(aggregator, 4000, 25);
+        read(aggregator, 5000, 10);
+
+        assertEquals(List.of("dry@2000", "swing@2000", "swing@4000", "dry@5000"), alerts);
+    }
+
+    @Test
+    void rejectsMoreRulesThanItCanTrack() {
+        SensorWindowAggregator aggregator = SensorWindowAggregator.tumbling(1000);
+        for (int i = 0; i < SensorWindowAggregator.MAX_RULES; i++) {
+            aggregator.addRule(AlertRule.above("rule " + i, SensorType.HUMIDITY, i));
+        }
+        assertThrows(IllegalStateException.class, () -> aggregator.addRule(AlertRule.above("one more", SensorType.HUMIDITY, 0)));
+        assertThrows(IllegalArgumentException.class, () -> new SensorWindowAggregator(25, 10));
+    }
+
+    @Test
+    void forgetsTheStateOfARemovedSensor() {
+        SensorWindowAggregator aggregator = SensorWindowAggregator.tumbling(1000);
+        aggregator.addRule(AlertRule.above("humid", SensorType.HUMIDITY, 80));
+        List<AlertEvent> alerts = new ArrayList<>();
+        aggregator.addAlertListener(alerts::add);
+
+        read(aggregator, 0, 85);
+        read(aggregator, 10, 86);
+        assertEquals(1, alerts.size());
+
+        aggregator.onSensorRemoved(sensor.getMostSignificantBits(), sensor.getLeastSignificantBits());
+        read(aggregator, 20, 87);
+        assertEquals(2, alerts.size());
+    }
+
+    private void read(SensorWindowAggregator aggregator, long timestamp, double value) {
+        aggregator.onReading(SensorType.HUMIDITY, sensor.getMostSignificantBits(), sensor.getLeastSignificantBits(), timestamp, value);
+    }
+}
@@ -0,0 +1,121 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.IoTApplication;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardedSensorSystemTest {
+
+    @Test
+    void spreadsSensorsEvenlyAcrossShards() {
+        int[] perShard = new int[4];
+        for (int i = 0; i < 40_000; i++) {
+            perShard[ShardedSensorSystem.shardIndex(UUID.randomUUID(), perShard.length)]++;
+        }
+        for (int count : perShard) {
+            assertEquals(10_000, count, 600);
+        }
+    }
+
+    @Test
+    void growingByOneShardMovesSensorsOnlyToTheNewShard() {
+        int moved = 0;
+        for (int i = 0; i < 10_000; i++) {
+            UUID sensorUUID = UUID.randomUUID();
+            int before = ShardedSensorSystem.shardIndex(sensorUUID, 4);
+            int after = ShardedSensorSystem.shardIndex(sensorUUID, 5);
+            if (after != before) {
+                assertEquals(4, after);
+                moved++;
+            }
+        }
+        // About a fifth of the sensors
+        assertEquals(2000, moved, 300);
+    }
+
+    @Test
+    void deliversEachSensorsReadingsToItsOwnShard() throws InterruptedException {
+        ShardedSensorSystem<RecordingHandler> system = new ShardedSensorSystem<>(3, shard -> new RecordingHandler());
+        List<Sensor> sensors = new ArrayList<>();
+        try {
+            for (int i = 0; i < 30; i++) {
+                Sensor sensor = new PressureSensor("pressure " + i);
+                sensors.add(sensor);
+                system.addSensor(sensor, 10);
+            }
+            assertEquals(30, system.size());
+            system.startAllSensors();
+
+            for (Sensor sensor : sensors) {
+                RecordingHandler handler = system.getHandler(system.shardOf(sensor.getSensorUUID()));
+                awaitReading(handler, sensor.getSensorUUID());
+            }
+        } finally {
+            system.shutdown();
+        }
+        for (int shard = 0; shard < 3; shard++) {
+            for (UUID sensorUUID : system.getHandler(shard).sensors) {
+                assertEquals(shard, system.shardOf(sensorUUID));
+            }
+        }
+    }
+
+    @Test
+    void addingAShardMovesOnlyTheSensorsThatHashToIt() throws InterruptedException {
+        ShardedSensorSystem<RecordingHandler> system = new ShardedSensorSystem<>(2, shard -> new RecordingHandler());
+        List<Sensor> sensors = new ArrayList<>();
+        try {
+            for (int i = 0; i < 60; i++) {
+                Sensor sensor = new HumiditySensor("humidity " + i);
+                sensors.add(sensor);
+                system.addSensor(sensor, 10);
+            }
+            system.startAllSensors();
+
+            int expected = 0;
+            for (Sensor sensor : sensors) {
+                if (ShardedSensorSystem.shardIndex(sensor.getSensorUUID(), 3) == 2) {
+                    expected++;
+                }
+            }
+            assertEquals(expected, system.addShard());
+            assertEquals(3, system.getShardCount());
+            assertEquals(60, system.size());
+
+            // Moved sensors keep running, now on the new shard
+            RecordingHandler added = system.getHandler(2);
+            for (Sensor sensor : sensors) {
+                if (system.shardOf(sensor.getSensorUUID()) == 2) {
+                    awaitReading(added, sensor.getSensorUUID());
+                }
+            }
+        } finally {
+            system.shutdown();
+        }
+    }
+
+    private static void awaitReading(RecordingHandler handler, UUID sensorUUID) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!handler.sensors.contains(sensorUUID) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(handler.sensors.contains(sensorUUID), "no reading from " + sensorUUID);
+    }
+
+    private static final class RecordingHandler implements SensorReadingHandler {
+        final Set<UUID> sensors = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public void onReading(SensorType sensorType, long uuidMostSigBits, long uuidLeastSigBits, long timestamp, double value) {
+            sensors.add(new UUID(uuidMostSigBits, uuidLeastSigBits));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.Metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MetricsMBeanTest {
+
+    @Test
+    void readsAttributesFromLiveCounters() throws Exception {
+        AtomicLong sent = new AtomicLong();
+        ObjectName name = new MetricsMBean("Test metrics")
+                .counter("Sent", sent::get)
+                .gauge("Ratio", () -> 0.5)
+                .register("MetricsMBeanTest:type=Live");
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            sent.set(42);
+            assertEquals(42L, server.getAttribute(name, "Sent"));
+            assertEquals(0.5, server.getAttribute(name, "Ratio"));
+        } finally {
+            MetricsMBean.unregister(name);
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+
+    @Test
+    void refusesToReplaceAnMBeanOfTheSameName() {
+        ObjectName name = new MetricsMBean("First").counter("Sent", () -> 1L).register("MetricsMBeanTest:type=Clash");
+        try {
+            MetricsMBean second = new MetricsMBean("Second").counter("Sent", () -> 2L);
+            assertThrows(IllegalStateException.class, () -> second.register("MetricsMBeanTest:type=Clash"));
+        } finally {
+            MetricsMBean.unregister(name);
+        }
+    }
+
+    @Test
+    void dumpsOneLinePerAttribute() {
+        StringBuilder out = new StringBuilder();
+        new MetricsMBean("").counter("Sent", () -> 3L).counter("Failed", () -> 0L).dump("channel.EMAIL", out);
+
+        assertEquals("channel.EMAIL.Sent 3\nchannel.EMAIL.Failed 0\n", out.toString());
+    }
+}
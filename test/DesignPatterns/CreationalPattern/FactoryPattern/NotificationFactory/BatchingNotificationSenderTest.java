@@ -0,0 +1,223 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.NotificationFactory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchingNotificationSenderTest {
+    private final List<List<NotificationMessage>> batches = new CopyOnWriteArrayList<>();
+    private final BulkSender recorder = (channelType, messages) -> batches.add(new ArrayList<>(messages));
+
+    @Test
+    void sendsEveryMessageOnceFromConcurrentProducers() throws Exception {
+        try (BatchingNotificationSender sender = new BatchingNotificationSender.Builder()
+                .sender(ChannelType.EMAIL, recorder)
+                .batchSize(50)
+                .linger(5)
+                .build()) {
+            List<CompletableFuture<Void>> results = Collections.synchronizedList(new ArrayList<>());
+            List<Thread> producers = new ArrayList<>();
+            for (int p = 0; p < 4; p++) {
+                int producer = p;
+                Thread thread = new Thread(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        results.add(sender.send(message(producer * 1000 + i)));
+                    }
+                });
+                thread.start();
+                producers.add(thread);
+            }
+            for (Thread producer : producers) {
+                producer.join();
+            }
+            CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+        }
+
+        List<NotificationMessage> sent = new ArrayList<>();
+        for (List<NotificationMessage> batch : batches) {
+            assertTrue(batch.size() <= 50, "batch of " + batch.size());
+            sent.addAll(batch);
+        }
+        assertEquals(4000, sent.size());
+        assertEquals(4000, sent.stream().distinct().count());
+    }
+
+    @Test
+    void mergesDuplicatesWithinABatch() throws Exception {
+        try (BatchingNotificationSender sender = new BatchingNotificationSender.Builder()
+                .sender(ChannelType.SMS, recorder)
+                .linger(1000)
+                .build()) {
+            CompletableFuture<Void> first = sender.send(message(1, ChannelType.SMS));
+            CompletableFuture<Void> duplicate = sender.send(message(1, ChannelType.SMS));
+            sender.flush();
+            first.get(5, TimeUnit.SECONDS);
+            assertSame(first, duplicate);
+        }
+        assertEquals(1, batches.size());
+        assertEquals(1, batches.get(0).size());
+    }
+
+    @Test
+    void lingerTimerFlushesOnlyTheBatchItWasStartedFor() throws Exception {
+        ManualTimers timers = new ManualTimers();
+        try (BatchingNotificationSender sender = new BatchingNotificationSender.Builder()
+                .sender(ChannelType.PUSH, recorder)
+                .batchSize(2)
+                .linger(1000)
+                .executors(channelType -> timers)
+                .build()) {
+            sender.send(message(1, ChannelType.PUSH));
+            sender.send(message(2, ChannelType.PUSH)).get(5, TimeUnit.SECONDS);
+            CompletableFuture<Void> third = sender.send(message(3, ChannelType.PUSH));
+
+            // The full first batch's timer fires while the second batch is still open
+            timers.fire(0);
+            assertFalse(third.isDone());
+            assertEquals(1, batches.size());
+
+            timers.fire(1);
+            third.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(2, batches.size());
+    }
+
+    @Test
+    void aSlowChannelDoesNotDelayTheOthers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        BulkSender stuck = (channelType, messages) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        try (BatchingNotificationSender sender = new BatchingNotificationSender.Builder()
+                .sender(ChannelType.EMAIL, stuck)
+                .sender(ChannelType.SMS, recorder)
+                .batchSize(1)
+                .build()) {
+            CompletableFuture<Void> email = sender.send(message(1));
+            sender.send(message(2, ChannelType.SMS)).get(5, TimeUnit.SECONDS);
+            assertFalse(email.isDone());
+
+            release.countDown();
+            email.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void reportsMessagesWaitingAndBatchesInFlight() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BulkSender blocked = (channelType, messages) -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        try (BatchingNotificationSender sender = new BatchingNotificationSender.Builder()
+                .sender(ChannelType.EMAIL, blocked)
+                .batchSize(2)
+                .linger(60_000)
+                .build()) {
+            ChannelMetrics metrics = sender.getMetrics(ChannelType.EMAIL);
+            sender.send(message(1));
+            CompletableFuture<Void> first = sender.send(message(2));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            CompletableFuture<Void> third = sender.send(message(3));
+
+            assertEquals(1, metrics.getInFlightCount());
+            assertEquals(1, metrics.getQueueDepth());
+
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            sender.flush();
+            third.get(5, TimeUnit.SECONDS);
+            assertEquals(3, metrics.getSentCount());
+            assertEquals(0, metrics.getInFlightCount());
+            assertEquals(0, metrics.getQueueDepth());
+            assertEquals(2, metrics.getSendLatency().getCount());
+        }
+    }
+
+    @Test
+    void failsSendsAfterClose() {
+        BatchingNotificationSender sender = new BatchingNotificationSender.Builder()
+                .sender(ChannelType.EMAIL, recorder)
+                .build();
+        sender.close();
+
+        ExecutionException closed = assertThrows(ExecutionException.class,
+                () -> sender.send(message(1)).get(1, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, closed.getCause());
+    }
+
+    @Test
+    void failsTheWholeBatchWhenTheProviderThrows() {
+        BulkSender failing = (channelType, messages) -> {
+            throw new IllegalStateException("Provider unavailable");
+        };
+        try (BatchingNotificationSender sender = new BatchingNotificationSender.Builder()
+                .sender(ChannelType.EMAIL, failing)
+                .linger(1000)
+                .build()) {
+            CompletableFuture<Void> first = sender.send(message(1));
+            CompletableFuture<Void> second = sender.send(message(2));
+            sender.flush();
+            assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+            assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    private static NotificationMessage message(int i) {
+        return message(i, ChannelType.EMAIL);
+    }
+
+    private static NotificationMessage message(int i, ChannelType channelType) {
+        return new NotificationMessage(channelType, "user" + i + "@example.com", "Message " + i);
+    }
+
+    // Holds linger timers until the test fires them; sends still run on the executor's thread
+    private static final class ManualTimers extends ScheduledThreadPoolExecutor {
+        private final List<Runnable> timers = new CopyOnWriteArrayList<>();
+
+        ManualTimers() {
+            super(1);
+            setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+            if (delay == 0) {
+                return super.schedule(command, delay, unit);
+            }
+            timers.add(command);
+            return super.schedule(() -> { }, 1, TimeUnit.DAYS);
+        }
+
+        // Runs a timer, then waits for any send it submitted
+        void fire(int timer) throws Exception {
+            timers.get(timer).run();
+            submit(() -> { }).get(5, TimeUnit.SECONDS);
+        }
+    }
+}
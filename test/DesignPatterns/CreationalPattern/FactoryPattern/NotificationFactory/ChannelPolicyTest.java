@@ -0,0 +1,49 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.NotificationFactory;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChannelPolicyTest {
+
+    @Test
+    void doublesTheBackoffCeilingUpToTheCap() {
+        ChannelPolicy policy = new ChannelPolicy.Builder().retry(10, 100, 1000).build();
+
+        assertEquals(100, policy.backoffMillis(1, 1.0));
+        assertEquals(200, policy.backoffMillis(2, 1.0));
+        assertEquals(800, policy.backoffMillis(4, 1.0));
+        assertEquals(1000, policy.backoffMillis(5, 1.0));
+        assertEquals(400, policy.backoffMillis(4, 0.5));
+    }
+
+    @Test
+    void saturatesInsteadOfOverflowingOnLateRetries() {
+        ChannelPolicy policy = new ChannelPolicy.Builder().retry(100, 1L << 40, Long.MAX_VALUE).build();
+
+        assertEquals(1L << 40, policy.backoffMillis(1, 1.0));
+        assertEquals(1L << 62, policy.backoffMillis(23, 1.0));
+        for (int retry = 24; retry <= 100; retry++) {
+            assertEquals(Long.MAX_VALUE, policy.backoffMillis(retry, 1.0), "retry " + retry);
+        }
+        assertEquals(30_000, ChannelPolicy.defaults().backoffMillis(Integer.MAX_VALUE, 1.0));
+    }
+
+    @Test
+    void defaultsApplyNoLimits() {
+        ChannelPolicy policy = ChannelPolicy.defaults();
+
+        assertNull(policy.newRateLimiter());
+        assertNull(policy.newCircuitBreaker());
+        assertEquals(0, policy.getMaxRetries());
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new ChannelPolicy.Builder().retry(1, 100, 50));
+        assertThrows(IllegalArgumentException.class, () -> new ChannelPolicy.Builder().rateLimit(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new ChannelPolicy.Builder().circuitBreaker(0, 1000));
+    }
+}
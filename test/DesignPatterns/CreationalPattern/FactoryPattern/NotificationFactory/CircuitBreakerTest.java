@@ -0,0 +1,52 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.NotificationFactory;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        CircuitBreaker breaker = new CircuitBreaker(3, 60_000);
+
+        assertFalse(breaker.recordFailure());
+        breaker.recordSuccess();
+        assertFalse(breaker.recordFailure());
+        assertFalse(breaker.recordFailure());
+        assertTrue(breaker.recordFailure());
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    void letsOneTrialThroughOnceTheOpenPeriodEnds() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker(1, 1);
+        breaker.recordFailure();
+        Thread.sleep(5);
+
+        assertTrue(breaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+
+        breaker.recordSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    void reopensWhenTheTrialFails() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker(5, 1);
+        for (int i = 0; i < 5; i++) {
+            breaker.recordFailure();
+        }
+        Thread.sleep(5);
+        assertTrue(breaker.allowRequest());
+
+        assertTrue(breaker.recordFailure());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+}
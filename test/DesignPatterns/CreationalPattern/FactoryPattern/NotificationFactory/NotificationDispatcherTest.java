@@ -0,0 +1,170 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.NotificationFactory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NotificationDispatcherTest {
+
+    @Test
+    void neverSendsMoreThanTheConcurrencyLimit() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        Notification slow = notification(ChannelType.EMAIL, () -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            sleep(10);
+            inFlight.decrementAndGet();
+        });
+        try (NotificationDispatcher dispatcher = new NotificationDispatcher.Builder().concurrency(ChannelType.EMAIL, 3).build()) {
+            List<CompletableFuture<Void>> results = new ArrayList<>();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> producers = new ArrayList<>();
+            for (int p = 0; p < 4; p++) {
+                Thread producer = new Thread(() -> {
+                    await(start);
+                    for (int i = 0; i < 10; i++) {
+                        CompletableFuture<Void> result = dispatcher.dispatch(slow);
+                        synchronized (results) {
+                            results.add(result);
+                        }
+                    }
+                });
+                producer.start();
+                producers.add(producer);
+            }
+            start.countDown();
+            for (Thread producer : producers) {
+                producer.join();
+            }
+            CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+
+            assertEquals(40, dispatcher.getMetrics(ChannelType.EMAIL).getSentCount());
+            assertTrue(maxInFlight.get() <= 3, "max in flight " + maxInFlight.get());
+        }
+    }
+
+    @Test
+    void sendsNotificationsThatDoNotNameTheirChannel() throws Exception {
+        AtomicInteger sent = new AtomicInteger();
+        Notification legacy = sent::incrementAndGet;
+        assertThrows(IllegalStateException.class, legacy::getChannelType);
+
+        try (NotificationDispatcher dispatcher = new NotificationDispatcher.Builder().build()) {
+            dispatcher.dispatch(ChannelType.SMS, legacy).get(5, TimeUnit.SECONDS);
+            assertEquals(1, sent.get());
+            assertEquals(1, dispatcher.getMetrics(ChannelType.SMS).getSentCount());
+
+            // A registered notification takes its channel from the registry
+            Notification previous = NotificationFactory.createNotification(ChannelType.PUSH);
+            NotificationFactory.register(ChannelType.PUSH, legacy);
+            try {
+                assertEquals(ChannelType.PUSH, legacy.getChannelType());
+                dispatcher.dispatch(legacy).get(5, TimeUnit.SECONDS);
+                assertEquals(1, dispatcher.getMetrics(ChannelType.PUSH).getSentCount());
+            } finally {
+                NotificationFactory.register(previous);
+            }
+        }
+    }
+
+    @Test
+    void reportsQueueDepthAndSendsInFlight() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Notification blocked = notification(ChannelType.EMAIL, () -> {
+            started.countDown();
+            await(release);
+        });
+        try (NotificationDispatcher dispatcher = new NotificationDispatcher.Builder().concurrency(ChannelType.EMAIL, 1).build()) {
+            List<CompletableFuture<Void>> results = new ArrayList<>();
+            results.add(dispatcher.dispatch(blocked));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            results.add(dispatcher.dispatch(blocked));
+            results.add(dispatcher.dispatch(blocked));
+
+            ChannelMetrics metrics = dispatcher.getMetrics(ChannelType.EMAIL);
+            assertEquals(1, metrics.getInFlightCount());
+            assertEquals(2, metrics.getQueueDepth());
+
+            release.countDown();
+            CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).get(5, TimeUnit.SECONDS);
+            assertEquals(0, metrics.getInFlightCount());
+            assertEquals(0, metrics.getQueueDepth());
+        }
+    }
+
+    @Test
+    void retriesFailedSends() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        Notification flaky = notification(ChannelType.SMS, () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new IllegalStateException("Provider unavailable");
+            }
+        });
+        ChannelPolicy policy = new ChannelPolicy.Builder().retry(3, 1, 10).build();
+        try (NotificationDispatcher dispatcher = new NotificationDispatcher.Builder().policy(ChannelType.SMS, policy).build()) {
+            dispatcher.dispatch(flaky).get(5, TimeUnit.SECONDS);
+            assertEquals(3, attempts.get());
+            assertEquals(2, dispatcher.getMetrics(ChannelType.SMS).getRetryCount());
+        }
+    }
+
+    @Test
+    void closeFailsNotificationsWaitingForATokenAndRejectsNewOnes() throws Exception {
+        Notification push = notification(ChannelType.PUSH, () -> { });
+        ChannelPolicy policy = new ChannelPolicy.Builder().rateLimit(0.1, 1).build();
+        NotificationDispatcher dispatcher = new NotificationDispatcher.Builder().policy(ChannelType.PUSH, policy).build();
+        CompletableFuture<Void> first = dispatcher.dispatch(push);
+        // Waits ten seconds on the timer for the next token
+        CompletableFuture<Void> second = dispatcher.dispatch(push);
+
+        dispatcher.close();
+
+        first.get(5, TimeUnit.SECONDS);
+        ExecutionException delayed = assertThrows(ExecutionException.class, () -> second.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(NotificationRejectedException.class, delayed.getCause());
+        ExecutionException closed = assertThrows(ExecutionException.class, () -> dispatcher.dispatch(push).get(1, TimeUnit.SECONDS));
+        assertInstanceOf(NotificationRejectedException.class, closed.getCause());
+    }
+
+    private static Notification notification(ChannelType channelType, Runnable send) {
+        return new Notification() {
+            @Override
+            public void sendNotification() {
+                send.run();
+            }
+
+            @Override
+            public ChannelType getChannelType() {
+                return channelType;
+            }
+        };
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
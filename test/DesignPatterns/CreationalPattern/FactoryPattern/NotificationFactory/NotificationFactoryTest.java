@@ -0,0 +1,51 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.NotificationFactory;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class NotificationFactoryTest {
+
+    @Test
+    void sharesOneNotificationPerChannel() {
+        for (ChannelType channelType : ChannelType.values()) {
+            Notification notification = NotificationFactory.createNotification(channelType);
+            assertSame(notification, NotificationFactory.createNotification(channelType));
+            assertEquals(channelType, notification.getChannelType());
+        }
+    }
+
+    @Test
+    void replacesTheNotificationOfARegisteredChannel() {
+        Notification previous = NotificationFactory.createNotification(ChannelType.SMS);
+        Notification replacement = new Notification() {
+            @Override
+            public void sendNotification() {
+            }
+
+            @Override
+            public ChannelType getChannelType() {
+                return ChannelType.SMS;
+            }
+        };
+        try {
+            NotificationFactory.register(replacement);
+            assertSame(replacement, NotificationFactory.createNotification(ChannelType.SMS));
+        } finally {
+            NotificationFactory.register(previous);
+        }
+        assertSame(previous, NotificationFactory.createNotification(ChannelType.SMS));
+    }
+
+    @Test
+    void rejectsMissingArgumentsAndUnregisteredNotifications() {
+        assertThrows(IllegalArgumentException.class, () -> NotificationFactory.createNotification(null));
+        assertThrows(IllegalArgumentException.class, () -> NotificationFactory.register(null));
+        assertThrows(IllegalArgumentException.class, () -> NotificationFactory.register(null, () -> { }));
+
+        Notification unregistered = () -> { };
+        assertThrows(IllegalStateException.class, unregistered::getChannelType);
+    }
+}
@@ -0,0 +1,131 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.NotificationFactory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class NotificationOutboxTest {
+    private static final int SEGMENT_SIZE = 4096;
+    // Record header: length, checksum, ack flag, channel, recipient length
+    private static final int HEADER_BYTES = 4 + 4 + 1 + 1 + 4;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysOnlyUnacknowledgedMessagesAfterReopen() throws Exception {
+        List<Long> offsets = new ArrayList<>();
+        try (NotificationOutbox outbox = new NotificationOutbox(directory, SEGMENT_SIZE)) {
+            for (int i = 0; i < 100; i++) {
+                offsets.add(outbox.append(message(i)).get(5, TimeUnit.SECONDS));
+            }
+            // Out of order, spanning several segments
+            for (int i = 59; i >= 0; i--) {
+                outbox.acknowledge(offsets.get(i));
+            }
+            outbox.acknowledge(offsets.get(80));
+            assertEquals(39, outbox.getUnacknowledgedCount());
+        }
+
+        List<NotificationMessage> replayed = new ArrayList<>();
+        try (NotificationOutbox outbox = new NotificationOutbox(directory, SEGMENT_SIZE)) {
+            assertEquals(39, outbox.getUnacknowledgedCount());
+            outbox.replay(message -> {
+                replayed.add(message);
+                return CompletableFuture.completedFuture(null);
+            }).get(5, TimeUnit.SECONDS);
+            assertEquals(0, outbox.getUnacknowledgedCount());
+        }
+        assertEquals(message(60), replayed.get(0));
+        assertEquals(message(99), replayed.get(replayed.size() - 1));
+        assertFalse(replayed.contains(message(80)));
+
+        try (NotificationOutbox outbox = new NotificationOutbox(directory, SEGMENT_SIZE)) {
+            assertEquals(0, outbox.getUnacknowledgedCount());
+        }
+    }
+
+    @Test
+    void stopsRecoveryAtACorruptRecord() throws Exception {
+        List<Long> offsets = appendAndClose(10);
+        long corrupt = offsets.get(4);
+        // Flip a byte of the body, as a record only partly written before a crash would look
+        byte[] recipient = message(4).getRecipient().getBytes(StandardCharsets.UTF_8);
+        flipByte(corrupt, HEADER_BYTES + recipient.length);
+
+        try (NotificationOutbox outbox = new NotificationOutbox(directory, SEGMENT_SIZE)) {
+            assertEquals(4, outbox.getUnacknowledgedCount());
+            // The log ends before the bad record, so the next append overwrites it
+            assertEquals(corrupt, outbox.append(message(42)).get(5, TimeUnit.SECONDS));
+        }
+        try (NotificationOutbox outbox = new NotificationOutbox(directory, SEGMENT_SIZE)) {
+            assertEquals(5, outbox.getUnacknowledgedCount());
+        }
+    }
+
+    @Test
+    void stopsRecoveryAtAnImpossibleLength() throws Exception {
+        List<Long> offsets = appendAndClose(5);
+        writeInt(offsets.get(2), Integer.MAX_VALUE);
+
+        try (NotificationOutbox outbox = new NotificationOutbox(directory, SEGMENT_SIZE)) {
+            assertEquals(2, outbox.getUnacknowledgedCount());
+        }
+    }
+
+    @Test
+    void rejectsAppendsAfterClose() throws IOException {
+        NotificationOutbox outbox = new NotificationOutbox(directory, SEGMENT_SIZE);
+        outbox.close();
+        assertThrows(IllegalStateException.class, () -> outbox.append(message(0)));
+    }
+
+    private List<Long> appendAndClose(int count) throws Exception {
+        List<Long> offsets = new ArrayList<>();
+        try (NotificationOutbox outbox = new NotificationOutbox(directory, SEGMENT_SIZE)) {
+            for (int i = 0; i < count; i++) {
+                offsets.add(outbox.append(message(i)).get(5, TimeUnit.SECONDS));
+            }
+        }
+        return offsets;
+    }
+
+    private void flipByte(long offset, int at) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentFile(offset), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer value = ByteBuffer.allocate(1);
+            long position = offset % SEGMENT_SIZE + at;
+            channel.read(value, position);
+            value.put(0, (byte) ~value.get(0)).rewind();
+            channel.write(value, position);
+        }
+    }
+
+    private void writeInt(long offset, int value) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentFile(offset), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, value), offset % SEGMENT_SIZE);
+        }
+    }
+
+    private Path segmentFile(long offset) {
+        return directory.resolve(String.format("outbox-%020d.log", offset / SEGMENT_SIZE));
+    }
+
+    private static NotificationMessage message(int i) {
+        return new NotificationMessage(ChannelType.values()[i % ChannelType.values().length],
+                "user" + i + "@example.com", "Order " + i + " has shipped");
+    }
+}
@@ -0,0 +1,31 @@
+package DesignPatterns.CreationalPattern.FactoryPattern.NotificationFactory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    @Test
+    void grantsTheBurstAtOnceThenReservesConsecutiveSlots() {
+        TokenBucket bucket = new TokenBucket(1, 3);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.reserve());
+        }
+
+        long first = bucket.reserve();
+        long second = bucket.reserve();
+        assertTrue(first > TimeUnit.MILLISECONDS.toNanos(900) && first <= TimeUnit.SECONDS.toNanos(1), "waits " + first);
+        assertTrue(second - first > TimeUnit.MILLISECONDS.toNanos(900), "second waits " + second);
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0));
+    }
+}